@@ -19,7 +19,7 @@ async function loadAddressOptions() {
   const wardSelect = document.getElementById("ward");
 
   // Load tỉnh
-  const provinces = await fetch("https://provinces.open-api.vn/api/p/").then(
+  const provinces = await fetch(`${API_BASE_URL}/locations/provinces`).then(
     (r) => r.json()
   );
   provinceSelect.innerHTML = '<option value="">-- Chọn Tỉnh/Thành --</option>';
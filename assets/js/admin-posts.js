@@ -17,6 +17,7 @@ const formatDate = (dateString) => dateString ? new Date(dateString).toLocaleDat
 // Biến lưu trữ dữ liệu gốc
 let allPosts = [];
 let currentFilter = 'ALL'; // Trạng thái lọc hiện tại
+let moderationMode = false; // Đang duyệt lô bài nhận từ hàng đợi
 
 // ==========================================
 // 1. TẢI DỮ LIỆU
@@ -115,15 +116,22 @@ function renderPosts(postsData) {
         // Trạng thái
         const status = (post.status || post.postStatus || "PENDING").toUpperCase();
         let badge = getStatusBadge(status);
+        if (post.archived) {
+            badge += ` <span class="badge bg-light text-dark">📦 Lưu trữ</span>`;
+        }
 
         // Actions
         let actions = '';
-        if (status === 'PENDING') {
+        if (status === 'PENDING' && moderationMode) {
+            actions = `
+                <button class="btn btn-sm btn-success me-1" onclick="completeModeration('${pID}', ${post.version}, 'APPROVED')" title="Duyệt"><i class="bi bi-check-lg"></i></button>
+                <button class="btn btn-sm btn-danger" onclick="completeModeration('${pID}', ${post.version}, 'DECLINED')" title="Từ chối"><i class="bi bi-x-lg"></i></button>`;
+        } else if (status === 'PENDING') {
             actions = `
-                <button class="btn btn-sm btn-success me-1" onclick="updatePostStatus('${pID}', 'APPROVED')" title="Duyệt"><i class="bi bi-check-lg"></i></button>
-                <button class="btn btn-sm btn-danger" onclick="updatePostStatus('${pID}', 'DECLINED')" title="Từ chối"><i class="bi bi-x-lg"></i></button>`;
+                <button class="btn btn-sm btn-success me-1" onclick="updatePostStatus('${pID}', ${post.version}, 'APPROVED')" title="Duyệt"><i class="bi bi-check-lg"></i></button>
+                <button class="btn btn-sm btn-danger" onclick="updatePostStatus('${pID}', ${post.version}, 'DECLINED')" title="Từ chối"><i class="bi bi-x-lg"></i></button>`;
         } else if (status === 'APPROVED') {
-            actions = `<button class="btn btn-sm btn-outline-secondary" onclick="updatePostStatus('${pID}', 'SOLD')">Đã bán</button>`;
+            actions = `<button class="btn btn-sm btn-outline-secondary" onclick="updatePostStatus('${pID}', ${post.version}, 'SOLD')">Đã bán</button>`;
         } else {
             actions = `<span class="text-muted small">--</span>`;
         }
@@ -150,6 +158,7 @@ function getStatusBadge(status) {
         case "DECLINED": 
         case "REJECTED": return `<span class="badge bg-danger">❌ Từ chối</span>`;
         case "SOLD": return `<span class="badge bg-secondary">💰 Đã bán</span>`;
+        case "EXPIRED": return `<span class="badge bg-dark">⌛ Hết hạn</span>`;
         default: return `<span class="badge bg-light text-dark">? ${status}</span>`;
     }
 }
@@ -157,7 +166,7 @@ function getStatusBadge(status) {
 // ==========================================
 // 4. HÀNH ĐỘNG
 // ==========================================
-window.updatePostStatus = async function (id, status) {
+window.updatePostStatus = async function (id, version, status) {
     const result = await Swal.fire({
         title: 'Xác nhận?',
         text: status === 'APPROVED' ? 'Duyệt bài này?' : (status === 'DECLINED' ? 'Từ chối bài này?' : 'Đánh dấu đã bán?'),
@@ -167,12 +176,64 @@ window.updatePostStatus = async function (id, status) {
     if (result.isConfirmed) {
         try {
             Swal.showLoading();
-            await window.api.adminAPI.updatePostStatus(id, { status: status });
+            await window.api.adminAPI.updatePostStatus(id, { status: status }, version);
             await loadData(); // Load lại dữ liệu
             Swal.close();
             window.Toast.fire({ icon: 'success', title: 'Thành công!' });
         } catch (e) {
             Swal.fire('Lỗi', e.message, 'error');
+            await loadData(); // Bài có thể vừa bị sửa (412) → hiển thị version mới
+        }
+    }
+}
+
+// ==========================================
+// 5. HÀNG ĐỢI DUYỆT BÀI (nhiều Admin duyệt cùng lúc không trùng bài)
+// ==========================================
+window.toggleModeration = async function () {
+    const btn = document.getElementById("moderationBtn");
+    try {
+        if (moderationMode) {
+            // Trả các bài chưa duyệt về hàng đợi cho Admin khác
+            await window.api.adminAPI.releaseModeration(allPosts.map(p => p.postID));
+            moderationMode = false;
+            btn.innerText = "Nhận bài để duyệt";
+            await loadData();
+            return;
+        }
+        await claimModerationBatch();
+        moderationMode = true;
+        btn.innerText = "Trả bài & thoát";
+    } catch (e) {
+        Swal.fire('Lỗi', e.message, 'error');
+    }
+};
+
+async function claimModerationBatch() {
+    const batch = await window.api.adminAPI.claimModeration(10);
+    allPosts = batch.posts || [];
+    const countEl = document.getElementById("totalPostsCount");
+    if (countEl) {
+        countEl.innerText = allPosts.length
+            ? `Đang giữ ${allPosts.length} bài đến ${new Date(batch.leaseExpiresAt).toLocaleTimeString("vi-VN")}`
+            : "Không còn bài chờ duyệt";
+    }
+    applyFilterAndRender();
+}
+
+window.completeModeration = async function (id, version, status) {
+    try {
+        await window.api.adminAPI.completeModeration(id, { status: status }, version);
+        allPosts = allPosts.filter(p => String(p.postID) !== String(id));
+        window.Toast.fire({ icon: 'success', title: status === 'APPROVED' ? 'Đã duyệt!' : 'Đã từ chối!' });
+        if (allPosts.length > 0) {
+            applyFilterAndRender();
+            return;
         }
+    } catch (e) {
+        // 409: bài đã chuyển cho Admin khác, 412: người bán vừa sửa bài
+        Swal.fire('Lỗi', e.message, 'error');
     }
-}
\ No newline at end of file
+    // Nhận lại: các bài đang giữ được trả về với version mới, hết bài thì nhận lô tiếp theo
+    await claimModerationBatch();
+};
\ No newline at end of file
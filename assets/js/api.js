@@ -131,7 +131,8 @@ const authAPI = {
 // =============================================================
 const bookAPI = {
   list: async () => {
-    const res = await fetch(`${API_BASE_URL}/books`, { headers: getHeaders() });
+    // view=card: chỉ các field thẻ sách cần (không mô tả, liên hệ)
+    const res = await fetch(`${API_BASE_URL}/books?view=card`, { headers: getHeaders() });
     return handleResponse(res);
   },
 
@@ -142,6 +143,13 @@ const bookAPI = {
     return handleResponse(res);
   },
 
+  related: async (bookID, limit = 4) => {
+    const res = await fetch(`${API_BASE_URL}/books/${bookID}/related?limit=${limit}`, {
+      headers: getHeaders(),
+    });
+    return handleResponse(res);
+  },
+
   search: async (params) => {
     const qs = new URLSearchParams(params).toString();
     const res = await fetch(`${API_BASE_URL}/books/search?${qs}`);
@@ -188,10 +196,11 @@ const postAPI = {
     return handleResponse(res);
   },
 
-  update: async (postID, payload) => {
+  // version lấy từ getMyPosts(); bài đã bị sửa ở nơi khác → server trả 412
+  update: async (postID, payload, version) => {
     const res = await fetch(`${API_BASE_URL}/my-posts/${postID}`, {
       method: "PUT",
-      headers: getHeaders(),
+      headers: { ...getHeaders(), "If-Match": `"v${version}"` },
       body: JSON.stringify(payload),
     });
     return handleResponse(res);
@@ -291,15 +300,44 @@ const adminAPI = {
     return handleResponse(res);
   },
 
-  async updatePostStatus(postID, payload) {
+  // version lấy từ getAllPosts(); bài đã bị sửa ở nơi khác → server trả 412
+  async updatePostStatus(postID, payload, version) {
     const res = await fetch(`${API_BASE_URL}/admin/posts/${postID}/status`, {
       method: "PUT",
+      headers: { ...getHeaders(true, true), "If-Match": `"v${version}"` },
+      body: JSON.stringify(payload),
+    });
+    return handleResponse(res);
+  },
+
+  // Hàng đợi duyệt bài: mỗi bài chỉ giao cho một Admin đến leaseExpiresAt
+  async claimModeration(limit = 10) {
+    const res = await fetch(`${API_BASE_URL}/admin/moderation/claim?limit=${limit}`, {
+      method: "POST",
       headers: getHeaders(true, true),
+    });
+    return handleResponse(res);
+  },
+
+  // Bài đã được Admin khác nhận lại → 409, bài vừa bị sửa → 412
+  async completeModeration(postID, payload, version) {
+    const res = await fetch(`${API_BASE_URL}/admin/moderation/${postID}`, {
+      method: "PUT",
+      headers: { ...getHeaders(true, true), "If-Match": `"v${version}"` },
       body: JSON.stringify(payload),
     });
     return handleResponse(res);
   },
 
+  async releaseModeration(postIDs) {
+    const res = await fetch(`${API_BASE_URL}/admin/moderation/release`, {
+      method: "POST",
+      headers: getHeaders(true, true),
+      body: JSON.stringify({ postIDs }),
+    });
+    return handleResponse(res);
+  },
+
   async listUsers() {
     const res = await fetch(`${API_BASE_URL}/admin/users`, {
       headers: getHeaders(true, true),
@@ -111,21 +111,17 @@ async function loadRelatedBooks(currentBook) {
   const container = document.getElementById("relatedBooks");
 
   try {
-    // Gửi API search author
-    const books = await bookAPI.search({
-      author: currentBook.author,
-    });
-
-    // Loại bỏ chính cuốn đang xem
-    const filtered = books.filter((b) => b.bookID !== currentBook.bookID);
-    filtered.sort((a, b) => b.bookID - a.bookID);
-    if (filtered.length > 0) {
-      container.innerHTML = filtered
-        .slice(0, 4)
+    // Backend đã loại chính cuốn đang xem và không trả trùng giữa các nhóm
+    const related = await bookAPI.related(currentBook.bookID, 4);
+    const books = [...related.sameAuthor, ...related.sameCategory, ...related.sameProvince];
+
+    if (books.length > 0) {
+      container.innerHTML = books
+        .slice(0, 8)
         .map((book) => createBookCard(book))
         .join("");
     } else {
-      container.innerHTML = '<p class="text-muted text-center">Không có sách cùng tác giả</p>';
+      container.innerHTML = '<p class="text-muted text-center">Không có sách liên quan</p>';
     }
   } catch (error) {
     console.error("Error loading related books:", error);
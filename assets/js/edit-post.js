@@ -16,6 +16,7 @@ document.addEventListener("DOMContentLoaded", async () => {
 
 let currentImageUrl = null;
 let selectedImageFile = null;
+let currentVersion = null; // version bài đăng lúc tải form, gửi lại qua If-Match
 
 // Lấy ID bài đăng từ URL
 function getPostId() {
@@ -31,7 +32,7 @@ async function loadAddressOptions() {
   const districtSelect = document.getElementById("district");
 
   // Load tỉnh
-  const provinces = await fetch("https://provinces.open-api.vn/api/p/").then((r) => r.json());
+  const provinces = await fetch(`${API_BASE_URL}/locations/provinces`).then((r) => r.json());
 
   provinceSelect.innerHTML = '<option value="">-- Chọn Tỉnh/Thành --</option>';
   provinces.forEach((p) => {
@@ -91,6 +92,8 @@ async function loadPostData() {
     document.getElementById("description").value = post.postDescription;
     document.getElementById("contactInfo").value = post.contactInfo;
 
+    currentVersion = post.version;
+
     // Ảnh
     currentImageUrl = post.image;
     document.getElementById("imagePreview").src = post.image;
@@ -181,7 +184,7 @@ function setupSubmit() {
         district: document.getElementById("district").value,
       };
 
-      await postAPI.update(getPostId(), payload);
+      await postAPI.update(getPostId(), payload, currentVersion);
 
       showToast("Cập nhật bài đăng thành công!", "success");
       setTimeout(() => (location.href = "my-posts.html"), 1200);
@@ -5,19 +5,30 @@ let wardMap = {};
 async function loadLocationData() {
   if (window.__locationLoaded) return;
 
-  const res = await fetch("https://provinces.open-api.vn/api/?depth=3");
+  // Tỉnh: lấy từ backend (GET /locations/provinces, cache dài hạn)
+  const res = await fetch(`${API_BASE_URL}/locations/provinces`);
   const provinces = await res.json();
 
   provinces.forEach((p) => {
     provinceMap[p.code] = p.name; // Tỉnh
+  });
+
+  // Quận/huyện, phường/xã: backend chưa có dữ liệu → vẫn lấy từ provinces.open-api.vn
+  // Lỗi thì vẫn hiển thị được tên tỉnh
+  try {
+    const divisions = await fetch("https://provinces.open-api.vn/api/?depth=3").then((r) => r.json());
 
-    districtMap[p.code] = p.districts; // Danh sách huyện theo tỉnh
+    divisions.forEach((p) => {
+      districtMap[p.code] = p.districts; // Danh sách huyện theo tỉnh
 
-    // Lưu ward theo từng districtCode
-    p.districts.forEach((d) => {
-      wardMap[d.code] = d.wards; // Danh sách phường theo huyện
+      // Lưu ward theo từng districtCode
+      p.districts.forEach((d) => {
+        wardMap[d.code] = d.wards; // Danh sách phường theo huyện
+      });
     });
-  });
+  } catch (err) {
+    console.error("Lỗi load quận/huyện:", err);
+  }
 
   window.__locationLoaded = true;
 }
@@ -9,11 +9,17 @@ const ITEMS_PER_PAGE = 12;
 
 async function loadLocationData() {
   try {
-    const res = await fetch("https://provinces.open-api.vn/api/?depth=2");
+    // Tỉnh: lấy từ backend (GET /locations/provinces, cache dài hạn)
+    const res = await fetch(`${API_BASE_URL}/locations/provinces`);
     const provinces = await res.json();
 
     provinces.forEach((p) => {
       provinceMap[p.code] = p.name;
+    });
+
+    // Quận/huyện: backend chưa có dữ liệu → vẫn lấy từ provinces.open-api.vn
+    const divisions = await fetch("https://provinces.open-api.vn/api/?depth=2").then((r) => r.json());
+    divisions.forEach((p) => {
       districtMap[p.code] = p.districts;
     });
 
@@ -124,6 +130,7 @@ function createPostCard(post) {
   const provinceName = getProvinceName(post.province);
   const districtName = getDistrictName(post.province, post.district);
   const statusBadge = getStatusBadge(post.postStatus);
+  const archivedBadge = post.archived ? `<span class="badge bg-light text-dark ms-1">📦 Lưu trữ</span>` : "";
 
   return `
     <div class="col-md-6 col-lg-4">
@@ -137,7 +144,7 @@ function createPostCard(post) {
         <div class="card-body">
           <div class="d-flex justify-content-between align-items-start">
             <h5 class="card-title">${post.title}</h5>
-            ${statusBadge}
+            <div>${statusBadge}${archivedBadge}</div>
           </div>
 
           <p class="text-muted mb-1">
@@ -154,9 +161,27 @@ function createPostCard(post) {
           </p>
 
           <p class="small">${post.postDescription || "Không có mô tả bài đăng"}</p>
+
+          <p class="small text-muted mb-0">
+            <i class="bi bi-bar-chart me-1"></i>
+            ${post.viewCount || 0} lượt xem · ~${post.uniqueViewers || 0} người xem
+          </p>
         </div>
 
         <div class="card-footer bg-white d-flex justify-content-between">
+          ${post.archived ? getArchivedFooter() : getPostActions(post)}
+        </div>
+
+      </div>
+    </div>
+  `;
+}
+
+/* ============================
+   NÚT THAO TÁC TRÊN CARD
+============================= */
+function getPostActions(post) {
+  return `
           <a href="book-detail.html?id=${post.bookID}" 
              class="btn btn-outline-primary btn-sm">
             <i class="bi bi-eye me-1"></i>Xem
@@ -173,14 +198,14 @@ function createPostCard(post) {
           <button class="btn btn-success btn-sm" onclick="markAsSold(${post.postID})">
             <i class="bi bi-check2-circle me-1"></i>Đã bán
           </button>
-
-        </div>
-
-      </div>
-    </div>
   `;
 }
 
+// Bài đã lưu trữ chỉ còn để xem lịch sử, không sửa/xóa được
+function getArchivedFooter() {
+  return `<span class="small text-muted">Bài đăng đã được lưu trữ</span>`;
+}
+
 /* ============================
    Thay đổi trạng thái bài thành đã bán
 ============================= */
@@ -209,6 +234,8 @@ function getStatusBadge(status) {
       return `<span class="badge bg-danger">✖ Từ chối</span>`;
     case "SOLD":
       return `<span class="badge bg-secondary">💰 Đã bán</span>`;
+    case "EXPIRED":
+      return `<span class="badge bg-dark">⌛ Hết hạn</span>`;
     default:
       return `<span class="badge bg-secondary">Không xác định</span>`;
   }
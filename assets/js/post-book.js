@@ -123,7 +123,7 @@ function setupSubmit() {
   const district = document.getElementById("district");
 
   // Load danh sách tỉnh
-  fetch("https://provinces.open-api.vn/api/p/")
+  fetch(`${API_BASE_URL}/locations/provinces`)
     .then((res) => res.json())
     .then((data) => {
       data.forEach((p) => {
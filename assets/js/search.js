@@ -17,18 +17,18 @@ document.addEventListener("DOMContentLoaded", async function () {
 });
 
 /* ============================
-   LOAD PROVINCE (API VN)
+   LOAD PROVINCE (backend) + DISTRICT (API VN)
 ============================ */
 async function loadProvinces() {
   try {
-    const res = await fetch("https://provinces.open-api.vn/api/?depth=2");
+    // Tỉnh: lấy từ backend (GET /locations/provinces, cache dài hạn)
+    const res = await fetch(`${API_BASE_URL}/locations/provinces`);
     const provinces = await res.json();
 
     const select = document.getElementById("provinceFilter");
 
     provinces.forEach((p) => {
       provinceMap[p.code] = p.name;
-      districtMap[p.code] = p.districts; // Lưu quận theo tỉnh
       const opt = document.createElement("option");
       opt.value = p.code;
       opt.textContent = p.name;
@@ -38,6 +38,18 @@ async function loadProvinces() {
   } catch (err) {
     console.error("Error loading provinces:", err);
   }
+
+  // Quận/huyện: backend chưa có dữ liệu → vẫn lấy từ provinces.open-api.vn
+  try {
+    const res = await fetch("https://provinces.open-api.vn/api/?depth=2");
+    const divisions = await res.json();
+
+    divisions.forEach((p) => {
+      districtMap[p.code] = p.districts; // Lưu quận theo tỉnh
+    });
+  } catch (err) {
+    console.error("Error loading districts:", err);
+  }
 }
 
 async function loadDistricts() {
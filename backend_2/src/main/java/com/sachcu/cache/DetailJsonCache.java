@@ -0,0 +1,90 @@
+package com.sachcu.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Component: DetailJsonCache
+ * Mô tả: Cache JSON (UTF-8) đã serialize sẵn, kèm bản gzip nén sẵn (PrecompressedJson)
+ * GET /books/{bookID}, GET /posts/{postID} (theo từng biến thể guest/auth),
+ * GET /categories và GET /locations/...
+ * 
+ * - Mỗi entry lưu kèm version (ResourceVersions) tại thời điểm dựng
+ * - Version hiện tại khác version đã lưu (bài/sách/tên người đăng/danh mục đổi)
+ *   → dựng lại khi có request tiếp theo, không cần xóa chủ động
+ * - Cache hit: không truy vấn DB, không map DTO, không chạy Jackson, không nén lại
+ */
+@Component
+public class DetailJsonCache {
+    
+    private final ObjectMapper objectMapper;
+    private final Cache<Key, Entry> cache;
+    private final AtomicLong staleRebuilds = new AtomicLong();
+    private final long minGzipSize;
+    
+    public DetailJsonCache(ObjectMapper objectMapper,
+                           @Value("${books.detail-cache.max-size:5000}") long maxSize,
+                           @Value("${server.compression.min-response-size:2KB}") DataSize minGzipSize) {
+        this.objectMapper = objectMapper;
+        this.minGzipSize = minGzipSize.toBytes();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+    }
+    
+    /**
+     * @param scope "book", "post", "categories", "provinces"...
+     * @param version Version hiện tại của tài nguyên (lấy TRƯỚC khi đọc DB)
+     * @param loader Dựng DTO khi cache không có hoặc đã cũ
+     */
+    public PrecompressedJson get(String scope, Integer id, boolean isAuthenticated, long version,
+                                 Supplier<Object> loader) {
+        Key key = new Key(scope, id, isAuthenticated);
+        Entry cached = cache.getIfPresent(key);
+        if (cached != null && cached.version() == version) {
+            return cached.body();
+        }
+        if (cached != null) {
+            staleRebuilds.incrementAndGet();
+        }
+        
+        try {
+            // Version lấy trước khi đọc DB: nếu dữ liệu đổi trong lúc dựng,
+            // version mới sẽ lớn hơn và entry này bị dựng lại ở lần sau
+            PrecompressedJson body = PrecompressedJson.of(objectMapper.writeValueAsBytes(loader.get()), minGzipSize);
+            cache.put(key, new Entry(version, body));
+            return body;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Không thể serialize " + scope + " " + id, e);
+        }
+    }
+    
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", cache.estimatedSize());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("evictionCount", stats.evictionCount());
+        result.put("staleRebuildCount", staleRebuilds.get());
+        return result;
+    }
+    
+    private record Key(String scope, Integer id, boolean authenticated) {
+    }
+    
+    private record Entry(long version, PrecompressedJson body) {
+    }
+}
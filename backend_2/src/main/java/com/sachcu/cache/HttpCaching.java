@@ -0,0 +1,80 @@
+package com.sachcu.cache;
+
+import com.sachcu.exception.PreconditionFailedException;
+import com.sachcu.service.ResponseFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Utility: HttpCaching
+ * Mô tả: Header cho HTTP conditional GET (ETag / Last-Modified / 304)
+ * 
+ * - ETag gồm version và biến thể guest/auth, vì guest nhận contactInfo và người đăng bị ẩn
+ * - Cache-Control: no-cache → trình duyệt được lưu nhưng luôn hỏi lại server (If-None-Match)
+ * - Vary: Authorization, Accept → cache trung gian không trả nhầm bản của guest cho user đã login,
+ *   hay bản JSON cho client xin CBOR/Smile; Accept-Encoding vì response có thể được nén gzip
+ * - Ghi có điều kiện (If-Match): ETag "v{version}" theo cột @Version của bài đăng
+ */
+public final class HttpCaching {
+    
+    private HttpCaching() {
+    }
+    
+    /**
+     * VD: "book-12-lq3k9x0a-guest", "book-12-cbor-lq3k9x0a-guest" (mỗi định dạng theo Accept một ETag)
+     */
+    public static String etag(String scope, long version, boolean isAuthenticated, WebRequest request) {
+        String formatScope = ResponseFormat.fromAccept(request.getHeader(HttpHeaders.ACCEPT)).etagScope(scope);
+        return "\"" + formatScope + "-" + Long.toString(version, 36) + "-" + (isAuthenticated ? "auth" : "guest") + "\"";
+    }
+    
+    /**
+     * ETag theo phiên bản bài đăng (@Version), VD: "v3"
+     */
+    public static String versionTag(Integer version) {
+        return "\"v" + version + "\"";
+    }
+    
+    /**
+     * Đọc phiên bản client đang sửa từ header If-Match
+     * So sánh kiểu strong (RFC 9110): ETag weak (W/"v3") hay sai định dạng đều không khớp
+     * 
+     * @return null nếu If-Match: * (chấp nhận mọi phiên bản)
+     * @throws PreconditionFailedException nếu không đọc được phiên bản
+     */
+    public static Integer parseIfMatch(String ifMatch) {
+        String value = ifMatch.trim();
+        if (value.equals("*")) {
+            return null;
+        }
+        if (value.length() > 3 && value.startsWith("\"v") && value.endsWith("\"")) {
+            try {
+                return Integer.valueOf(value.substring(2, value.length() - 1));
+            } catch (NumberFormatException e) {
+                // Rơi xuống 412 bên dưới
+            }
+        }
+        throw new PreconditionFailedException();
+    }
+    
+    public static ResponseEntity.BodyBuilder ok(String etag, long version, boolean isAuthenticated) {
+        return withValidators(ResponseEntity.ok(), etag, version, isAuthenticated);
+    }
+    
+    public static <T> ResponseEntity<T> notModified(String etag, long version, boolean isAuthenticated) {
+        return withValidators(ResponseEntity.status(HttpStatus.NOT_MODIFIED), etag, version, isAuthenticated).build();
+    }
+    
+    private static ResponseEntity.BodyBuilder withValidators(ResponseEntity.BodyBuilder builder, String etag,
+                                                             long version, boolean isAuthenticated) {
+        CacheControl cacheControl = isAuthenticated ? CacheControl.noCache().cachePrivate() : CacheControl.noCache();
+        return builder
+                .eTag(etag)
+                .lastModified(version)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.AUTHORIZATION, HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+    }
+}
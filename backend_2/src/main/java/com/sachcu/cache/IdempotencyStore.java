@@ -0,0 +1,156 @@
+package com.sachcu.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Component: IdempotencyStore
+ * Mô tả: Hỗ trợ header Idempotency-Key cho các API tạo mới (POST /posts, POST /images/upload)
+ * Client mạng chập chờn gửi lại cùng key → nhận lại response cũ, không tạo bài/file trùng
+ * 
+ * - Key gắn với (API, người gọi, Idempotency-Key), giữ trong bộ nhớ có TTL và giới hạn số entry
+ * - Request trùng đến khi request đầu còn đang chạy: chờ kết quả của request đầu (không chạy song song)
+ * - Chỉ giữ response 2xx; lỗi (4xx/5xx, exception) thì xóa key để client thử lại được
+ * - Cùng key nhưng nội dung request khác → 422
+ * - Response phát lại có header Idempotent-Replayed: true
+ */
+@Component
+public class IdempotencyStore {
+    
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    
+    private static final int MAX_KEY_LENGTH = 255;
+    
+    private record Key(String scope, Object owner, String idempotencyKey) {
+    }
+    
+    // fingerprint: nội dung request lần đầu, để phát hiện key bị dùng lại cho request khác
+    private record Reservation(Object fingerprint, CompletableFuture<ResponseEntity<?>> response) {
+    }
+    
+    private final Cache<Key, Reservation> reservations;
+    private final Duration waitTimeout;
+    
+    private final AtomicLong executions = new AtomicLong();
+    private final AtomicLong replays = new AtomicLong();
+    private final AtomicLong conflicts = new AtomicLong();
+    
+    public IdempotencyStore(@Value("${idempotency.max-size:10000}") long maxSize,
+                            @Value("${idempotency.ttl:24h}") Duration ttl,
+                            @Value("${idempotency.wait-timeout:30s}") Duration waitTimeout) {
+        this.waitTimeout = waitTimeout;
+        this.reservations = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+    
+    /**
+     * Chạy action đúng một lần cho mỗi Idempotency-Key
+     * 
+     * @param scope Tên API, VD: "create-post"
+     * @param owner Người gọi (userID, email), key của người khác không ảnh hưởng nhau
+     * @param idempotencyKey Giá trị header (null → chạy action bình thường)
+     * @param fingerprint Nội dung request dùng để so khớp (phải có equals)
+     * @param action Xử lý thật, trả về response gửi cho client
+     */
+    public ResponseEntity<?> execute(String scope, Object owner, String idempotencyKey, Object fingerprint,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            return error(HttpStatus.BAD_REQUEST, HEADER + " phải có từ 1 đến " + MAX_KEY_LENGTH + " ký tự");
+        }
+        
+        Key key = new Key(scope, owner, idempotencyKey);
+        Reservation mine = new Reservation(fingerprint, new CompletableFuture<>());
+        Reservation existing = reservations.asMap().putIfAbsent(key, mine);
+        
+        if (existing == null) {
+            return runFirst(key, mine, action);
+        }
+        if (!Objects.equals(existing.fingerprint(), fingerprint)) {
+            conflicts.incrementAndGet();
+            return error(HttpStatus.UNPROCESSABLE_ENTITY,
+                    HEADER + " đã được dùng cho một request có nội dung khác");
+        }
+        return replay(existing);
+    }
+    
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", reservations.estimatedSize());
+        result.put("executions", executions.get());
+        result.put("replays", replays.get());
+        result.put("conflicts", conflicts.get());
+        return result;
+    }
+    
+    // ========================================================================
+    // PRIVATE HELPER METHODS
+    // ========================================================================
+    
+    private ResponseEntity<?> runFirst(Key key, Reservation mine, Supplier<ResponseEntity<?>> action) {
+        executions.incrementAndGet();
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (Throwable e) {
+            // Kể cả Error: không để reservation treo khiến request trùng phải chờ đến timeout
+            reservations.asMap().remove(key, mine);
+            mine.response().completeExceptionally(e);
+            throw e;
+        }
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            // Request đang chờ nhận cùng lỗi, request sau được chạy lại
+            reservations.asMap().remove(key, mine);
+        }
+        mine.response().complete(response);
+        return response;
+    }
+    
+    private ResponseEntity<?> replay(Reservation existing) {
+        ResponseEntity<?> original;
+        try {
+            original = existing.response().get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return error(HttpStatus.CONFLICT, "Request với " + HEADER + " này vẫn đang được xử lý, vui lòng thử lại sau");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return error(HttpStatus.CONFLICT, "Request với " + HEADER + " này vẫn đang được xử lý, vui lòng thử lại sau");
+        } catch (ExecutionException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getCause().getMessage());
+        }
+        
+        replays.incrementAndGet();
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(original.getHeaders());
+        headers.set(REPLAYED_HEADER, "true");
+        return new ResponseEntity<>(original.getBody(), headers, original.getStatusCode());
+    }
+    
+    private static ResponseEntity<?> error(HttpStatus status, String message) {
+        return ResponseEntity.status(status).body(Map.of(
+            "error", message,
+            "timestamp", System.currentTimeMillis()
+        ));
+    }
+}
@@ -0,0 +1,99 @@
+package com.sachcu.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.sachcu.dto.projection.BookListing;
+import com.sachcu.event.CategoryChangedEvent;
+import com.sachcu.event.ListingChange;
+import com.sachcu.event.ListingChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Component: ListingCache
+ * Mô tả: Cache BookListing (bài đã duyệt) theo bookID, dùng cho các API lấy nhiều sách theo ID
+ * 
+ * - Lấy nhiều ID: ID có trong cache trả ngay, ID còn thiếu gom thành MỘT lần gọi loader (IN query)
+ * - Bài đăng thay đổi (sau commit): cập nhật snapshot mới nếu vẫn được duyệt, ngược lại xóa
+ * - Đổi danh mục: xóa toàn bộ (tên danh mục nằm trong snapshot)
+ */
+@Component
+public class ListingCache {
+    
+    private final Cache<Integer, BookListing> cache;
+    
+    // Giống SearchResultCache: không lưu kết quả đọc trước một thay đổi vừa commit
+    private final AtomicLong generation = new AtomicLong();
+    
+    public ListingCache(@Value("${books.listing-cache.max-size:20000}") long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+    }
+    
+    /**
+     * @param bookIDs Danh sách bookID cần lấy
+     * @param loader Đọc các bookID chưa có trong cache từ DB (chỉ gọi khi có ID thiếu)
+     * @return bookID → BookListing (thiếu ID nếu sách không tồn tại hoặc chưa duyệt)
+     */
+    public Map<Integer, BookListing> getAll(Collection<Integer> bookIDs,
+                                            Function<List<Integer>, List<BookListing>> loader) {
+        long startGeneration = generation.get();
+        Map<Integer, BookListing> found = cache.getAllPresent(bookIDs);
+        
+        List<Integer> missing = bookIDs.stream().filter(bookID -> !found.containsKey(bookID)).toList();
+        if (missing.isEmpty()) {
+            return found;
+        }
+        
+        Map<Integer, BookListing> result = new LinkedHashMap<>(found);
+        List<BookListing> loaded = loader.apply(missing);
+        boolean unchanged = generation.get() == startGeneration;
+        for (BookListing listing : loaded) {
+            result.put(listing.getBookID(), listing);
+            if (unchanged) {
+                cache.put(listing.getBookID(), listing);
+            }
+        }
+        return result;
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onListingChanged(ListingChangedEvent event) {
+        generation.incrementAndGet();
+        for (ListingChange change : event.getChanges()) {
+            if (change.isApproved()) {
+                cache.put(change.getBookID(), change.getCurrent());
+            } else {
+                cache.invalidate(change.getBookID());
+            }
+        }
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+    
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", cache.estimatedSize());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("evictionCount", stats.evictionCount());
+        return result;
+    }
+}
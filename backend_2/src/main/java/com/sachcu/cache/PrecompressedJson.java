@@ -0,0 +1,88 @@
+package com.sachcu.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Value: PrecompressedJson
+ * Mô tả: JSON đã serialize kèm bản gzip nén sẵn, lưu cùng entry trong cache
+ * 
+ * - Nén một lần khi dựng entry, cache hit chỉ việc ghi byte ra (server không nén lại)
+ * - gzip = null nếu JSON nhỏ hơn ngưỡng server.compression.min-response-size
+ *   hoặc nén không nhỏ hơn bản gốc
+ * - Client không gửi Accept-Encoding: gzip thì nhận JSON gốc
+ */
+public record PrecompressedJson(byte[] json, byte[] gzip) {
+    
+    public static PrecompressedJson of(byte[] json, long minGzipSize) {
+        if (json.length < minGzipSize) {
+            return new PrecompressedJson(json, null);
+        }
+        byte[] gzip = gzip(json);
+        return new PrecompressedJson(json, gzip.length < json.length ? gzip : null);
+    }
+    
+    /**
+     * Ghi body theo Accept-Encoding của request, thêm Accept-Encoding vào Vary
+     * Bản gzip dùng ETag weak (giống cách Tomcat xử lý khi tự nén) vì byte khác bản gốc
+     * 
+     * @param builder Builder đã có ETag/Last-Modified/Cache-Control (HttpCaching.ok)
+     * @param etag ETag đã đặt trên builder (null nếu không dùng ETag)
+     */
+    public ResponseEntity<byte[]> toResponse(ResponseEntity.BodyBuilder builder, String etag, WebRequest request) {
+        builder.contentType(MediaType.APPLICATION_JSON)
+                .headers(headers -> {
+                    List<String> vary = new ArrayList<>(headers.getVary());
+                    if (!vary.contains(HttpHeaders.ACCEPT_ENCODING)) {
+                        vary.add(HttpHeaders.ACCEPT_ENCODING);
+                        headers.setVary(vary);
+                    }
+                });
+        if (gzip != null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            if (etag != null) {
+                builder.eTag("W/" + etag);
+            }
+            return builder
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(gzip);
+        }
+        return builder.body(json);
+    }
+    
+    // ========================================================================
+    // PRIVATE HELPER METHODS
+    // ========================================================================
+    
+    // VD: "gzip, deflate, br" → true; "gzip;q=0" → false
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+    
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+}
@@ -0,0 +1,80 @@
+package com.sachcu.cache;
+
+import com.sachcu.event.CategoryChangedEvent;
+import com.sachcu.event.ListingChange;
+import com.sachcu.event.ListingChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Component: ResourceVersions
+ * Mô tả: Phiên bản (version) của dữ liệu public, dùng làm ETag / Last-Modified
+ * 
+ * - Mỗi version là một mốc thời gian (millis), lấy từ một đồng hồ tăng dần dùng chung,
+ *   nên version mới luôn lớn hơn MỌI version cũ → max của nhiều version vẫn là validator hợp lệ
+ * - Tài nguyên chưa đổi từ lúc khởi động mang version = thời điểm khởi động
+ * - Chỉ cập nhật SAU KHI transaction commit, để không trả 304 cho dữ liệu chưa ghi xong
+ * - Kiểm tra version không cần truy vấn DB
+ */
+@Component
+public class ResourceVersions {
+    
+    private final AtomicLong clock = new AtomicLong(System.currentTimeMillis());
+    private final long bootVersion = clock.get();
+    
+    // Danh sách sách (GET /books, /books/search, ...): đổi khi BẤT KỲ bài đăng nào đổi
+    private final AtomicLong listingsVersion = new AtomicLong(bootVersion);
+    private final AtomicLong categoriesVersion = new AtomicLong(bootVersion);
+    
+    private final Map<Integer, Long> postVersions = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> bookVersions = new ConcurrentHashMap<>();
+    
+    /**
+     * Version của mọi danh sách sách (có tên danh mục nên phụ thuộc cả danh mục)
+     */
+    public long listings() {
+        return Math.max(listingsVersion.get(), categoriesVersion.get());
+    }
+    
+    /**
+     * Version của GET /categories (có số sách trong từng danh mục)
+     */
+    public long categories() {
+        return Math.max(listingsVersion.get(), categoriesVersion.get());
+    }
+    
+    public long post(Integer postID) {
+        return Math.max(postVersions.getOrDefault(postID, bootVersion), categoriesVersion.get());
+    }
+    
+    public long book(Integer bookID) {
+        return Math.max(bookVersions.getOrDefault(bookID, bootVersion), categoriesVersion.get());
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onListingChanged(ListingChangedEvent event) {
+        long version = tick();
+        for (ListingChange change : event.getChanges()) {
+            postVersions.put(change.getPostID(), version);
+            if (change.getBookID() != null) {
+                bookVersions.put(change.getBookID(), version);
+            }
+        }
+        listingsVersion.set(version);
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        categoriesVersion.set(tick());
+    }
+    
+    // Mốc thời gian hiện tại, luôn lớn hơn mốc đã cấp trước đó
+    private long tick() {
+        return clock.updateAndGet(previous -> Math.max(System.currentTimeMillis(), previous + 1));
+    }
+}
@@ -0,0 +1,134 @@
+package com.sachcu.cache;
+
+import com.sachcu.dto.projection.BookListing;
+import com.sachcu.dto.request.BookSearchRequest;
+import com.sachcu.search.VietnameseTextNormalizer;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Cache key: SearchCacheKey
+ * Mô tả: Tiêu chí tìm kiếm đã chuẩn hóa + biến thể guest/auth
+ * 
+ * - Từ khóa được bỏ dấu, viết thường, gộp khoảng trắng ("Sách  Cũ" và "sach cu" dùng chung 1 entry)
+ * - Kiểu "province" dùng cho GET /books/province/{province} (chỉ có tỉnh)
+ * - matches(): bài đăng có thể xuất hiện trong kết quả của key này hay không
+ *   (so khớp rộng: thà xóa nhầm entry còn hơn giữ kết quả cũ)
+ * - countedInFacets(): bài đăng có thể được tính trong số đếm facets của key này hay không
+ */
+public record SearchCacheKey(String kind,
+                             String q,
+                             String title,
+                             String author,
+                             String province,
+                             String district,
+                             Integer categoryID,
+                             String bookCondition,
+                             BigDecimal minPrice,
+                             BigDecimal maxPrice,
+                             String sort,
+                             boolean facets,
+                             boolean authenticated) {
+    
+    public static SearchCacheKey search(BookSearchRequest request, boolean isAuthenticated) {
+        return new SearchCacheKey("search",
+                normalizeText(request.getQ()),
+                normalizeText(request.getTitle()),
+                normalizeText(request.getAuthor()),
+                emptyToNull(request.getProvince()),
+                emptyToNull(request.getDistrict()),
+                request.getCategoryID(),
+                emptyToNull(request.getBookCondition()),
+                normalizePrice(request.getMinPrice()),
+                normalizePrice(request.getMaxPrice()),
+                request.getSort() == null || request.getSort().isBlank() ? null : request.getSort().trim().toUpperCase(),
+                request.isFacets(),
+                isAuthenticated);
+    }
+    
+    public static SearchCacheKey province(String province, boolean isAuthenticated) {
+        return new SearchCacheKey("province", null, null, null, province,
+                null, null, null, null, null, null, false, isAuthenticated);
+    }
+    
+    /**
+     * Bài đăng (đã duyệt) có thể nằm trong kết quả của key này hay không
+     */
+    public boolean matches(BookListing listing) {
+        return matchesText(listing) && mismatchedFilters(listing) == 0;
+    }
+    
+    /**
+     * Bài đăng (đã duyệt) có thể được tính trong số đếm facets của key này hay không
+     * FacetIndex.count() đếm mỗi facet với mọi bộ lọc TRỪ bộ lọc của chính facet đó,
+     * nên bài lệch đúng một bộ lọc (VD: khác danh mục) vẫn làm đổi số đếm
+     */
+    public boolean countedInFacets(BookListing listing) {
+        return facets && matchesText(listing) && mismatchedFilters(listing) <= 1;
+    }
+    
+    // ========================================================================
+    // PRIVATE HELPER METHODS
+    // ========================================================================
+    
+    private boolean matchesText(BookListing listing) {
+        String foldedTitle = VietnameseTextNormalizer.fold(listing.getTitle());
+        String foldedAuthor = VietnameseTextNormalizer.fold(listing.getAuthor());
+        String foldedAll = foldedTitle + " " + foldedAuthor + " " + VietnameseTextNormalizer.fold(listing.getDescription());
+        return containsAllTokens(foldedAll, q)
+                && containsAllTokens(foldedTitle, title)
+                && containsAllTokens(foldedAuthor, author);
+    }
+    
+    // Số bộ lọc bài đăng không thỏa, theo đúng các facet của FacetIndex (minPrice/maxPrice cùng thuộc facet giá)
+    private int mismatchedFilters(BookListing listing) {
+        int mismatched = 0;
+        if (!sameFolded(province, listing.getProvince())) {
+            mismatched++;
+        }
+        if (!sameFolded(district, listing.getDistrict())) {
+            mismatched++;
+        }
+        if (categoryID != null && !categoryID.equals(listing.getCategoryID())) {
+            mismatched++;
+        }
+        if (!sameFolded(bookCondition, listing.getBookCondition())) {
+            mismatched++;
+        }
+        BigDecimal price = listing.getPrice();
+        if ((minPrice != null && (price == null || price.compareTo(minPrice) < 0))
+                || (maxPrice != null && (price == null || price.compareTo(maxPrice) > 0))) {
+            mismatched++;
+        }
+        return mismatched;
+    }
+    
+    private static boolean containsAllTokens(String foldedText, String normalizedQuery) {
+        if (normalizedQuery == null) {
+            return true;
+        }
+        List<String> tokens = VietnameseTextNormalizer.tokenize(normalizedQuery);
+        return tokens.stream().allMatch(foldedText::contains);
+    }
+    
+    private static boolean sameFolded(String filter, String value) {
+        return filter == null
+                || VietnameseTextNormalizer.fold(filter).trim().equals(VietnameseTextNormalizer.fold(value).trim());
+    }
+    
+    private static String normalizeText(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        return VietnameseTextNormalizer.fold(text).trim().replaceAll("\\s+", " ");
+    }
+    
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+    
+    private static BigDecimal normalizePrice(BigDecimal price) {
+        return price == null ? null : price.stripTrailingZeros();
+    }
+}
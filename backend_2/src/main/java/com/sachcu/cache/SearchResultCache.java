@@ -0,0 +1,124 @@
+package com.sachcu.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.sachcu.event.CategoryChangedEvent;
+import com.sachcu.event.ListingChange;
+import com.sachcu.event.ListingChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Component: SearchResultCache
+ * Mô tả: Cache kết quả GET /books/search và /books/province/{province}
+ * 
+ * - Giới hạn số entry và thời gian sống (books.search-cache.*)
+ * - Mỗi entry nhớ danh sách postID trong kết quả. Khi bài đăng thay đổi (sau commit):
+ *   + xóa entry đang chứa bài đó (sửa/gỡ/bán/xóa)
+ *   + xóa entry có tiêu chí khớp với bài vừa được duyệt/sửa (bài mới sẽ xuất hiện)
+ *   + entry facets=true: số đếm gồm cả bài nằm ngoài kết quả, xem affects()
+ * - Đổi danh mục: xóa toàn bộ (tên danh mục nằm trong kết quả)
+ */
+@Component
+public class SearchResultCache {
+    
+    private final Cache<SearchCacheKey, Entry> cache;
+    
+    // Tăng mỗi lần có thay đổi: kết quả tính xong mà generation đã đổi thì không lưu,
+    // tránh lưu dữ liệu đọc TRƯỚC khi commit nhưng lưu SAU khi đã invalidate
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    
+    public SearchResultCache(@Value("${books.search-cache.max-size:1000}") long maxSize,
+                             @Value("${books.search-cache.ttl:5m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+    
+    /**
+     * Lấy kết quả từ cache, chưa có thì tính bằng loader rồi lưu lại
+     * 
+     * @param postIDsOf Lấy danh sách postID trong kết quả (dùng để invalidate)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(SearchCacheKey key, Supplier<T> loader, Function<T, Collection<Integer>> postIDsOf) {
+        Entry cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return (T) cached.value();
+        }
+        
+        long startGeneration = generation.get();
+        T value = loader.get();
+        if (generation.get() == startGeneration) {
+            cache.put(key, new Entry(value, Set.copyOf(postIDsOf.apply(value))));
+        }
+        return value;
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onListingChanged(ListingChangedEvent event) {
+        generation.incrementAndGet();
+        cache.asMap().entrySet().removeIf(entry -> {
+            boolean stale = event.getChanges().stream().anyMatch(change -> affects(entry.getKey(), entry.getValue(), change));
+            if (stale) {
+                invalidations.incrementAndGet();
+            }
+            return stale;
+        });
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        generation.incrementAndGet();
+        invalidations.addAndGet(cache.estimatedSize());
+        cache.invalidateAll();
+    }
+    
+    /**
+     * Số liệu cache: hit/miss/eviction (hết hạn hoặc vượt giới hạn)/invalidation (do bài đăng đổi)
+     */
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", cache.estimatedSize());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        result.put("invalidationCount", invalidations.get());
+        return result;
+    }
+    
+    private boolean affects(SearchCacheKey key, Entry entry, ListingChange change) {
+        if (entry.postIDs().contains(change.getPostID())) {
+            return true;
+        }
+        if (key.facets() && change.wasApproved()) {
+            // Bài rời/đổi trong tập đã duyệt: event không mang giá trị lọc CŨ của bài
+            // nên không biết số đếm nào giảm → xóa mọi entry facets
+            return true;
+        }
+        if (!change.isApproved()) {
+            return false;
+        }
+        return key.facets() ? key.countedInFacets(change.getCurrent()) : key.matches(change.getCurrent());
+    }
+    
+    private record Entry(Object value, Set<Integer> postIDs) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.sachcu.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuration: SchedulingConfig
+ * Mô tả: Bật @Scheduled cho các worker nền (VD: FileDeletionOutbox)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
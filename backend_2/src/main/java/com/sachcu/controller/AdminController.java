@@ -1,17 +1,39 @@
 package com.sachcu.controller;
 
+import com.sachcu.cache.DetailJsonCache;
+import com.sachcu.cache.HttpCaching;
+import com.sachcu.cache.IdempotencyStore;
+import com.sachcu.cache.ListingCache;
+import com.sachcu.cache.SearchResultCache;
+import com.sachcu.dto.request.BulkStatusRequest;
+import com.sachcu.dto.response.BulkStatusResponse;
+import com.sachcu.dto.response.ModerationBatchResponse;
 import com.sachcu.dto.response.PostResponse;
 import com.sachcu.dto.response.UserResponse;
 import com.sachcu.dto.response.UserStatusResponse;
 import com.sachcu.entity.Post;
 import com.sachcu.entity.Report;
 import com.sachcu.entity.User;
+import com.sachcu.exception.ModerationLeaseException;
+import com.sachcu.exception.PreconditionFailedException;
+import com.sachcu.security.JwtUtil;
+import com.sachcu.service.AdminBulkService;
 import com.sachcu.service.AdminService;
+import com.sachcu.service.FileDeletionOutboxService;
+import com.sachcu.service.ModerationQueueService;
+import com.sachcu.service.PostArchiveService;
+import com.sachcu.service.PostViewStatsService;
+import com.sachcu.service.ResponseFormat;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -23,11 +45,17 @@ import java.util.Map;
  * - GET /admin/posts - Lấy tất cả bài đăng (Admin)
  * - GET /admin/posts/status/{status} - Lấy bài đăng theo trạng thái (Admin)
  * - PUT /admin/posts/{postID}/status - Duyệt/từ chối bài đăng (Admin)
+ * - PUT /admin/posts/bulk-status - Duyệt/từ chối bài đăng hàng loạt (Admin)
+ * - POST /admin/moderation/claim - Nhận lô bài chờ duyệt từ hàng đợi (Admin)
+ * - PUT /admin/moderation/{postID} - Ghi kết quả duyệt bài đang giữ (Admin)
+ * - POST /admin/moderation/release - Trả bài chưa duyệt về hàng đợi (Admin)
  * - GET /admin/users - Lấy danh sách User (Admin)
  * - PUT /admin/users/{userID}/status - Cập nhật trạng thái User (Admin)
+ * - PUT /admin/users/bulk-status - Cập nhật trạng thái User hàng loạt (Admin)
  * - DELETE /admin/users/{userID} - Xóa User (Admin)
  * - GET /admin/reports - Lấy danh sách báo cáo (Admin)
  * - PUT /admin/reports/{reportID}/status - Xử lý báo cáo (Admin)
+ * - GET /admin/metrics - Số liệu cache (Admin)
  */
 @RestController
 @RequestMapping("/admin")
@@ -37,21 +65,30 @@ import java.util.Map;
 public class AdminController {
     
     private final AdminService adminService;
+    private final AdminBulkService adminBulkService;
+    private final SearchResultCache searchResultCache;
+    private final DetailJsonCache detailJsonCache;
+    private final ListingCache listingCache;
+    private final FileDeletionOutboxService fileDeletionOutboxService;
+    private final IdempotencyStore idempotencyStore;
+    private final PostViewStatsService postViewStatsService;
+    private final PostArchiveService postArchiveService;
+    private final ModerationQueueService moderationQueueService;
+    private final JwtUtil jwtUtil;
     
     /**
      * API: Lấy tất cả bài đăng
      * Method: GET
      * Endpoint: /admin/posts
      * Auth: ROLE_ADMIN
+     * Note: Trả về dạng streaming; Accept: application/x-ndjson / application/cbor / application/x-jackson-smile
      */
     @GetMapping("/posts")
-    public ResponseEntity<?> getAllPosts() {
-        try {
-            List<PostResponse> posts = adminService.getAllPosts();
-            return ResponseEntity.ok(posts);
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        }
+    public ResponseEntity<StreamingResponseBody> getAllPosts(@RequestHeader(value = "Accept", required = false) String accept) {
+        ResponseFormat format = ResponseFormat.fromAccept(accept);
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .body(adminService.streamAllPosts(format));
     }
     
     /**
@@ -79,36 +116,150 @@ public class AdminController {
      * Endpoint: /admin/posts/{postID}/status
      * Auth: ROLE_ADMIN
      * Body: { "status": "APPROVED" | "DECLINED" | "SOLD" }
+     * Header: If-Match: "v{version}" (version lấy từ GET /admin/posts), thiếu → 428, lệch → 412
+     * Note: Bài đang được Admin khác giữ trong hàng đợi duyệt (lease còn hạn) → 409
      */
     @PutMapping("/posts/{postID}/status")
     public ResponseEntity<?> updatePostStatus(@PathVariable Integer postID,
-                                              @RequestBody Map<String, String> request) {
+                                              @RequestBody Map<String, String> request,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                              @RequestHeader("Authorization") String token) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED)
+                    .body("Thiếu header If-Match (version của bài đăng)");
+        }
         try {
             String status = request.get("status");
             if (status == null || status.trim().isEmpty()) {
                 return ResponseEntity.badRequest().body("Trạng thái không được để trống");
             }
             
-            PostResponse response = adminService.updatePostStatus(postID, status);
+            PostResponse response = moderationQueueService.updateStatus(extractAdminId(token), postID, status,
+                    HttpCaching.parseIfMatch(ifMatch));
+            return ResponseEntity.ok()
+                    .eTag(HttpCaching.versionTag(response.getVersion()))
+                    .body(response);
+        } catch (ModerationLeaseException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (PreconditionFailedException | ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(PreconditionFailedException.STALE_MESSAGE);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
+    /**
+     * API: Duyệt hoặc từ chối bài đăng hàng loạt
+     * Method: PUT
+     * Endpoint: /admin/posts/bulk-status
+     * Auth: ROLE_ADMIN
+     * Body: { "status": "APPROVED" | "DECLINED", "ids": [1, 2, 3] }
+     *    hoặc { "status": "DECLINED", "filter": { "status": "PENDING", "userID": 5, "createdAfter": "2024-01-01T00:00:00" } }
+     * Note: Không kiểm tra If-Match, không kiểm tra lease của hàng đợi duyệt (thao tác dọn dẹp hàng loạt);
+     *       kết quả theo từng ID (UPDATED / UNCHANGED / NOT_FOUND / FAILED)
+     */
+    @PutMapping("/posts/bulk-status")
+    public ResponseEntity<?> bulkUpdatePostStatus(@RequestBody BulkStatusRequest request) {
+        try {
+            BulkStatusResponse response = adminBulkService.updatePostStatuses(request);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
     
+    /**
+     * API: Nhận lô bài chờ duyệt tiếp theo
+     * Method: POST
+     * Endpoint: /admin/moderation/claim?limit=10
+     * Auth: ROLE_ADMIN
+     * Note: Mỗi bài chỉ giao cho một Admin; chưa có kết quả trước leaseExpiresAt thì quay lại hàng đợi
+     */
+    @PostMapping("/moderation/claim")
+    public ResponseEntity<?> claimModerationBatch(@RequestParam(defaultValue = "10") int limit,
+                                                  @RequestHeader("Authorization") String token) {
+        try {
+            ModerationBatchResponse batch = moderationQueueService.claim(extractAdminId(token), limit);
+            return ResponseEntity.ok(batch);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
+    /**
+     * API: Ghi kết quả duyệt bài đang giữ
+     * Method: PUT
+     * Endpoint: /admin/moderation/{postID}
+     * Auth: ROLE_ADMIN
+     * Body: { "status": "APPROVED" | "DECLINED" }
+     * Header: If-Match: "v{version}" (version lúc nhận bài), thiếu → 428, lệch → 412
+     * Note: Bài đã được Admin khác nhận lại → 409
+     */
+    @PutMapping("/moderation/{postID}")
+    public ResponseEntity<?> completeModeration(@PathVariable Integer postID,
+                                                @RequestBody Map<String, String> request,
+                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                @RequestHeader("Authorization") String token) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED)
+                    .body("Thiếu header If-Match (version của bài đăng)");
+        }
+        try {
+            String status = request.get("status");
+            if (status == null || status.trim().isEmpty()) {
+                return ResponseEntity.badRequest().body("Trạng thái không được để trống");
+            }
+            
+            PostResponse response = moderationQueueService.complete(extractAdminId(token), postID, status,
+                    HttpCaching.parseIfMatch(ifMatch));
+            return ResponseEntity.ok()
+                    .eTag(HttpCaching.versionTag(response.getVersion()))
+                    .body(response);
+        } catch (ModerationLeaseException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (PreconditionFailedException | ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(PreconditionFailedException.STALE_MESSAGE);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
+    /**
+     * API: Trả bài chưa duyệt về hàng đợi
+     * Method: POST
+     * Endpoint: /admin/moderation/release
+     * Auth: ROLE_ADMIN
+     * Body: { "postIDs": [1, 2, 3] }
+     */
+    @PostMapping("/moderation/release")
+    public ResponseEntity<?> releaseModeration(@RequestBody Map<String, List<Integer>> request,
+                                               @RequestHeader("Authorization") String token) {
+        try {
+            List<Integer> postIDs = request.getOrDefault("postIDs", List.of());
+            int released = moderationQueueService.release(extractAdminId(token), postIDs);
+            return ResponseEntity.ok(Map.of("released", released));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
     /**
      * API: Lấy danh sách tất cả User
      * Method: GET
      * Endpoint: /admin/users
      * Auth: ROLE_ADMIN
+     * Note: Trả về dạng streaming; Accept: application/x-ndjson / application/cbor / application/x-jackson-smile
      */
     @GetMapping("/users")
-    public ResponseEntity<?> getAllUsers() {
-        return ResponseEntity.ok(adminService.getAllUsers());
+    public ResponseEntity<StreamingResponseBody> getAllUsers(@RequestHeader(value = "Accept", required = false) String accept) {
+        ResponseFormat format = ResponseFormat.fromAccept(accept);
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .body(adminService.streamAllUsers(format));
     }
-
     
-
+    
+    
     /**
      * API: Lấy thông tin User theo ID (Admin)
      * Method: GET
@@ -124,9 +275,9 @@ public class AdminController {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
-
-
-
+    
+    
+    
     /**
      * API: Cập nhật trạng thái User
      * Method: PUT
@@ -138,16 +289,34 @@ public class AdminController {
     public ResponseEntity<?> updateUserStatus(
             @PathVariable Integer userID,
             @RequestBody Map<String, String> request) {
-
+        
         String status = request.get("status");
         if (status == null)
             return ResponseEntity.badRequest().body("Trạng thái không được để trống");
-
+        
         return ResponseEntity.ok(adminService.updateUserStatus(userID, status));
     }
-
-
-
+    
+    
+    
+    
+    /**
+     * API: Cập nhật trạng thái User hàng loạt
+     * Method: PUT
+     * Endpoint: /admin/users/bulk-status
+     * Auth: ROLE_ADMIN
+     * Body: { "status": "BANNED", "ids": [1, 2, 3] }
+     *    hoặc { "status": "SUSPENDED", "filter": { "status": "ACTIVE", "createdAfter": "2024-01-01T00:00:00" } }
+     */
+    @PutMapping("/users/bulk-status")
+    public ResponseEntity<?> bulkUpdateUserStatus(@RequestBody BulkStatusRequest request) {
+        try {
+            BulkStatusResponse response = adminBulkService.updateUserStatuses(request);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
     
     /**
      * API: Xóa User
@@ -203,4 +372,42 @@ public class AdminController {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
+    
+    /**
+     * API: Xem số liệu cache
+     * Method: GET
+     * Endpoint: /admin/metrics
+     * Auth: ROLE_ADMIN
+     * 
+     * searchCache: hit/miss/eviction/invalidation của cache /books/search và /books/province
+     * detailJsonCache: cache JSON của /books/{bookID} và /posts/{postID}
+     * listingCache: cache BookListing theo bookID (/books/batch)
+     * fileDeletionOutbox: số ảnh chờ xóa, hết lượt thử, tuổi của dòng cũ nhất
+     * idempotency: số Idempotency-Key đang giữ, số lần chạy thật / phát lại / xung đột
+     * viewStats: số bài đang đếm trong bộ nhớ, lượt xem đã ghi nhận, số dòng đã flush / lần flush lỗi
+     * archive: số bài đã hết hạn / đã lưu trữ từ lúc khởi động, lần chạy gần nhất
+     * moderation: số bài chờ duyệt / đang có Admin giữ, số bài đã nhận / đã duyệt / mất lease
+     */
+    @GetMapping("/metrics")
+    public ResponseEntity<?> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("searchCache", searchResultCache.stats());
+        metrics.put("detailJsonCache", detailJsonCache.stats());
+        metrics.put("listingCache", listingCache.stats());
+        metrics.put("fileDeletionOutbox", fileDeletionOutboxService.stats());
+        metrics.put("idempotency", idempotencyStore.stats());
+        metrics.put("viewStats", postViewStatsService.stats());
+        metrics.put("archive", postArchiveService.stats());
+        metrics.put("moderation", moderationQueueService.stats());
+        return ResponseEntity.ok(metrics);
+    }
+    
+    // ========================================================================
+    // PRIVATE HELPER METHODS
+    // ========================================================================
+    
+    // Token Admin mang adminID ở claim userId (AuthService.adminLogin)
+    private Integer extractAdminId(String token) {
+        return jwtUtil.extractUserId(token.substring(7));
+    }
 }
\ No newline at end of file
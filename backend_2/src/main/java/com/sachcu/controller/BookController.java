@@ -1,11 +1,28 @@
 package com.sachcu.controller;
 
+import com.sachcu.cache.DetailJsonCache;
+import com.sachcu.cache.HttpCaching;
+import com.sachcu.cache.ResourceVersions;
+import com.sachcu.dto.request.BookSearchRequest;
+import com.sachcu.dto.request.BookView;
 import com.sachcu.dto.response.BookDetailResponse;
+import com.sachcu.dto.response.BookPageResponse;
+import com.sachcu.dto.response.BookSearchResponse;
+import com.sachcu.dto.response.RelatedBooksResponse;
+import com.sachcu.exception.ResourceNotFoundException;
 import com.sachcu.service.BookService;
+import com.sachcu.service.JsonStreamingService;
+import com.sachcu.service.PostViewStatsService;
+import com.sachcu.service.ResponseFormat;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.security.Principal;
 import java.util.List;
 
 /**
@@ -14,8 +31,13 @@ import java.util.List;
  * 
  * APIs:
  * - GET /books - Lấy danh sách tất cả sách đã duyệt (Public, ẩn thông tin)
+ * - GET /books?limit=20&cursor=xxx - Lấy sách đã duyệt theo trang (Public, ẩn thông tin)
+ * - GET /books?view=card - Danh sách dạng thẻ, chỉ các field thẻ sách cần (Public)
  * - GET /books/{bookID} - Xem chi tiết sách (Public, ẩn contact nếu chưa login)
- * - GET /books/search - Tìm kiếm sách (Public, ẩn thông tin)
+ * - GET /books/batch?ids=1,2,3 - Lấy nhiều sách theo ID (Public, ẩn contact nếu chưa login)
+ * - GET /books/{bookID}/related - Sách cùng tác giả/danh mục/tỉnh (Public, ẩn contact nếu chưa login)
+ * - GET /books/search - Tìm kiếm sách, kèm số lượng theo bộ lọc nếu facets=true (Public, ẩn thông tin)
+ * - GET /books/suggest?q=xxx - Gợi ý tiêu đề/tác giả khi gõ (Public)
  * - GET /books/province/{province} - Lấy sách theo tỉnh (Public, ẩn thông tin)
  */
 @RestController
@@ -25,39 +47,198 @@ import java.util.List;
 public class BookController {
     
     private final BookService bookService;
+    private final ResourceVersions resourceVersions;
+    private final DetailJsonCache detailJsonCache;
+    private final JsonStreamingService jsonStreamingService;
+    private final PostViewStatsService postViewStatsService;
+    
+    // true: /books không có limit/cursor vẫn trả về toàn bộ danh sách (frontend cũ)
+    @Value("${books.listing.unpaged-default:true}")
+    private boolean unpagedByDefault;
     
     /**
-     * API: Lấy danh sách tất cả sách đã duyệt
+     * API: Lấy danh sách sách đã duyệt
      * Method: GET
-     * Endpoint: /books
+     * Endpoint: /books?limit=20&cursor=xxx&view=detail|card
      * Auth: KHÔNG CẦN (Public)
      * Note: Ẩn thông tin liên hệ và người đăng nếu chưa login
+     * 
+     * - Có limit hoặc cursor: trả về { items, nextCursor }, mới nhất trước
+     * - view=card: items là BookCardResponse (không mô tả, liên hệ, người đăng), SQL không đọc cột TEXT
+     * - Không có: xem getAllBooksUnpaged (mapping có điều kiện params cụ thể hơn nên được ưu tiên)
+     * - Hỗ trợ If-None-Match / If-Modified-Since: trả 304 khi chưa có bài đăng nào thay đổi
      */
     @GetMapping
-    public ResponseEntity<?> getAllBooks(@RequestHeader(value = "Authorization", required = false) String token) {
+    public ResponseEntity<?> getBooksPage(@RequestParam(required = false) Integer limit,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(required = false) String view,
+                                          @RequestHeader(value = "Authorization", required = false) String token,
+                                          WebRequest webRequest) {
         try {
             boolean isAuthenticated = (token != null && token.startsWith("Bearer "));
-            List<BookDetailResponse> books = bookService.getAllApprovedBooks(isAuthenticated);
-            return ResponseEntity.ok(books);
+            BookView bookView = BookView.from(view);
+            long version = resourceVersions.listings();
+            String etag = HttpCaching.etag(booksScope(bookView), version, isAuthenticated, webRequest);
+            if (webRequest.checkNotModified(etag, version)) {
+                return HttpCaching.notModified(etag, version, isAuthenticated);
+            }
+            
+            BookPageResponse<?> page = bookView == BookView.CARD
+                    ? bookService.getApprovedBookCardsPage(cursor, limit)
+                    : bookService.getApprovedBooksPage(cursor, limit, isAuthenticated);
+            return HttpCaching.ok(etag, version, isAuthenticated).body(page);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
     
+    /**
+     * API: Lấy toàn bộ sách đã duyệt (không có limit/cursor)
+     * Method: GET
+     * Endpoint: /books
+     * Auth: KHÔNG CẦN (Public)
+     * Note: Ẩn thông tin liên hệ và người đăng nếu chưa login
+     * 
+     * - books.listing.unpaged-default=true: ghi streaming toàn bộ danh sách (frontend cũ)
+     * - false: trả trang đầu { items, nextCursor }
+     * - Accept: application/x-ndjson, application/cbor, application/x-jackson-smile
+     *   để nhận NDJSON / CBOR / Smile thay vì mảng JSON
+     * - view=card: danh sách BookCardResponse (xem getBooksPage)
+     * 
+     * Kiểu trả về phải là ResponseEntity<StreamingResponseBody> (không dùng <?>)
+     * thì Spring MVC mới ghi body bất đồng bộ thay vì serialize lambda thành JSON
+     */
+    @GetMapping(params = {"!limit", "!cursor"})
+    public ResponseEntity<StreamingResponseBody> getAllBooksUnpaged(
+            @RequestParam(required = false) String view,
+            @RequestHeader(value = "Authorization", required = false) String token,
+            @RequestHeader(value = "Accept", required = false) String accept,
+            WebRequest webRequest) {
+        boolean isAuthenticated = (token != null && token.startsWith("Bearer "));
+        BookView bookView = BookView.from(view);
+        ResponseFormat format = ResponseFormat.fromAccept(accept);
+        long version = resourceVersions.listings();
+        String etag = HttpCaching.etag(booksScope(bookView), version, isAuthenticated, webRequest);
+        if (webRequest.checkNotModified(etag, version)) {
+            return HttpCaching.notModified(etag, version, isAuthenticated);
+        }
+        
+        if (!unpagedByDefault) {
+            BookPageResponse<?> page = bookView == BookView.CARD
+                    ? bookService.getApprovedBookCardsPage(null, null)
+                    : bookService.getApprovedBooksPage(null, null, isAuthenticated);
+            return HttpCaching.ok(etag, version, isAuthenticated)
+                    .contentType(format.isBinary() ? format.getMediaType() : MediaType.APPLICATION_JSON)
+                    .body(jsonStreamingService.write(page, format));
+        }
+        StreamingResponseBody body = bookView == BookView.CARD
+                ? bookService.streamApprovedBookCards(format)
+                : bookService.streamApprovedBooks(isAuthenticated, format);
+        return HttpCaching.ok(etag, version, isAuthenticated)
+                .contentType(format.getMediaType())
+                .body(body);
+    }
+
+    
     /**
      * API: Xem chi tiết sách
      * Method: GET
      * Endpoint: /books/{bookID}
      * Auth: KHÔNG CẦN (Public)
      * Note: Ẩn thông tin liên hệ và người đăng nếu chưa login
+     * JSON được cache sẵn theo (bookID, guest/auth), chỉ dựng lại khi version đổi
+     * Accept CBOR/Smile: serialize trực tiếp qua converter tương ứng (không qua cache JSON)
+     * Sách không tồn tại hoặc chưa duyệt: 404 trước khi so ETag (ETag cũ không được trả 304)
+     * Mỗi lượt xem thành công (kể cả 304) được đếm vào thống kê lượt xem của bài đăng
      */
     @GetMapping("/{bookID}")
     public ResponseEntity<?> getBookDetail(@PathVariable Integer bookID,
-                                          @RequestHeader(value = "Authorization", required = false) String token) {
+                                          @RequestHeader(value = "Authorization", required = false) String token,
+                                          @RequestHeader(value = "Accept", required = false) String accept,
+                                          WebRequest webRequest,
+                                          Principal principal) {
+        // postID lấy qua ListingCache (không truy vấn DB khi đã có trong cache)
+        Integer postID = bookService.findApprovedPostID(bookID);
+        if (postID == null) {
+            throw new ResourceNotFoundException("Bài đăng chưa được duyệt hoặc không tồn tại");
+        }
+        
         try {
             boolean isAuthenticated = (token != null && token.startsWith("Bearer "));
-            BookDetailResponse book = bookService.getBookDetail(bookID, isAuthenticated);
-            return ResponseEntity.ok(book);
+            long version = resourceVersions.book(bookID);
+            String etag = HttpCaching.etag("book-" + bookID, version, isAuthenticated, webRequest);
+            ResponseEntity<?> response;
+            if (webRequest.checkNotModified(etag, version)) {
+                response = HttpCaching.notModified(etag, version, isAuthenticated);
+            } else if (ResponseFormat.fromAccept(accept).isBinary()) {
+                response = HttpCaching.ok(etag, version, isAuthenticated)
+                        .body(bookService.getBookDetail(bookID, isAuthenticated));
+            } else {
+                response = detailJsonCache.get("book", bookID, isAuthenticated, version,
+                                () -> bookService.getBookDetail(bookID, isAuthenticated))
+                        .toResponse(HttpCaching.ok(etag, version, isAuthenticated), etag, webRequest);
+            }
+            
+            postViewStatsService.recordView(postID, PostViewStatsService.viewerOf(principal, webRequest));
+            return response;
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
+    /**
+     * API: Lấy sách liên quan
+     * Method: GET
+     * Endpoint: /books/{bookID}/related?limit=4
+     * Auth: KHÔNG CẦN (Public)
+     * Note: Ẩn thông tin liên hệ và người đăng nếu chưa login
+     * 
+     * Trả về { sameAuthor, sameCategory, sameProvince }, mỗi nhóm tối đa limit sách, mới nhất trước
+     */
+    @GetMapping("/{bookID}/related")
+    public ResponseEntity<?> getRelatedBooks(@PathVariable Integer bookID,
+                                             @RequestParam(required = false) Integer limit,
+                                             @RequestHeader(value = "Authorization", required = false) String token,
+                                             WebRequest webRequest) {
+        try {
+            boolean isAuthenticated = (token != null && token.startsWith("Bearer "));
+            long version = resourceVersions.listings();
+            String etag = HttpCaching.etag("related-" + bookID, version, isAuthenticated, webRequest);
+            if (webRequest.checkNotModified(etag, version)) {
+                return HttpCaching.notModified(etag, version, isAuthenticated);
+            }
+            
+            RelatedBooksResponse related = bookService.getRelatedBooks(bookID, limit, isAuthenticated);
+            return HttpCaching.ok(etag, version, isAuthenticated).body(related);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
+    /**
+     * API: Lấy nhiều sách theo ID
+     * Method: GET
+     * Endpoint: /books/batch?ids=12,5,40
+     * Auth: KHÔNG CẦN (Public)
+     * Note: Ẩn thông tin liên hệ và người đăng nếu chưa login
+     * 
+     * - Tối đa 200 ID, kết quả giữ đúng thứ tự ids
+     * - ID không tồn tại hoặc chưa được duyệt bị bỏ qua
+     */
+    @GetMapping("/batch")
+    public ResponseEntity<?> getBooksByIds(@RequestParam List<Integer> ids,
+                                           @RequestHeader(value = "Authorization", required = false) String token,
+                                           WebRequest webRequest) {
+        try {
+            boolean isAuthenticated = (token != null && token.startsWith("Bearer "));
+            long version = resourceVersions.listings();
+            String etag = HttpCaching.etag("batch", version, isAuthenticated, webRequest);
+            if (webRequest.checkNotModified(etag, version)) {
+                return HttpCaching.notModified(etag, version, isAuthenticated);
+            }
+            
+            List<BookDetailResponse> books = bookService.getBooksByIds(ids, isAuthenticated);
+            return HttpCaching.ok(etag, version, isAuthenticated).body(books);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -66,25 +247,57 @@ public class BookController {
     /**
      * API: Tìm kiếm sách theo nhiều tiêu chí
      * Method: GET
-     * Endpoint: /books/search?title=xxx&author=xxx&province=xxx&district=xxx
+     * Endpoint: /books/search?q=xxx&title=xxx&author=xxx&province=xxx&district=xxx&categoryID=1&bookCondition=xxx
+     *           &minPrice=10000&maxPrice=100000&sort=newest|price_asc|price_desc&facets=true
      * Auth: KHÔNG CẦN (Public)
      * Note: Ẩn thông tin liên hệ và người đăng nếu chưa login
+     * 
+     * q: tìm trên tiêu đề, tác giả, mô tả; không phân biệt dấu ("sach" khớp "sách")
+     * Mặc định: có từ khóa thì sắp xếp theo mức độ liên quan, không có thì mới nhất trước
+     * facets=true: trả về { items, total, facets } thay vì danh sách
      */
     @GetMapping("/search")
-    public ResponseEntity<?> searchBooks(@RequestParam(required = false) String title,
-                                        @RequestParam(required = false) String author,
-                                        @RequestParam(required = false) String province,
-                                        @RequestParam(required = false) String district,
-                                        @RequestHeader(value = "Authorization", required = false) String token) {
+    public ResponseEntity<?> searchBooks(BookSearchRequest request,
+                                        @RequestHeader(value = "Authorization", required = false) String token,
+                                        WebRequest webRequest) {
         try {
             boolean isAuthenticated = (token != null && token.startsWith("Bearer "));
-            List<BookDetailResponse> books = bookService.searchBooks(title, author, province, district, isAuthenticated);
-            return ResponseEntity.ok(books);
+            long version = resourceVersions.listings();
+            String etag = HttpCaching.etag("search", version, isAuthenticated, webRequest);
+            if (webRequest.checkNotModified(etag, version)) {
+                return HttpCaching.notModified(etag, version, isAuthenticated);
+            }
+            
+            BookSearchResponse result = bookService.searchBooks(request, isAuthenticated);
+            if (request.isFacets()) {
+                return HttpCaching.ok(etag, version, isAuthenticated).body(result);
+            }
+            return HttpCaching.ok(etag, version, isAuthenticated).body(result.getItems());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
     
+    /**
+     * API: Gợi ý tìm kiếm (typeahead)
+     * Method: GET
+     * Endpoint: /books/suggest?q=xxx&limit=10
+     * Auth: KHÔNG CẦN (Public)
+     * Note: Không phân biệt dấu, gợi ý mới đăng được ưu tiên, tối đa 10 kết quả
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<?> suggest(@RequestParam(required = false) String q,
+                                     @RequestParam(required = false) Integer limit,
+                                     WebRequest webRequest) {
+        // Gợi ý không chứa thông tin bị ẩn nên guest và user dùng chung một biến thể
+        long version = resourceVersions.listings();
+        String etag = HttpCaching.etag("suggest", version, false, webRequest);
+        if (webRequest.checkNotModified(etag, version)) {
+            return HttpCaching.notModified(etag, version, false);
+        }
+        return HttpCaching.ok(etag, version, false).body(bookService.suggest(q, limit));
+    }
+    
     /**
      * API: Lấy sách theo tỉnh/thành phố
      * Method: GET
@@ -94,13 +307,24 @@ public class BookController {
      */
     @GetMapping("/province/{province}")
     public ResponseEntity<?> getBooksByProvince(@PathVariable String province,
-                                                @RequestHeader(value = "Authorization", required = false) String token) {
+                                                @RequestHeader(value = "Authorization", required = false) String token,
+                                                WebRequest webRequest) {
         try {
             boolean isAuthenticated = (token != null && token.startsWith("Bearer "));
+            long version = resourceVersions.listings();
+            String etag = HttpCaching.etag("province", version, isAuthenticated, webRequest);
+            if (webRequest.checkNotModified(etag, version)) {
+                return HttpCaching.notModified(etag, version, isAuthenticated);
+            }
+            
             List<BookDetailResponse> books = bookService.getBooksByProvince(province, isAuthenticated);
-            return ResponseEntity.ok(books);
+            return HttpCaching.ok(etag, version, isAuthenticated).body(books);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
-}
\ No newline at end of file
+    
+    private static String booksScope(BookView view) {
+        return view == BookView.CARD ? "books-card" : "books";
+    }
+}
@@ -1,11 +1,16 @@
 package com.sachcu.controller;
 
+import com.sachcu.cache.DetailJsonCache;
+import com.sachcu.cache.HttpCaching;
+import com.sachcu.cache.ResourceVersions;
 import com.sachcu.entity.Category;
 import com.sachcu.service.CategoryService;
+import com.sachcu.service.ResponseFormat;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -26,16 +31,30 @@ import java.util.Map;
 public class CategoryController {
     
     private final CategoryService categoryService;
+    private final ResourceVersions resourceVersions;
+    private final DetailJsonCache detailJsonCache;
     
     /**
      * API: Lấy tất cả danh mục
      * Method: GET
      * Endpoint: /categories
      * Auth: KHÔNG CẦN (Public)
+     * Note: Trả 304 nếu danh mục và số sách chưa đổi (If-None-Match / If-Modified-Since)
+     * JSON và bản gzip được cache sẵn theo version danh mục
      */
     @GetMapping("/categories")
-    public ResponseEntity<?> getAllCategories() {
-        return ResponseEntity.ok(categoryService.getAllCategories());
+    public ResponseEntity<?> getAllCategories(@RequestHeader(value = "Accept", required = false) String accept,
+                                              WebRequest webRequest) {
+        long version = resourceVersions.categories();
+        String etag = HttpCaching.etag("categories", version, false, webRequest);
+        if (webRequest.checkNotModified(etag, version)) {
+            return HttpCaching.notModified(etag, version, false);
+        }
+        if (ResponseFormat.fromAccept(accept).isBinary()) {
+            return HttpCaching.ok(etag, version, false).body(categoryService.getAllCategories());
+        }
+        return detailJsonCache.get("categories", 0, false, version, categoryService::getAllCategories)
+                .toResponse(HttpCaching.ok(etag, version, false), etag, webRequest);
     }
 
     
@@ -1,5 +1,6 @@
 package com.sachcu.controller;
 
+import com.sachcu.cache.IdempotencyStore;
 import com.sachcu.service.FileStorageService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.io.Resource;
@@ -13,7 +14,10 @@ import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import jakarta.servlet.http.HttpServletRequest;
 import java.io.IOException;
+import java.security.Principal;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -32,6 +36,7 @@ import java.util.Map;
 public class ImageController {
     
     private final FileStorageService fileStorageService;
+    private final IdempotencyStore idempotencyStore;
     
     /**
      * API: Upload ảnh lên server
@@ -44,38 +49,18 @@ public class ImageController {
      * - User upload ảnh khi tạo/sửa bài đăng
      * - Trả về URL đầy đủ của ảnh
      * - File được lưu với tên UUID để tránh trùng
+     * - Header Idempotency-Key (tùy chọn): gửi lại cùng key và file → trả lại URL cũ, không lưu file mới
      */
     @PostMapping("/upload")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<?> uploadImage(@RequestParam("file") MultipartFile file) {
-        try {
-            // Lưu file và lấy tên file mới
-            String fileName = fileStorageService.storeFile(file);
-            
-            // Tạo URL đầy đủ để truy cập ảnh
-            String fileDownloadUri = ServletUriComponentsBuilder.fromCurrentContextPath()
-                    .path("/images/")
-                    .path(fileName)
-                    .toUriString();
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("fileName", fileName);
-            response.put("fileUrl", fileDownloadUri);
-            response.put("fileSize", file.getSize());
-            response.put("fileType", file.getContentType());
-            response.put("message", "Upload ảnh thành công");
-            
-            return ResponseEntity.ok(response);
-            
-        } catch (Exception e) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", false);
-            response.put("error", e.getMessage());
-            response.put("message", "Upload ảnh thất bại");
-            
-            return ResponseEntity.badRequest().body(response);
-        }
+    public ResponseEntity<?> uploadImage(
+            @RequestParam("file") MultipartFile file,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+            Principal principal) {
+        // So khớp request lặp lại theo tên file gốc và kích thước
+        List<Object> fingerprint = Arrays.asList(file.getOriginalFilename(), file.getSize());
+        return idempotencyStore.execute("upload-image", principal.getName(), idempotencyKey, fingerprint,
+                () -> storeImage(file));
     }
     
     /**
@@ -220,4 +205,36 @@ public class ImageController {
             ));
         }
     }
+    
+    // Lưu file và dựng response (phần được IdempotencyStore chạy đúng một lần)
+    private ResponseEntity<?> storeImage(MultipartFile file) {
+        try {
+            // Lưu file và lấy tên file mới
+            String fileName = fileStorageService.storeFile(file);
+            
+            // Tạo URL đầy đủ để truy cập ảnh
+            String fileDownloadUri = ServletUriComponentsBuilder.fromCurrentContextPath()
+                    .path("/images/")
+                    .path(fileName)
+                    .toUriString();
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("fileName", fileName);
+            response.put("fileUrl", fileDownloadUri);
+            response.put("fileSize", file.getSize());
+            response.put("fileType", file.getContentType());
+            response.put("message", "Upload ảnh thành công");
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            response.put("message", "Upload ảnh thất bại");
+            
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package com.sachcu.controller;
+
+import com.sachcu.cache.DetailJsonCache;
+import com.sachcu.service.LocationService;
+import com.sachcu.service.ResponseFormat;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Controller: LocationController
+ * Mô tả: Danh mục tỉnh/thành (Public)
+ * Thay cho việc frontend gọi provinces.open-api.vn để lấy danh sách tỉnh mỗi lần tải trang
+ * 
+ * APIs:
+ * - GET /locations/provinces - Danh sách tỉnh/thành
+ * 
+ * Dữ liệu gần như không đổi nên cho phép trình duyệt/CDN cache lâu dài
+ * JSON và bản gzip được cache sẵn (dữ liệu không đổi khi app đang chạy nên version luôn là 0)
+ */
+@RestController
+@RequestMapping("/locations")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class LocationController {
+    
+    private static final CacheControl LONG_LIVED = CacheControl.maxAge(Duration.ofDays(7)).cachePublic();
+    
+    private static final long DATASET_VERSION = 0L;
+    
+    private final LocationService locationService;
+    private final DetailJsonCache detailJsonCache;
+    
+    /**
+     * API: Lấy danh sách tỉnh/thành
+     * Method: GET
+     * Endpoint: /locations/provinces
+     * Auth: KHÔNG CẦN (Public)
+     */
+    @GetMapping("/provinces")
+    public ResponseEntity<?> getProvinces(WebRequest webRequest) {
+        return respond("provinces", 0, locationService::getProvinces, webRequest);
+    }
+    
+    // CBOR/Smile: serialize qua converter; JSON: ghi bản dựng sẵn (gzip nếu client hỗ trợ)
+    private ResponseEntity<?> respond(String scope, Integer code, Supplier<Object> loader, WebRequest webRequest) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .cacheControl(LONG_LIVED)
+                .varyBy(HttpHeaders.ACCEPT);
+        if (ResponseFormat.fromAccept(webRequest.getHeader(HttpHeaders.ACCEPT)).isBinary()) {
+            return builder.body(loader.get());
+        }
+        return detailJsonCache.get(scope, code, false, DATASET_VERSION, loader)
+                .toResponse(builder, null, webRequest);
+    }
+}
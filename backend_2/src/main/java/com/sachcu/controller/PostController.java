@@ -1,17 +1,33 @@
 package com.sachcu.controller;
 
+import com.sachcu.cache.DetailJsonCache;
+import com.sachcu.cache.HttpCaching;
+import com.sachcu.cache.IdempotencyStore;
+import com.sachcu.cache.ResourceVersions;
 import com.sachcu.dto.request.CreatePostRequest;
 import com.sachcu.dto.request.UpdatePostRequest;
+import com.sachcu.dto.response.ImportJobResponse;
 import com.sachcu.dto.response.PostResponse;
 import com.sachcu.dto.response.BookDetailResponse;
+import com.sachcu.exception.PreconditionFailedException;
+import com.sachcu.exception.ResourceNotFoundException;
+import com.sachcu.service.PostImportService;
 import com.sachcu.service.PostService;
+import com.sachcu.service.PostViewStatsService;
+import com.sachcu.service.ResponseFormat;
 import com.sachcu.security.JwtUtil;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.security.Principal;
 import java.util.List;
 import java.util.Map;
 
@@ -24,6 +40,8 @@ import java.util.Map;
  * 
  * ==================== USER APIs (Cần đăng nhập) ====================
  * - POST /posts - Đăng bài bán sách mới
+ * - POST /my-posts/import - Nhập nhiều bài đăng từ file CSV/NDJSON
+ * - GET /my-posts/import/{jobID} - Xem tiến độ nhập file
  * - GET /my-posts - Xem tất cả bài đăng của chính mình
  * - PUT /my-posts/{postID} - Sửa bài đăng của chính mình
  * - DELETE /my-posts/{postID} - Xóa bài đăng của chính mình
@@ -36,7 +54,12 @@ import java.util.Map;
 public class PostController {
     
     private final PostService postService;
+    private final PostImportService postImportService;
     private final JwtUtil jwtUtil;
+    private final ResourceVersions resourceVersions;
+    private final DetailJsonCache detailJsonCache;
+    private final IdempotencyStore idempotencyStore;
+    private final PostViewStatsService postViewStatsService;
     
     // ========================================================================
     // PUBLIC APIs - KHÔNG CẦN ĐĂNG NHẬP
@@ -51,17 +74,43 @@ public class PostController {
      * Chức năng:
      * - Guest: Xem được bài đăng nhưng ẨN thông tin liên hệ và người đăng
      * - User đã login: Xem được ĐẦY ĐỦ thông tin
+     * - Bài không tồn tại hoặc chưa duyệt: 404 trước khi so ETag (ETag cũ không được trả 304)
+     * - If-None-Match / If-Modified-Since khớp version: trả 304 (chỉ một truy vấn khóa chính để kiểm tra bài)
+     * - JSON được cache sẵn theo (postID, guest/auth), chỉ dựng lại khi version đổi
+     * - Accept CBOR/Smile: serialize trực tiếp qua converter tương ứng (không qua cache JSON)
+     * - Mỗi lượt xem thành công (kể cả 304) được đếm vào thống kê lượt xem của bài
      */
     @GetMapping("/posts/{postID}")
     public ResponseEntity<?> getPostDetail(
             @PathVariable Integer postID,
-            @RequestHeader(value = "Authorization", required = false) String token) {
+            @RequestHeader(value = "Authorization", required = false) String token,
+            @RequestHeader(value = "Accept", required = false) String accept,
+            WebRequest webRequest,
+            Principal principal) {
+        if (!postService.isApproved(postID)) {
+            throw new ResourceNotFoundException("Bài đăng chưa được duyệt hoặc không tồn tại");
+        }
+        
         try {
             // Kiểm tra user đã đăng nhập hay chưa
             boolean isAuthenticated = (token != null && token.startsWith("Bearer "));
             
-            BookDetailResponse response = postService.getPostDetail(postID, isAuthenticated);
-            return ResponseEntity.ok(response);
+            long version = resourceVersions.post(postID);
+            String etag = HttpCaching.etag("post-" + postID, version, isAuthenticated, webRequest);
+            ResponseEntity<?> response;
+            if (webRequest.checkNotModified(etag, version)) {
+                response = HttpCaching.notModified(etag, version, isAuthenticated);
+            } else if (ResponseFormat.fromAccept(accept).isBinary()) {
+                response = HttpCaching.ok(etag, version, isAuthenticated)
+                        .body(postService.getPostDetail(postID, isAuthenticated));
+            } else {
+                response = detailJsonCache.get("post", postID, isAuthenticated, version,
+                                () -> postService.getPostDetail(postID, isAuthenticated))
+                        .toResponse(HttpCaching.ok(etag, version, isAuthenticated), etag, webRequest);
+            }
+            
+            postViewStatsService.recordView(postID, PostViewStatsService.viewerOf(principal, webRequest));
+            return response;
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of(
                 "error", e.getMessage(),
@@ -82,19 +131,90 @@ public class PostController {
      * 
      * Chức năng: User tạo bài đăng mới (gộp Book và Post)
      * Trạng thái mặc định: PENDING (chờ Admin duyệt)
+     * Note: Header Idempotency-Key (tùy chọn): gửi lại cùng key và nội dung → trả lại bài đã tạo, không tạo trùng
      */
     @PostMapping("/posts")
     @PreAuthorize("hasRole('USER')")
     public ResponseEntity<?> createPost(
             @Valid @RequestBody CreatePostRequest request,
+            @RequestHeader("Authorization") String token,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        try {
+            // Lấy userID từ JWT token
+            String jwtToken = token.substring(7);
+            Integer userID = jwtUtil.extractUserId(jwtToken);
+            
+            return idempotencyStore.execute("create-post", userID, idempotencyKey, request, () -> {
+                try {
+                    PostResponse response = postService.createPost(userID, request);
+                    return ResponseEntity.ok(response);
+                } catch (Exception e) {
+                    return ResponseEntity.badRequest().body(Map.of(
+                        "error", e.getMessage(),
+                        "timestamp", System.currentTimeMillis()
+                    ));
+                }
+            });
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", e.getMessage(),
+                "timestamp", System.currentTimeMillis()
+            ));
+        }
+    }
+    
+    /**
+     * API: Nhập nhiều bài đăng từ file
+     * Method: POST
+     * Endpoint: /my-posts/import (multipart, field "file")
+     * Auth: CẦN đăng nhập (ROLE_USER)
+     * 
+     * Chức năng:
+     * - File .csv (dòng đầu là tên cột) hoặc .ndjson (mỗi dòng một object), cùng các trường như POST /posts
+     * - Danh mục: cột categoryID hoặc category (tên danh mục)
+     * - Xử lý nền: trả 202 kèm jobID, xem kết quả qua GET /my-posts/import/{jobID}
+     * - Tất cả bài nhập đều ở trạng thái PENDING (chờ Admin duyệt)
+     */
+    @PostMapping("/my-posts/import")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<?> importPosts(
+            @RequestParam("file") MultipartFile file,
             @RequestHeader("Authorization") String token) {
         try {
             // Lấy userID từ JWT token
             String jwtToken = token.substring(7);
             Integer userID = jwtUtil.extractUserId(jwtToken);
             
-            PostResponse response = postService.createPost(userID, request);
-            return ResponseEntity.ok(response);
+            ImportJobResponse job = postImportService.startImport(userID, file);
+            return ResponseEntity.accepted().body(job);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", e.getMessage(),
+                "timestamp", System.currentTimeMillis()
+            ));
+        }
+    }
+    
+    /**
+     * API: Xem tiến độ nhập bài đăng từ file
+     * Method: GET
+     * Endpoint: /my-posts/import/{jobID}
+     * Auth: CẦN đăng nhập (ROLE_USER)
+     * 
+     * Chức năng: Số dòng đã đọc / đã tạo / lỗi và lỗi theo từng dòng
+     * Job được giữ trong bộ nhớ (books.import.job-ttl) sau khi tạo
+     */
+    @GetMapping("/my-posts/import/{jobID}")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<?> getImportJob(
+            @PathVariable String jobID,
+            @RequestHeader("Authorization") String token) {
+        try {
+            // Lấy userID từ JWT token
+            String jwtToken = token.substring(7);
+            Integer userID = jwtUtil.extractUserId(jwtToken);
+            
+            return ResponseEntity.ok(postImportService.getJob(jobID, userID));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of(
                 "error", e.getMessage(),
@@ -145,21 +265,38 @@ public class PostController {
      * - Chỉ sửa được bài của CHÍNH MÌNH
      * - KHÔNG sửa được bài đã SOLD
      * - Nếu bài bị DECLINED → sau khi sửa sẽ reset về PENDING
+     * - Bắt buộc header If-Match: "v{version}" (version lấy từ GET /my-posts)
+     *   Thiếu → 428, bài đã bị thay đổi sau khi tải về → 412; response có ETag mới
      */
     @PutMapping("/my-posts/{postID}")
     @PreAuthorize("hasRole('USER')")
     public ResponseEntity<?> updateMyPost(
             @PathVariable Integer postID,
             @RequestBody UpdatePostRequest request,
-            @RequestHeader("Authorization") String token) {
+            @RequestHeader("Authorization") String token,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).body(Map.of(
+                "error", "Thiếu header If-Match (version của bài đăng)",
+                "timestamp", System.currentTimeMillis()
+            ));
+        }
         try {
             // Lấy userID từ JWT token
             String jwtToken = token.substring(7);
             Integer userID = jwtUtil.extractUserId(jwtToken);
             
-            // Service sẽ kiểm tra quyền sở hữu
-            BookDetailResponse response = postService.updateMyPost(postID, userID, request);
-            return ResponseEntity.ok(response);
+            // Service sẽ kiểm tra quyền sở hữu và version
+            BookDetailResponse response = postService.updateMyPost(postID, userID, request,
+                    HttpCaching.parseIfMatch(ifMatch));
+            return ResponseEntity.ok()
+                    .eTag(HttpCaching.versionTag(response.getVersion()))
+                    .body(response);
+        } catch (PreconditionFailedException | ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(Map.of(
+                "error", PreconditionFailedException.STALE_MESSAGE,
+                "timestamp", System.currentTimeMillis()
+            ));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of(
                 "error", e.getMessage(),
@@ -235,6 +372,12 @@ public class PostController {
                 "status", "SOLD",
                 "timestamp", System.currentTimeMillis()
             ));
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // Bài đang được sửa/duyệt ở nơi khác cùng lúc
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(Map.of(
+                "error", PreconditionFailedException.STALE_MESSAGE,
+                "timestamp", System.currentTimeMillis()
+            ));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of(
                 "error", e.getMessage(),
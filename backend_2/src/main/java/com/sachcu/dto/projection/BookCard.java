@@ -0,0 +1,40 @@
+package com.sachcu.dto.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Projection: BookCard
+ * Mô tả: Một dòng danh sách dạng thẻ (view=card), chỉ gồm các cột thẻ sách hiển thị
+ * Không SELECT các cột TEXT (book.description, posts.description), contact và người đăng
+ * 
+ * Thứ tự field = thứ tự tham số constructor trong CARD_SELECT của BookRepository
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookCard {
+    
+    // Book info
+    private Integer bookID;
+    private String title;
+    private String author;
+    private String bookCondition;
+    private BigDecimal price;
+    private String image;
+    private String province;
+    private String district;
+    private LocalDateTime createdAt;
+    
+    // Post info
+    private Integer postID;
+    private LocalDateTime postCreatedAt;
+    
+    // Category (danh mục có ID nhỏ nhất của sách)
+    private Integer categoryID;
+    private String categoryName;
+}
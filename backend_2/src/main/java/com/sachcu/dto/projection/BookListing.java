@@ -0,0 +1,51 @@
+package com.sachcu.dto.projection;
+
+import com.sachcu.entity.Post;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Projection: BookListing
+ * Mô tả: Một dòng danh sách sách (Book + Post + tên người đăng + danh mục đầu tiên)
+ * Được tạo trực tiếp bằng JPQL constructor expression trong một câu truy vấn JOIN,
+ * tránh lazy load Book → Post → User → Category cho từng dòng (N+1).
+ * 
+ * Thứ tự field = thứ tự tham số constructor trong LISTING_SELECT của BookRepository
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookListing {
+    
+    // Book info
+    private Integer bookID;
+    private String title;
+    private String author;
+    private String bookCondition;
+    private BigDecimal price;
+    private String description;
+    private String image;
+    private String contactInfo;
+    private String province;
+    private String district;
+    private LocalDateTime createdAt;
+    
+    // Post info
+    private Integer postID;
+    private String postDescription;
+    private Post.PostStatus postStatus;
+    private LocalDateTime postCreatedAt;
+    private Integer postVersion;
+    
+    // User info
+    private Integer userID;
+    private String userName;
+    
+    // Category (danh mục có ID nhỏ nhất của sách)
+    private Integer categoryID;
+    private String categoryName;
+}
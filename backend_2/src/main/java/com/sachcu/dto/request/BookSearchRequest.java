@@ -0,0 +1,45 @@
+package com.sachcu.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO Request: BookSearchRequest
+ * Mô tả: Tiêu chí tìm kiếm sách (bind từ query string)
+ * Sử dụng: GET /books/search
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookSearchRequest {
+    
+    // Từ khóa: q tìm trên tiêu đề, tác giả, mô tả; title/author chỉ tìm trên trường tương ứng
+    private String q;
+    private String title;
+    private String author;
+    
+    // Bộ lọc
+    private String province;
+    private String district;
+    private Integer categoryID;
+    private String bookCondition;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    
+    // newest | price_asc | price_desc (mặc định: liên quan nhất nếu có từ khóa, ngược lại mới nhất)
+    private String sort;
+    
+    // true: trả về kèm số lượng kết quả theo từng giá trị lọc
+    private boolean facets;
+    
+    public boolean hasText() {
+        return hasText(q) || hasText(title) || hasText(author);
+    }
+    
+    public static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+}
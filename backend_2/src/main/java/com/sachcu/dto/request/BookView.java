@@ -0,0 +1,28 @@
+package com.sachcu.dto.request;
+
+/**
+ * Enum: BookView
+ * Mô tả: Tham số view của danh sách sách
+ * 
+ * - detail (mặc định): BookDetailResponse đầy đủ như trước
+ * - card: BookCardResponse, DB chỉ SELECT các cột thẻ sách cần (không đọc cột TEXT)
+ */
+public enum BookView {
+    DETAIL,
+    CARD;
+    
+    /**
+     * @param view "detail" | "card" (không phân biệt hoa thường, null = detail)
+     */
+    public static BookView from(String view) {
+        if (view == null || view.isBlank()) {
+            return DETAIL;
+        }
+        for (BookView value : values()) {
+            if (value.name().equalsIgnoreCase(view.trim())) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("view không hợp lệ: " + view + " (detail | card)");
+    }
+}
@@ -0,0 +1,36 @@
+package com.sachcu.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO Request: BulkStatusRequest
+ * Mô tả: Yêu cầu đổi trạng thái hàng loạt
+ * Sử dụng: PUT /admin/posts/bulk-status, PUT /admin/users/bulk-status
+ * 
+ * - ids: danh sách ID cần đổi, hoặc
+ * - filter: chọn theo điều kiện (bỏ trống trường nào thì không lọc theo trường đó)
+ *   userID chỉ dùng cho bài đăng (VD: gỡ toàn bộ bài của một tài khoản spam)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusRequest {
+    
+    private List<Integer> ids;
+    private Filter filter;
+    private String status;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Filter {
+        private String status;
+        private Integer userID;
+        private LocalDateTime createdAfter;
+    }
+}
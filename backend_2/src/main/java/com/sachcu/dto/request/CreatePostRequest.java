@@ -3,6 +3,7 @@ package com.sachcu.dto.request;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -21,11 +22,14 @@ public class CreatePostRequest {
     
     // Thông tin sách
     @NotBlank(message = "Tên sách không được để trống")
+    @Size(max = 150, message = "Tên sách tối đa 150 ký tự")
     private String title;
     
+    @Size(max = 100, message = "Tác giả tối đa 100 ký tự")
     private String author;
     
     @NotBlank(message = "Tình trạng sách không được để trống")
+    @Size(max = 50, message = "Tình trạng sách tối đa 50 ký tự")
     private String bookCondition;
     
     @NotNull(message = "Giá không được để trống")
@@ -35,14 +39,18 @@ public class CreatePostRequest {
     @NotBlank(message = "Mô tả không được để trống")
     private String postDescription;
     
+    @Size(max = 255, message = "Đường dẫn ảnh tối đa 255 ký tự")
     private String image;
     
     @NotBlank(message = "Thông tin liên hệ không được để trống")
+    @Size(max = 100, message = "Thông tin liên hệ tối đa 100 ký tự")
     private String contactInfo;
     
     @NotNull(message = "Danh mục không được để trống")
     private Integer categoryID;
     
+    @Size(max = 50, message = "Tỉnh/thành tối đa 50 ký tự")
     private String province;
+    @Size(max = 50, message = "Quận/huyện tối đa 50 ký tự")
     private String district;
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.sachcu.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DTO Response: BookCardResponse
+ * Mô tả: Thẻ sách trong danh sách (view=card)
+ * Cùng tên field với BookDetailResponse nhưng bỏ mô tả, liên hệ và người đăng
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookCardResponse {
+    
+    private Integer bookID;
+    private String title;
+    private String author;
+    private String bookCondition;
+    private BigDecimal price;
+    private String image;
+    private String province;
+    private String district;
+    private String provinceName;
+    private LocalDateTime createdAt;
+    private Integer postID;
+    private Integer categoryID;
+    private String categoryName;
+}
@@ -1,5 +1,6 @@
 package com.sachcu.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -27,12 +28,22 @@ public class BookDetailResponse {
     private String contactInfo; // Sẽ bị ẩn nếu guest
     private String province;
     private String district;
+    private String provinceName; // Tên tương ứng với mã province (null nếu không tra được)
     private LocalDateTime createdAt;
     
     // Post info
     private Integer postID;
     private String postDescription;
     private String postStatus;
+    private Integer version; // Phiên bản bài đăng, gửi lại qua If-Match khi sửa
+    
+    // Thống kê lượt xem (chỉ có ở GET /my-posts), API khác để null → không ghi ra JSON
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long viewCount;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long uniqueViewers; // Ước lượng (HyperLogLog), cập nhật theo chu kỳ flush
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean archived; // true = bài đã chuyển sang archive (chỉ xem, không sửa/xóa được)
     
     // User info
     private Integer userID;
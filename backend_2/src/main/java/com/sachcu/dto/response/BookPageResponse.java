@@ -0,0 +1,22 @@
+package com.sachcu.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO Response: BookPageResponse
+ * Mô tả: Một trang danh sách sách (keyset pagination)
+ * nextCursor = null nghĩa là đã hết dữ liệu
+ * items: BookDetailResponse (view=detail) hoặc BookCardResponse (view=card)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookPageResponse<T> {
+    
+    private List<T> items;
+    private String nextCursor;
+}
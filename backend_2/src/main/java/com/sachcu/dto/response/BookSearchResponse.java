@@ -0,0 +1,23 @@
+package com.sachcu.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO Response: BookSearchResponse
+ * Mô tả: Kết quả tìm kiếm kèm số lượng theo bộ lọc (facets)
+ * facets: tên bộ lọc -> (giá trị -> số kết quả nếu chọn giá trị đó)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookSearchResponse {
+    
+    private List<BookDetailResponse> items;
+    private int total;
+    private Map<String, Map<String, Integer>> facets;
+}
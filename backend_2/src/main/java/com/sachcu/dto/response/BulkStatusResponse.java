@@ -0,0 +1,35 @@
+package com.sachcu.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO Response: BulkStatusResponse
+ * Mô tả: Kết quả đổi trạng thái hàng loạt, theo từng ID
+ * 
+ * - outcome: UPDATED | UNCHANGED (đã ở trạng thái đích) | NOT_FOUND
+ * - truncated = true: filter chọn nhiều hơn giới hạn một lần gọi, gọi lại để xử lý phần còn lại
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusResponse {
+    
+    private String status;
+    private Integer matched = 0;
+    private Integer updated = 0;
+    private Boolean truncated = false;
+    private List<ItemResult> results = new ArrayList<>();
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private Integer id;
+        private String outcome;
+    }
+}
@@ -0,0 +1,43 @@
+package com.sachcu.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO Response: ImportJobResponse
+ * Mô tả: Trạng thái một lượt nhập bài đăng hàng loạt (POST /my-posts/import)
+ * Client gọi lại GET /my-posts/import/{jobID} đến khi status là COMPLETED hoặc FAILED
+ * 
+ * - errors: lỗi theo từng dòng (tối đa một số lượng giới hạn, errorsTruncated = true nếu bị cắt)
+ * - message: lý do khi cả lượt nhập thất bại (file lỗi, vượt số dòng...)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportJobResponse {
+    
+    private String jobID;
+    private String status;
+    private String fileName;
+    private Integer totalRows;
+    private Integer importedRows;
+    private Integer failedRows;
+    private List<RowError> errors = new ArrayList<>();
+    private Boolean errorsTruncated;
+    private String message;
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private Integer line;
+        private String message;
+    }
+}
@@ -0,0 +1,18 @@
+package com.sachcu.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO Response: LocationResponse
+ * Mô tả: Một đơn vị hành chính (tỉnh/thành, quận/huyện hoặc phường/xã)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocationResponse {
+    
+    private Integer code;
+    private String name;
+}
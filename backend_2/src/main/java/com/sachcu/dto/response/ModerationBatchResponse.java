@@ -0,0 +1,22 @@
+package com.sachcu.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO Response: ModerationBatchResponse
+ * Mô tả: Lô bài chờ duyệt Admin vừa nhận từ hàng đợi
+ * Sau leaseExpiresAt các bài chưa có kết quả quay lại hàng đợi cho Admin khác
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ModerationBatchResponse {
+    
+    private List<PostResponse> posts;
+    private LocalDateTime leaseExpiresAt;
+}
@@ -26,4 +26,6 @@ public class PostResponse {
     private String district;
     private String postStatus;
     private LocalDateTime createdAt;
+    private Integer version; // Phiên bản bài đăng, gửi lại qua If-Match khi đổi trạng thái
+    private Boolean archived; // true = bài đã chuyển sang archive (chỉ xem, không đổi trạng thái được)
 }
\ No newline at end of file
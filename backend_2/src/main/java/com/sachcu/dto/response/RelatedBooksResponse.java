@@ -0,0 +1,23 @@
+package com.sachcu.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO Response: RelatedBooksResponse
+ * Mô tả: Sách liên quan của một cuốn sách, mới nhất trước
+ * Mỗi sách chỉ xuất hiện ở một nhóm (ưu tiên cùng tác giả → cùng danh mục → cùng tỉnh)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RelatedBooksResponse {
+    
+    private List<BookDetailResponse> sameAuthor = new ArrayList<>();
+    private List<BookDetailResponse> sameCategory = new ArrayList<>();
+    private List<BookDetailResponse> sameProvince = new ArrayList<>();
+}
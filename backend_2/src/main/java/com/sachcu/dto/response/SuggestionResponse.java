@@ -0,0 +1,19 @@
+package com.sachcu.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO Response: SuggestionResponse
+ * Mô tả: Một gợi ý tìm kiếm (typeahead)
+ * type: TITLE hoặc AUTHOR
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionResponse {
+    
+    private String text;
+    private String type;
+}
@@ -59,6 +59,11 @@ public class Book {
     @Column(updatable = false)
     private LocalDateTime createdAt;
 
+    // Optimistic locking: hai thao tác cùng sửa một sách thì thao tác commit sau bị từ chối
+    @Version
+    @Column(nullable = false)
+    private Integer version;
+
     // ========================
     // RELATIONSHIPS (ẨN ĐỂ TRÁNH JSON LOOP)
     // ========================
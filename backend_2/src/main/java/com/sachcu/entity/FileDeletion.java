@@ -0,0 +1,41 @@
+package com.sachcu.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity: FileDeletion
+ * Mô tả: Ảnh chờ xóa khỏi ổ đĩa (outbox), ghi trong cùng transaction với bài đăng
+ * Bảng: file_deletion_outbox
+ */
+@Entity
+@Table(name = "file_deletion_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileDeletion {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long outboxID;
+    
+    @Column(nullable = false)
+    private String fileName;
+    
+    @Column(nullable = false)
+    private Integer attempts = 0;
+    
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+    
+    private String lastError;
+    
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -47,7 +47,15 @@ public class Post {
     @UpdateTimestamp
     private LocalDateTime updatedAt;
     
+    // Hạn hiển thị (đặt khi được duyệt), quá hạn thì PostArchiveService chuyển sang EXPIRED
+    private LocalDateTime expiresAt;
+    
+    // Optimistic locking: tăng mỗi lần UPDATE, client gửi lại qua If-Match (ETag "v{version}")
+    @Version
+    @Column(nullable = false)
+    private Integer version;
+    
     public enum PostStatus {
-        APPROVED, PENDING, DECLINED, SOLD
+        APPROVED, PENDING, DECLINED, SOLD, EXPIRED
     }
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.sachcu.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Event: CategoryChangedEvent
+ * Mô tả: Phát ra khi Admin thêm/sửa/xóa danh mục
+ * (tên danh mục nằm trong dữ liệu bài đăng nên cache của bài đăng cũng phải làm mới)
+ */
+@Getter
+@AllArgsConstructor
+public class CategoryChangedEvent {
+    
+    private final Integer categoryID;
+}
@@ -0,0 +1,36 @@
+package com.sachcu.event;
+
+import com.sachcu.dto.projection.BookListing;
+import com.sachcu.entity.Post;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Event payload: ListingChange
+ * Mô tả: Thay đổi của một bài đăng (tạo, sửa, đổi trạng thái, xóa)
+ * 
+ * - previousStatus: trạng thái trước khi thay đổi (null nếu bài mới tạo)
+ * - current: trạng thái hiện tại dạng projection (null nếu bài đã bị xóa)
+ */
+@Getter
+@AllArgsConstructor
+public class ListingChange {
+    
+    private final Integer postID;
+    private final Integer bookID;
+    private final Post.PostStatus previousStatus;
+    private final BookListing current;
+    
+    public static ListingChange deleted(Integer postID, Integer bookID, Post.PostStatus previousStatus) {
+        return new ListingChange(postID, bookID, previousStatus, null);
+    }
+    
+    public boolean wasApproved() {
+        return previousStatus == Post.PostStatus.APPROVED;
+    }
+    
+    // Bài đăng hiện có hiển thị công khai hay không
+    public boolean isApproved() {
+        return current != null && current.getPostStatus() == Post.PostStatus.APPROVED;
+    }
+}
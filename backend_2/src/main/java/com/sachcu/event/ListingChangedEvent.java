@@ -0,0 +1,22 @@
+package com.sachcu.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Event: ListingChangedEvent
+ * Mô tả: Phát ra khi một hoặc nhiều bài đăng thay đổi
+ * Các index/cache trong bộ nhớ lắng nghe event này SAU KHI transaction commit
+ */
+@Getter
+@AllArgsConstructor
+public class ListingChangedEvent {
+    
+    private final List<ListingChange> changes;
+    
+    public static ListingChangedEvent of(ListingChange change) {
+        return new ListingChangedEvent(List.of(change));
+    }
+}
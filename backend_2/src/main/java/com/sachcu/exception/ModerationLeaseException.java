@@ -0,0 +1,24 @@
+package com.sachcu.exception;
+
+/**
+ * Exception: ModerationLeaseException
+ * Mô tả: Admin ghi kết quả duyệt cho bài mình không giữ (HTTP 409)
+ * - Lease đã hết hạn và bài đã được Admin khác nhận, cần nhận bài mới từ hàng đợi
+ * - Hoặc đổi trạng thái trực tiếp bài Admin khác đang giữ (lease còn hạn)
+ */
+public class ModerationLeaseException extends RuntimeException {
+    
+    public static final String LEASE_LOST_MESSAGE =
+            "Bạn không còn giữ bài đăng này (đã hết thời gian giữ và được Admin khác nhận)";
+    
+    public static final String HELD_BY_OTHER_MESSAGE =
+            "Bài đăng đang được Admin khác duyệt trong hàng đợi, vui lòng thử lại sau";
+    
+    public ModerationLeaseException() {
+        super(LEASE_LOST_MESSAGE);
+    }
+    
+    public ModerationLeaseException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,20 @@
+package com.sachcu.exception;
+
+/**
+ * Exception: PreconditionFailedException
+ * Mô tả: If-Match không khớp phiên bản hiện tại của bài đăng (HTTP 412)
+ * Client đang sửa trên dữ liệu cũ, cần tải lại bài đăng rồi mới lưu
+ */
+public class PreconditionFailedException extends RuntimeException {
+    
+    public static final String STALE_MESSAGE =
+            "Bài đăng đã được thay đổi ở nơi khác, vui lòng tải lại trước khi lưu";
+    
+    public PreconditionFailedException() {
+        super(STALE_MESSAGE);
+    }
+    
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -1,12 +1,24 @@
 package com.sachcu.repository;
 
+import com.sachcu.dto.projection.BookCard;
+import com.sachcu.dto.projection.BookListing;
 import com.sachcu.entity.Book;
+import com.sachcu.entity.Post;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repository: BookRepository
@@ -15,6 +27,34 @@ import java.util.List;
 @Repository
 public interface BookRepository extends JpaRepository<Book, Integer> {
     
+    // Số dòng mỗi lần JDBC lấy về khi stream (MySQL cần useCursorFetch=true)
+    String STREAM_FETCH_SIZE = "500";
+    
+    // Projection BookListing: Book + Post + User + danh mục đầu tiên trong MỘT câu SELECT
+    // Chỉ JOIN dòng book_category có categoryID nhỏ nhất để mỗi bài đăng ra đúng 1 dòng
+    String LISTING_SELECT = "SELECT new com.sachcu.dto.projection.BookListing(" +
+            "b.bookID, b.title, b.author, b.bookCondition, b.price, b.description, b.image, " +
+            "b.contactInfo, b.province, b.district, b.createdAt, " +
+            "p.postID, p.description, p.status, p.createdAt, p.version, " +
+            "u.userID, u.name, c.categoryID, c.categoryName) ";
+    
+    String LISTING_FROM = "FROM Post p JOIN p.book b JOIN p.user u " +
+            "LEFT JOIN b.bookCategories bc ON bc.id.categoryID = " +
+            "(SELECT MIN(bc2.id.categoryID) FROM BookCategory bc2 WHERE bc2.book = b) " +
+            "LEFT JOIN bc.category c ";
+    
+    // Projection BookCard (view=card): chỉ các cột thẻ sách hiển thị, không JOIN user,
+    // không đọc book.description / posts.description (TEXT) và contact_info
+    String CARD_SELECT = "SELECT new com.sachcu.dto.projection.BookCard(" +
+            "b.bookID, b.title, b.author, b.bookCondition, b.price, b.image, " +
+            "b.province, b.district, b.createdAt, " +
+            "p.postID, p.createdAt, c.categoryID, c.categoryName) ";
+    
+    String CARD_FROM = "FROM Post p JOIN p.book b " +
+            "LEFT JOIN b.bookCategories bc ON bc.id.categoryID = " +
+            "(SELECT MIN(bc2.id.categoryID) FROM BookCategory bc2 WHERE bc2.book = b) " +
+            "LEFT JOIN bc.category c ";
+    
     // Tìm kiếm sách theo tiêu đề
     List<Book> findByTitleContainingIgnoreCase(String title);
     
@@ -34,5 +74,101 @@ public interface BookRepository extends JpaRepository<Book, Integer> {
                             @Param("author") String author,
                             @Param("province") String province,
                             @Param("district") String district);
-
-}
\ No newline at end of file
+    
+    // ========================================================================
+    // LISTING PROJECTION - 1 câu SQL cho mỗi lần gọi
+    // ========================================================================
+    
+    // Tất cả sách theo trạng thái bài đăng, mới nhất trước
+    @Query(LISTING_SELECT + LISTING_FROM +
+           "WHERE p.status = :status " +
+           "ORDER BY p.createdAt DESC, p.postID DESC")
+    List<BookListing> findListingsByStatus(@Param("status") Post.PostStatus status);
+    
+    // Như trên nhưng đọc dần từng lô STREAM_FETCH_SIZE dòng (phải dùng trong transaction và đóng Stream)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(LISTING_SELECT + LISTING_FROM +
+           "WHERE p.status = :status " +
+           "ORDER BY p.createdAt DESC, p.postID DESC")
+    Stream<BookListing> streamListingsByStatus(@Param("status") Post.PostStatus status);
+    
+    // Trang đầu tiên (keyset pagination theo created_at, postID)
+    @Query(LISTING_SELECT + LISTING_FROM +
+           "WHERE p.status = :status " +
+           "ORDER BY p.createdAt DESC, p.postID DESC")
+    List<BookListing> findListingsFirstPage(@Param("status") Post.PostStatus status, Pageable pageable);
+    
+    // Trang tiếp theo: chỉ lấy các bài đăng nằm sau cursor (createdAt, postID)
+    @Query(LISTING_SELECT + LISTING_FROM +
+           "WHERE p.status = :status AND " +
+           "(p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.postID < :postID)) " +
+           "ORDER BY p.createdAt DESC, p.postID DESC")
+    List<BookListing> findListingsPageAfter(@Param("status") Post.PostStatus status,
+                                            @Param("createdAt") LocalDateTime createdAt,
+                                            @Param("postID") Integer postID,
+                                            Pageable pageable);
+    
+    // ========================================================================
+    // CARD PROJECTION (view=card) - cùng điều kiện/thứ tự với các query listing ở trên
+    // ========================================================================
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(CARD_SELECT + CARD_FROM +
+           "WHERE p.status = :status " +
+           "ORDER BY p.createdAt DESC, p.postID DESC")
+    Stream<BookCard> streamCardsByStatus(@Param("status") Post.PostStatus status);
+    
+    @Query(CARD_SELECT + CARD_FROM +
+           "WHERE p.status = :status " +
+           "ORDER BY p.createdAt DESC, p.postID DESC")
+    List<BookCard> findCardsFirstPage(@Param("status") Post.PostStatus status, Pageable pageable);
+    
+    @Query(CARD_SELECT + CARD_FROM +
+           "WHERE p.status = :status AND " +
+           "(p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.postID < :postID)) " +
+           "ORDER BY p.createdAt DESC, p.postID DESC")
+    List<BookCard> findCardsPageAfter(@Param("status") Post.PostStatus status,
+                                      @Param("createdAt") LocalDateTime createdAt,
+                                      @Param("postID") Integer postID,
+                                      Pageable pageable);
+    
+    // Tìm kiếm nâng cao, lọc trạng thái ngay trong DB
+    @Query(LISTING_SELECT + LISTING_FROM +
+           "WHERE p.status = :status AND " +
+           "(:title IS NULL OR :title = '' OR LOWER(b.title) LIKE LOWER(CONCAT('%', :title, '%'))) AND " +
+           "(:author IS NULL OR :author = '' OR LOWER(b.author) LIKE LOWER(CONCAT('%', :author, '%'))) AND " +
+           "(:province IS NULL OR :province = '' OR b.province = :province) AND " +
+           "(:district IS NULL OR :district = '' OR b.district = :district) AND " +
+           "(:categoryID IS NULL OR c.categoryID = :categoryID) AND " +
+           "(:bookCondition IS NULL OR :bookCondition = '' OR b.bookCondition = :bookCondition) AND " +
+           "(:minPrice IS NULL OR b.price >= :minPrice) AND " +
+           "(:maxPrice IS NULL OR b.price <= :maxPrice)")
+    List<BookListing> searchListings(@Param("status") Post.PostStatus status,
+                                     @Param("title") String title,
+                                     @Param("author") String author,
+                                     @Param("province") String province,
+                                     @Param("district") String district,
+                                     @Param("categoryID") Integer categoryID,
+                                     @Param("bookCondition") String bookCondition,
+                                     @Param("minPrice") BigDecimal minPrice,
+                                     @Param("maxPrice") BigDecimal maxPrice,
+                                     Sort sort);
+    
+    // Sách theo tỉnh/thành phố
+    @Query(LISTING_SELECT + LISTING_FROM +
+           "WHERE p.status = :status AND b.province = :province")
+    List<BookListing> findListingsByProvince(@Param("status") Post.PostStatus status,
+                                             @Param("province") String province);
+    
+    // Sách theo danh sách postID (không đảm bảo thứ tự)
+    @Query(LISTING_SELECT + LISTING_FROM +
+           "WHERE p.status = :status AND p.postID IN :postIDs")
+    List<BookListing> findListingsByPostIds(@Param("status") Post.PostStatus status,
+                                            @Param("postIDs") Collection<Integer> postIDs);
+    
+    // Sách theo danh sách bookID (không đảm bảo thứ tự)
+    @Query(LISTING_SELECT + LISTING_FROM +
+           "WHERE p.status = :status AND b.bookID IN :bookIDs")
+    List<BookListing> findListingsByBookIds(@Param("status") Post.PostStatus status,
+                                            @Param("bookIDs") Collection<Integer> bookIDs);
+}
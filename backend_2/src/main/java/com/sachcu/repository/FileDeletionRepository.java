@@ -0,0 +1,34 @@
+package com.sachcu.repository;
+
+import com.sachcu.entity.FileDeletion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository: FileDeletionRepository
+ * Mô tả: Truy vấn dữ liệu bảng file_deletion_outbox
+ */
+@Repository
+public interface FileDeletionRepository extends JpaRepository<FileDeletion, Long> {
+    
+    // Các dòng đến hạn xử lý, cũ nhất trước (dùng index idx_outbox_due)
+    @Query("SELECT f FROM FileDeletion f " +
+           "WHERE f.attempts < :maxAttempts AND f.nextAttemptAt <= :now " +
+           "ORDER BY f.outboxID")
+    List<FileDeletion> findDue(@Param("maxAttempts") int maxAttempts,
+                               @Param("now") LocalDateTime now,
+                               Pageable pageable);
+    
+    // Đã hết số lần thử, cần xử lý thủ công
+    long countByAttemptsGreaterThanEqual(int maxAttempts);
+    
+    @Query("SELECT MIN(f.createdAt) FROM FileDeletion f WHERE f.attempts < :maxAttempts")
+    Optional<LocalDateTime> findOldestPendingCreatedAt(@Param("maxAttempts") int maxAttempts);
+}
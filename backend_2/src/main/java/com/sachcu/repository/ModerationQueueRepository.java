@@ -0,0 +1,113 @@
+package com.sachcu.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository: ModerationQueueRepository
+ * Mô tả: Hàng đợi duyệt bài trên chính bảng posts (cột claimed_by, claim_expires_at)
+ * 
+ * - Nhận bài: SELECT ... FOR UPDATE SKIP LOCKED bỏ qua các dòng Admin khác đang nhận cùng lúc
+ *   (không chờ khóa), rồi ghi lease để các lần nhận sau cũng bỏ qua đến khi lease hết hạn
+ * - Lease hết hạn tự quay lại hàng đợi: điều kiện nhận bài bỏ qua lease cũ, không cần job dọn
+ * - Ghi lease giữ nguyên updated_at (gán lại chính nó) để không ảnh hưởng thời điểm cập nhật của bài
+ * - Phải gọi bên trong transaction của người gọi
+ */
+@Repository
+@RequiredArgsConstructor
+public class ModerationQueueRepository {
+    
+    // Bài chờ duyệt lâu nhất trước (idx_posts_status_created); bài Admin này đang giữ được nhận lại (gia hạn)
+    private static final String SELECT_CLAIMABLE =
+            "SELECT p.postID FROM posts p " +
+            "WHERE p.status = 'PENDING' " +
+            "AND (p.claim_expires_at IS NULL OR p.claim_expires_at < :now OR p.claimed_by = :adminID) " +
+            "ORDER BY p.created_at, p.postID LIMIT :limit FOR UPDATE SKIP LOCKED";
+    
+    private static final String UPDATE_LEASE =
+            "UPDATE posts SET claimed_by = :adminID, claim_expires_at = :until, updated_at = updated_at " +
+            "WHERE postID IN (:postIDs)";
+    
+    private static final String SELECT_LEASE_FOR_UPDATE =
+            "SELECT claimed_by, claim_expires_at FROM posts WHERE postID = ? FOR UPDATE";
+    
+    private static final String RELEASE =
+            "UPDATE posts SET claimed_by = NULL, claim_expires_at = NULL, updated_at = updated_at " +
+            "WHERE postID IN (:postIDs) AND claimed_by = :adminID";
+    
+    private static final String COUNT_QUEUE =
+            "SELECT COUNT(*) AS pending, " +
+            "COALESCE(SUM(CASE WHEN claim_expires_at >= ? THEN 1 ELSE 0 END), 0) AS leased " +
+            "FROM posts WHERE status = 'PENDING'";
+    
+    /**
+     * Lease hiện tại của một bài (claimedBy = null nếu chưa ai nhận)
+     */
+    public record Lease(Integer claimedBy, LocalDateTime expiresAt) {
+    }
+    
+    public record QueueCounts(long pending, long leased) {
+    }
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    
+    /**
+     * Khóa tối đa limit bài PENDING chưa có ai giữ (hoặc lease đã hết hạn)
+     */
+    public List<Integer> lockClaimable(Integer adminID, LocalDateTime now, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("adminID", adminID)
+                .addValue("now", Timestamp.valueOf(now))
+                .addValue("limit", limit);
+        return namedJdbcTemplate.queryForList(SELECT_CLAIMABLE, params, Integer.class);
+    }
+    
+    public void lease(Collection<Integer> postIDs, Integer adminID, LocalDateTime until) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("postIDs", postIDs)
+                .addValue("adminID", adminID)
+                .addValue("until", Timestamp.valueOf(until));
+        namedJdbcTemplate.update(UPDATE_LEASE, params);
+    }
+    
+    /**
+     * Đọc lease và khóa dòng đến hết transaction (không Admin nào nhận được bài trong lúc đang ghi kết quả)
+     */
+    public Optional<Lease> lockLease(Integer postID) {
+        return jdbcTemplate.query(SELECT_LEASE_FOR_UPDATE, (rs, rowNum) -> {
+            Timestamp expiresAt = rs.getTimestamp("claim_expires_at");
+            return new Lease(rs.getObject("claimed_by", Integer.class),
+                    expiresAt != null ? expiresAt.toLocalDateTime() : null);
+        }, postID).stream().findFirst();
+    }
+    
+    /**
+     * Trả bài về hàng đợi (chỉ các bài Admin này đang giữ)
+     * 
+     * @return Số bài đã trả
+     */
+    public int release(Collection<Integer> postIDs, Integer adminID) {
+        if (postIDs.isEmpty()) {
+            return 0;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("postIDs", postIDs)
+                .addValue("adminID", adminID);
+        return namedJdbcTemplate.update(RELEASE, params);
+    }
+    
+    public QueueCounts countQueue(LocalDateTime now) {
+        return jdbcTemplate.queryForObject(COUNT_QUEUE, (rs, rowNum) ->
+                new QueueCounts(rs.getLong("pending"), rs.getLong("leased")), Timestamp.valueOf(now));
+    }
+}
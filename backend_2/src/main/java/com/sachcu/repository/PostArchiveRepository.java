@@ -0,0 +1,209 @@
+package com.sachcu.repository;
+
+import com.sachcu.dto.projection.BookListing;
+import com.sachcu.entity.Post;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Repository: PostArchiveRepository
+ * Mô tả: Chuyển bài đăng đã kết thúc sang posts_archive / book_archive / book_category_archive
+ * và đọc lại lịch sử từ các bảng đó
+ * 
+ * - Mỗi lô: khóa các dòng cần chuyển (FOR UPDATE), INSERT ... SELECT sang bảng archive,
+ *   rồi xóa book (posts, book_category, post_stats bị xóa theo ON DELETE CASCADE)
+ * - Bài đang có báo cáo không được chuyển (report tham chiếu posts và bị xóa theo)
+ * - Các method ghi phải gọi bên trong transaction của người gọi
+ */
+@Repository
+public class PostArchiveRepository {
+    
+    private static final String SELECT_ARCHIVABLE =
+            "SELECT p.postID, p.bookID, p.status FROM posts p " +
+            "WHERE ((p.status = 'SOLD' AND p.updated_at < :soldBefore) " +
+            "OR (p.status IN ('DECLINED', 'EXPIRED') AND p.updated_at < :inactiveBefore)) " +
+            "AND NOT EXISTS (SELECT 1 FROM report r WHERE r.postID = p.postID) " +
+            "ORDER BY p.postID LIMIT :limit FOR UPDATE";
+    
+    private static final String COPY_BOOKS =
+            "INSERT INTO book_archive (bookID, title, author, price, description, image, province, district, " +
+            "book_condition, contact_info, created_at, version) " +
+            "SELECT bookID, title, author, price, description, image, province, district, " +
+            "book_condition, contact_info, created_at, version FROM book WHERE bookID IN (:bookIDs)";
+    
+    private static final String COPY_BOOK_CATEGORIES =
+            "INSERT INTO book_category_archive (bookID, categoryID) " +
+            "SELECT bookID, categoryID FROM book_category WHERE bookID IN (:bookIDs)";
+    
+    private static final String COPY_POSTS =
+            "INSERT INTO posts_archive (postID, userID, bookID, description, status, created_at, updated_at, " +
+            "expires_at, version, view_count, unique_viewers, archived_at) " +
+            "SELECT p.postID, p.userID, p.bookID, p.description, p.status, p.created_at, p.updated_at, " +
+            "p.expires_at, p.version, COALESCE(s.view_count, 0), COALESCE(s.unique_viewers, 0), :archivedAt " +
+            "FROM posts p LEFT JOIN post_stats s ON s.postID = p.postID WHERE p.postID IN (:postIDs)";
+    
+    private static final String DELETE_BOOKS = "DELETE FROM book WHERE bookID IN (:bookIDs)";
+    
+    // Cùng dạng với BookRepository.LISTING_SELECT: danh mục có ID nhỏ nhất của sách
+    private static final String LISTING_SELECT =
+            "SELECT b.bookID, b.title, b.author, b.book_condition, b.price, b.description, b.image, " +
+            "b.contact_info, b.province, b.district, b.created_at, " +
+            "p.postID, p.description AS post_description, p.status, p.created_at AS post_created_at, p.version, " +
+            "u.userID, u.name, c.categoryID, c.category_name, p.view_count, p.unique_viewers, p.archived_at " +
+            "FROM posts_archive p JOIN book_archive b ON b.bookID = p.bookID JOIN user u ON u.userID = p.userID " +
+            "LEFT JOIN category c ON c.categoryID = " +
+            "(SELECT MIN(bc.categoryID) FROM book_category_archive bc WHERE bc.bookID = b.bookID) ";
+    
+    private static final String SELECT_IMAGES_BY_USER =
+            "SELECT b.bookID, b.image FROM posts_archive p JOIN book_archive b ON b.bookID = p.bookID " +
+            "WHERE p.userID = ?";
+    
+    private static final RowMapper<ArchivedListing> LISTING_MAPPER = PostArchiveRepository::mapListing;
+    
+    /**
+     * Bài đăng được chọn để chuyển sang archive
+     */
+    public record Candidate(Integer postID, Integer bookID, Post.PostStatus status) {
+    }
+    
+    /**
+     * Bài đăng đã lưu trữ, kèm lượt xem tại thời điểm lưu trữ
+     */
+    public record ArchivedListing(BookListing listing, long viewCount, long uniqueViewers, LocalDateTime archivedAt) {
+    }
+    
+    /**
+     * Ảnh của bài đã lưu trữ (để xóa file khi xóa user)
+     */
+    public record ArchivedImage(Integer bookID, String image) {
+    }
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    
+    // Đọc dần theo lô cho GET /admin/posts (giống BookRepository.STREAM_FETCH_SIZE + useCursorFetch)
+    private final JdbcTemplate streamingJdbcTemplate;
+    
+    public PostArchiveRepository(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate,
+                                 DataSource dataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(Integer.parseInt(BookRepository.STREAM_FETCH_SIZE));
+    }
+    
+    /**
+     * Khóa tối đa limit bài cần lưu trữ
+     * 
+     * @param soldBefore Bài SOLD cập nhật lần cuối trước thời điểm này
+     * @param inactiveBefore Bài DECLINED/EXPIRED cập nhật lần cuối trước thời điểm này
+     */
+    public List<Candidate> lockArchivable(LocalDateTime soldBefore, LocalDateTime inactiveBefore, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("soldBefore", Timestamp.valueOf(soldBefore))
+                .addValue("inactiveBefore", Timestamp.valueOf(inactiveBefore))
+                .addValue("limit", limit);
+        return namedJdbcTemplate.query(SELECT_ARCHIVABLE, params, (rs, rowNum) -> new Candidate(
+                rs.getInt("postID"), rs.getInt("bookID"), Post.PostStatus.valueOf(rs.getString("status"))));
+    }
+    
+    /**
+     * Chép các bài đã khóa sang archive rồi xóa khỏi bảng chính
+     */
+    public void archive(List<Candidate> candidates) {
+        List<Integer> postIDs = candidates.stream().map(Candidate::postID).toList();
+        List<Integer> bookIDs = candidates.stream().map(Candidate::bookID).toList();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("postIDs", postIDs)
+                .addValue("bookIDs", bookIDs)
+                .addValue("archivedAt", Timestamp.valueOf(LocalDateTime.now()));
+        
+        namedJdbcTemplate.update(COPY_BOOKS, params);
+        namedJdbcTemplate.update(COPY_BOOK_CATEGORIES, params);
+        int copied = namedJdbcTemplate.update(COPY_POSTS, params);
+        if (copied != postIDs.size()) {
+            throw new IllegalStateException("Chỉ chép được " + copied + "/" + postIDs.size() + " bài đăng sang archive");
+        }
+        namedJdbcTemplate.update(DELETE_BOOKS, params);
+    }
+    
+    /**
+     * Bài đã lưu trữ của một user, mới nhất trước
+     */
+    public List<ArchivedListing> findListingsByUserId(Integer userID) {
+        return jdbcTemplate.query(LISTING_SELECT + "WHERE p.userID = ? ORDER BY p.created_at DESC, p.postID DESC",
+                LISTING_MAPPER, userID);
+    }
+    
+    public List<ArchivedListing> findListingsByStatus(Post.PostStatus status) {
+        return jdbcTemplate.query(LISTING_SELECT + "WHERE p.status = ? ORDER BY p.postID",
+                LISTING_MAPPER, status.name());
+    }
+    
+    /**
+     * Tất cả bài đã lưu trữ, đọc dần (phải đóng Stream, gọi bên trong transaction)
+     */
+    public Stream<ArchivedListing> streamAll() {
+        return streamingJdbcTemplate.queryForStream(LISTING_SELECT + "ORDER BY p.postID", LISTING_MAPPER);
+    }
+    
+    public List<ArchivedImage> findImagesByUserId(Integer userID) {
+        return jdbcTemplate.query(SELECT_IMAGES_BY_USER,
+                (rs, rowNum) -> new ArchivedImage(rs.getInt("bookID"), rs.getString("image")), userID);
+    }
+    
+    /**
+     * Xóa sách đã lưu trữ (posts_archive, book_category_archive bị xóa theo)
+     */
+    public void deleteBooks(List<Integer> bookIDs) {
+        if (!bookIDs.isEmpty()) {
+            namedJdbcTemplate.update("DELETE FROM book_archive WHERE bookID IN (:bookIDs)",
+                    new MapSqlParameterSource("bookIDs", bookIDs));
+        }
+    }
+    
+    // ========================================================================
+    // PRIVATE HELPER METHODS
+    // ========================================================================
+    
+    private static ArchivedListing mapListing(ResultSet rs, int rowNum) throws SQLException {
+        BookListing listing = new BookListing(
+                rs.getInt("bookID"),
+                rs.getString("title"),
+                rs.getString("author"),
+                rs.getString("book_condition"),
+                rs.getBigDecimal("price"),
+                rs.getString("description"),
+                rs.getString("image"),
+                rs.getString("contact_info"),
+                rs.getString("province"),
+                rs.getString("district"),
+                toLocalDateTime(rs.getTimestamp("created_at")),
+                rs.getInt("postID"),
+                rs.getString("post_description"),
+                Post.PostStatus.valueOf(rs.getString("status")),
+                toLocalDateTime(rs.getTimestamp("post_created_at")),
+                rs.getInt("version"),
+                rs.getInt("userID"),
+                rs.getString("name"),
+                rs.getObject("categoryID", Integer.class),
+                rs.getString("category_name"));
+        return new ArchivedListing(listing, rs.getLong("view_count"), rs.getLong("unique_viewers"),
+                toLocalDateTime(rs.getTimestamp("archived_at")));
+    }
+    
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,125 @@
+package com.sachcu.repository;
+
+import com.sachcu.dto.request.CreatePostRequest;
+import com.sachcu.entity.Post;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repository: PostBatchRepository
+ * Mô tả: Ghi nhiều bài đăng (book + book_category + posts) bằng JDBC batch
+ * 
+ * - Book/Post dùng IDENTITY nên Hibernate không gom được lệnh INSERT (mỗi bài 3 lần gọi DB)
+ * - Ở đây mỗi bảng là MỘT batch; với rewriteBatchedStatements=true driver MySQL gộp batch
+ *   thành INSERT nhiều dòng và trả về ID sinh ra theo đúng thứ tự dòng
+ * - Phải gọi bên trong transaction của người gọi (cùng connection với JPA)
+ */
+@Repository
+@RequiredArgsConstructor
+public class PostBatchRepository {
+    
+    private static final String INSERT_BOOK =
+            "INSERT INTO book (title, author, price, description, image, province, district, " +
+            "book_condition, contact_info, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    private static final String INSERT_BOOK_CATEGORY =
+            "INSERT INTO book_category (bookID, categoryID) VALUES (?, ?)";
+    
+    private static final String INSERT_POST =
+            "INSERT INTO posts (userID, bookID, description, status, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    /**
+     * Tạo bài đăng PENDING cho user từ các dòng đã kiểm tra hợp lệ (categoryID đã tồn tại)
+     * 
+     * @return postID theo đúng thứ tự của rows
+     */
+    public List<Integer> insertPosts(Integer userID, List<CreatePostRequest> rows) {
+        // Cả lô dùng chung một thời điểm tạo (giống @CreationTimestamp của entity)
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        
+        List<Integer> bookIDs = insertReturningKeys(INSERT_BOOK, rows.size(), (ps, i) -> {
+            CreatePostRequest row = rows.get(i);
+            ps.setString(1, row.getTitle());
+            ps.setString(2, row.getAuthor());
+            ps.setBigDecimal(3, row.getPrice());
+            ps.setString(4, row.getPostDescription());
+            ps.setString(5, row.getImage());
+            ps.setString(6, row.getProvince());
+            ps.setString(7, row.getDistrict());
+            ps.setString(8, row.getBookCondition());
+            ps.setString(9, row.getContactInfo());
+            ps.setTimestamp(10, now);
+        });
+        
+        jdbcTemplate.batchUpdate(INSERT_BOOK_CATEGORY, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setInt(1, bookIDs.get(i));
+                ps.setInt(2, rows.get(i).getCategoryID());
+            }
+            
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+        
+        return insertReturningKeys(INSERT_POST, rows.size(), (ps, i) -> {
+            ps.setInt(1, userID);
+            ps.setInt(2, bookIDs.get(i));
+            ps.setString(3, rows.get(i).getPostDescription());
+            ps.setString(4, Post.PostStatus.PENDING.name());
+            ps.setTimestamp(5, now);
+            ps.setTimestamp(6, now);
+        });
+    }
+    
+    // ========================================================================
+    // PRIVATE HELPER METHODS
+    // ========================================================================
+    
+    @FunctionalInterface
+    private interface RowSetter {
+        void setValues(PreparedStatement ps, int i) throws SQLException;
+    }
+    
+    private List<Integer> insertReturningKeys(String sql, int size, RowSetter setter) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        setter.setValues(ps, i);
+                    }
+                    
+                    @Override
+                    public int getBatchSize() {
+                        return size;
+                    }
+                },
+                keyHolder);
+        
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        if (keys.size() != size) {
+            throw new IllegalStateException("Số ID sinh ra (" + keys.size() + ") khác số dòng (" + size + ")");
+        }
+        return keys.stream()
+                .map(key -> ((Number) key.values().iterator().next()).intValue())
+                .toList();
+    }
+}
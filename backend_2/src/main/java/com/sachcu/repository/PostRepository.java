@@ -1,10 +1,22 @@
 package com.sachcu.repository;
 
+import com.sachcu.dto.projection.BookListing;
 import com.sachcu.entity.Post;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repository: PostRepository
@@ -21,4 +33,63 @@ public interface PostRepository extends JpaRepository<Post, Integer> {
     
     // Lấy bài đăng đã duyệt
     List<Post> findByStatusOrderByCreatedAtDesc(Post.PostStatus status);
+    
+    // Bài đăng có tồn tại ở trạng thái này không (tra theo khóa chính)
+    boolean existsByPostIDAndStatus(Integer postID, Post.PostStatus status);
+    
+    // Tất cả bài đăng của một user dưới dạng projection (1 câu SQL)
+    @Query(BookRepository.LISTING_SELECT + BookRepository.LISTING_FROM +
+           "WHERE u.userID = :userID " +
+           "ORDER BY p.createdAt DESC, p.postID DESC")
+    List<BookListing> findListingsByUserId(@Param("userID") Integer userID);
+    
+    // Tất cả bài đăng kèm Book, đọc dần theo lô (read-only, không giữ snapshot để dirty-check)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = BookRepository.STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Post p JOIN FETCH p.book ORDER BY p.postID")
+    Stream<Post> streamAllWithBook();
+    
+    // Bài APPROVED đã quá hạn hiển thị (idx_posts_status_expires)
+    @Query("SELECT p.postID FROM Post p WHERE p.status = :status AND p.expiresAt < :now ORDER BY p.expiresAt")
+    List<Integer> findExpiredIds(@Param("status") Post.PostStatus status,
+                                 @Param("now") LocalDateTime now,
+                                 Pageable pageable);
+    
+    // Gỡ các bài quá hạn bằng MỘT câu UPDATE; VERSIONED tăng version để If-Match cũ bị từ chối
+    // (chỉ bài còn ở trạng thái from, VD: người bán vừa sửa bài thì bỏ qua)
+    @Modifying
+    @Query("UPDATE VERSIONED Post p SET p.status = :to, p.updatedAt = :now " +
+           "WHERE p.postID IN :postIDs AND p.status = :from")
+    int updateStatusByIds(@Param("postIDs") List<Integer> postIDs,
+                          @Param("from") Post.PostStatus from,
+                          @Param("to") Post.PostStatus to,
+                          @Param("now") LocalDateTime now);
+    
+    // Đổi trạng thái hàng loạt: khóa các bài trong lô để biết trạng thái trước khi đổi
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Post p WHERE p.postID IN :postIDs")
+    List<Post> lockAllById(@Param("postIDs") List<Integer> postIDs);
+    
+    // MỘT câu UPDATE cho cả lô; expiresAt chỉ có giá trị khi duyệt (APPROVED)
+    @Modifying
+    @Query("UPDATE VERSIONED Post p SET p.status = :to, p.updatedAt = :now, p.expiresAt = :expiresAt " +
+           "WHERE p.postID IN :postIDs")
+    int bulkUpdateStatus(@Param("postIDs") List<Integer> postIDs,
+                         @Param("to") Post.PostStatus to,
+                         @Param("now") LocalDateTime now,
+                         @Param("expiresAt") LocalDateTime expiresAt);
+    
+    // ID bài theo bộ lọc của Admin, keyset theo postID (tham số null = không lọc)
+    @Query("SELECT p.postID FROM Post p " +
+           "WHERE (:status IS NULL OR p.status = :status) " +
+           "AND (:userID IS NULL OR p.user.userID = :userID) " +
+           "AND (:createdAfter IS NULL OR p.createdAt >= :createdAfter) " +
+           "AND p.postID > :afterID ORDER BY p.postID")
+    List<Integer> findIdsByFilter(@Param("status") Post.PostStatus status,
+                                  @Param("userID") Integer userID,
+                                  @Param("createdAfter") LocalDateTime createdAfter,
+                                  @Param("afterID") Integer afterID,
+                                  Pageable pageable);
 }
\ No newline at end of file
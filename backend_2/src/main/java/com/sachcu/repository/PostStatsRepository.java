@@ -0,0 +1,88 @@
+package com.sachcu.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repository: PostStatsRepository
+ * Mô tả: Đọc/ghi bảng post_stats (lượt xem, số người xem ước lượng, sketch HyperLogLog)
+ * 
+ * - Ghi bằng JDBC batch, mỗi dòng là một upsert (INSERT ... ON DUPLICATE KEY UPDATE)
+ * - INSERT lấy postID từ bảng posts: bài đã bị xóa thì không có dòng nào được ghi (không lỗi khóa ngoại)
+ * - Phải gọi bên trong transaction của người gọi
+ */
+@Repository
+@RequiredArgsConstructor
+public class PostStatsRepository {
+    
+    private static final String SELECT_SKETCHES_FOR_UPDATE =
+            "SELECT postID, viewer_sketch FROM post_stats WHERE postID IN (:postIDs) FOR UPDATE";
+    
+    private static final String SELECT_COUNTS =
+            "SELECT postID, view_count, unique_viewers FROM post_stats WHERE postID IN (:postIDs)";
+    
+    private static final String UPSERT =
+            "INSERT INTO post_stats (postID, view_count, unique_viewers, viewer_sketch, updated_at) " +
+            "SELECT p.postID, ?, ?, ?, ? FROM posts p WHERE p.postID = ? " +
+            "ON DUPLICATE KEY UPDATE view_count = view_count + VALUES(view_count), " +
+            "unique_viewers = VALUES(unique_viewers), viewer_sketch = VALUES(viewer_sketch), " +
+            "updated_at = VALUES(updated_at)";
+    
+    public record ViewCounts(long viewCount, long uniqueViewers) {
+    }
+    
+    /**
+     * Dòng cần ghi: viewDelta cộng dồn vào view_count, sketch/uniqueViewers là giá trị đã gộp
+     */
+    public record StatsUpdate(Integer postID, long viewDelta, long uniqueViewers, byte[] sketch) {
+    }
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    
+    /**
+     * Đọc sketch đã lưu và khóa các dòng đến hết transaction (instance khác đợi, không ghi đè sketch)
+     */
+    public Map<Integer, byte[]> lockSketches(Collection<Integer> postIDs) {
+        Map<Integer, byte[]> result = new HashMap<>();
+        namedJdbcTemplate.query(SELECT_SKETCHES_FOR_UPDATE, new MapSqlParameterSource("postIDs", postIDs),
+                rs -> {
+                    result.put(rs.getInt("postID"), rs.getBytes("viewer_sketch"));
+                });
+        return result;
+    }
+    
+    public Map<Integer, ViewCounts> findCounts(Collection<Integer> postIDs) {
+        Map<Integer, ViewCounts> result = new HashMap<>();
+        if (postIDs.isEmpty()) {
+            return result;
+        }
+        namedJdbcTemplate.query(SELECT_COUNTS, new MapSqlParameterSource("postIDs", postIDs),
+                rs -> {
+                    result.put(rs.getInt("postID"),
+                            new ViewCounts(rs.getLong("view_count"), rs.getLong("unique_viewers")));
+                });
+        return result;
+    }
+    
+    public void upsert(List<StatsUpdate> updates) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPSERT, updates, updates.size(), (ps, update) -> {
+            ps.setLong(1, update.viewDelta());
+            ps.setLong(2, update.uniqueViewers());
+            ps.setBytes(3, update.sketch());
+            ps.setTimestamp(4, now);
+            ps.setInt(5, update.postID());
+        });
+    }
+}
@@ -1,10 +1,22 @@
 package com.sachcu.repository;
 
 import com.sachcu.entity.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository: UserRepository
@@ -16,4 +28,32 @@ public interface UserRepository extends JpaRepository<User, Integer> {
     Optional<User> findByEmail(String email);
     
     boolean existsByEmail(String email);
+    
+    // Tất cả User, đọc dần theo lô (read-only)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = BookRepository.STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u FROM User u ORDER BY u.userID")
+    Stream<User> streamAll();
+    
+    // Đổi trạng thái hàng loạt: khóa các User trong lô để biết trạng thái trước khi đổi
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.userID IN :userIDs")
+    List<User> lockAllById(@Param("userIDs") List<Integer> userIDs);
+    
+    // MỘT câu UPDATE cho cả lô
+    @Modifying
+    @Query("UPDATE User u SET u.status = :status WHERE u.userID IN :userIDs")
+    int bulkUpdateStatus(@Param("userIDs") List<Integer> userIDs, @Param("status") User.UserStatus status);
+    
+    // ID User theo bộ lọc của Admin, keyset theo userID (tham số null = không lọc)
+    @Query("SELECT u.userID FROM User u " +
+           "WHERE (:status IS NULL OR u.status = :status) " +
+           "AND (:createdAfter IS NULL OR u.createdAt >= :createdAfter) " +
+           "AND u.userID > :afterID ORDER BY u.userID")
+    List<Integer> findIdsByFilter(@Param("status") User.UserStatus status,
+                                  @Param("createdAfter") LocalDateTime createdAfter,
+                                  @Param("afterID") Integer afterID,
+                                  Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,234 @@
+package com.sachcu.search;
+
+import com.sachcu.dto.projection.BookListing;
+import com.sachcu.event.ListingChange;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Component: BookSearchIndex
+ * Mô tả: Inverted index full-text trong bộ nhớ cho các bài đăng đã duyệt
+ * 
+ * - Index title, author, description đã bỏ dấu (tìm "sach" ra "sách")
+ * - Mỗi từ khóa phải khớp (AND); khớp tiền tố cũng được tính nhưng điểm thấp hơn
+ * - Xếp hạng theo BM25 rút gọn, title > author > description
+ * - Chỉ trả về postID; dữ liệu hiển thị lấy lại từ DB
+ */
+@Component
+public class BookSearchIndex implements ListingIndex {
+    
+    public enum Field {
+        TITLE(3.0), AUTHOR(2.0), DESCRIPTION(1.0);
+        
+        private final double boost;
+        
+        Field(double boost) {
+            this.boost = boost;
+        }
+    }
+    
+    private static final double K1 = 1.2;
+    private static final double PREFIX_MATCH_FACTOR = 0.5;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    // field -> term -> (postID -> số lần xuất hiện)
+    private final Map<Field, TreeMap<String, Map<Integer, Integer>>> postings = new EnumMap<>(Field.class);
+    
+    // postID -> field -> term -> số lần xuất hiện (để gỡ bài khỏi index)
+    private final Map<Integer, Map<Field, Map<String, Integer>>> documents = new HashMap<>();
+    
+    private volatile boolean ready = false;
+    
+    public BookSearchIndex() {
+        for (Field field : Field.values()) {
+            postings.put(field, new TreeMap<>());
+        }
+    }
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @Override
+    public void beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            documents.clear();
+            postings.values().forEach(Map::clear);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public void load(BookListing listing) {
+        lock.writeLock().lock();
+        try {
+            addDocument(listing);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public void finishRebuild() {
+        ready = true;
+    }
+    
+    @Override
+    public void apply(ListingChange change) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(change.getPostID());
+            if (change.isApproved()) {
+                addDocument(change.getCurrent());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Tìm kiếm bài đăng
+     * @param keyword Từ khóa tìm trên cả title, author, description
+     * @param title Từ khóa chỉ tìm trên title
+     * @param author Từ khóa chỉ tìm trên author
+     * @return postID theo thứ tự liên quan giảm dần
+     */
+    public List<Integer> search(String keyword, String title, String author) {
+        List<Clause> clauses = new ArrayList<>();
+        addClauses(clauses, keyword, Field.values());
+        addClauses(clauses, title, Field.TITLE);
+        addClauses(clauses, author, Field.AUTHOR);
+        
+        if (clauses.isEmpty()) {
+            return List.of();
+        }
+        
+        lock.readLock().lock();
+        try {
+            Map<Integer, Double> scores = null;
+            for (Clause clause : clauses) {
+                Map<Integer, Double> clauseScores = scoreClause(clause);
+                if (scores == null) {
+                    scores = clauseScores;
+                } else {
+                    // AND: chỉ giữ bài đăng khớp tất cả từ khóa
+                    scores.keySet().retainAll(clauseScores.keySet());
+                    for (Map.Entry<Integer, Double> entry : scores.entrySet()) {
+                        entry.setValue(entry.getValue() + clauseScores.get(entry.getKey()));
+                    }
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+            
+            List<Map.Entry<Integer, Double>> ranked = new ArrayList<>(scores.entrySet());
+            ranked.sort(Map.Entry.<Integer, Double>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.<Integer, Double>comparingByKey().reversed()));
+            
+            List<Integer> postIDs = new ArrayList<>(ranked.size());
+            for (Map.Entry<Integer, Double> entry : ranked) {
+                postIDs.add(entry.getKey());
+            }
+            return postIDs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    // ========================================================================
+    // PRIVATE HELPER METHODS
+    // ========================================================================
+    
+    private record Clause(String token, Field[] fields) {
+    }
+    
+    private void addClauses(List<Clause> clauses, String text, Field... fields) {
+        for (String token : VietnameseTextNormalizer.tokenize(text)) {
+            clauses.add(new Clause(token, fields));
+        }
+    }
+    
+    private Map<Integer, Double> scoreClause(Clause clause) {
+        Map<Integer, Double> scores = new HashMap<>();
+        int totalDocs = Math.max(documents.size(), 1);
+        
+        for (Field field : clause.fields()) {
+            // Các term bắt đầu bằng token (bao gồm cả term trùng khớp hoàn toàn)
+            SortedMap<String, Map<Integer, Integer>> matches =
+                    postings.get(field).subMap(clause.token(), clause.token() + Character.MAX_VALUE);
+            
+            Map<Integer, Double> fieldScores = new HashMap<>();
+            for (Map.Entry<String, Map<Integer, Integer>> term : matches.entrySet()) {
+                Map<Integer, Integer> docs = term.getValue();
+                double idf = Math.log(1 + (totalDocs - docs.size() + 0.5) / (docs.size() + 0.5));
+                double factor = term.getKey().equals(clause.token()) ? 1.0 : PREFIX_MATCH_FACTOR;
+                
+                for (Map.Entry<Integer, Integer> doc : docs.entrySet()) {
+                    int tf = doc.getValue();
+                    double score = field.boost * factor * idf * tf / (tf + K1);
+                    fieldScores.merge(doc.getKey(), score, Math::max);
+                }
+            }
+            fieldScores.forEach((postID, score) -> scores.merge(postID, score, Double::sum));
+        }
+        return scores;
+    }
+    
+    private void addDocument(BookListing listing) {
+        Map<Field, Map<String, Integer>> fields = new EnumMap<>(Field.class);
+        fields.put(Field.TITLE, termFrequencies(listing.getTitle()));
+        fields.put(Field.AUTHOR, termFrequencies(listing.getAuthor()));
+        fields.put(Field.DESCRIPTION, termFrequencies(listing.getDescription()));
+        
+        Integer postID = listing.getPostID();
+        for (Map.Entry<Field, Map<String, Integer>> field : fields.entrySet()) {
+            TreeMap<String, Map<Integer, Integer>> fieldPostings = postings.get(field.getKey());
+            field.getValue().forEach((term, tf) ->
+                    fieldPostings.computeIfAbsent(term, t -> new HashMap<>()).put(postID, tf));
+        }
+        documents.put(postID, fields);
+    }
+    
+    private void removeDocument(Integer postID) {
+        Map<Field, Map<String, Integer>> fields = documents.remove(postID);
+        if (fields == null) {
+            return;
+        }
+        for (Map.Entry<Field, Map<String, Integer>> field : fields.entrySet()) {
+            TreeMap<String, Map<Integer, Integer>> fieldPostings = postings.get(field.getKey());
+            for (String term : field.getValue().keySet()) {
+                Map<Integer, Integer> docs = fieldPostings.get(term);
+                if (docs != null) {
+                    docs.remove(postID);
+                    if (docs.isEmpty()) {
+                        fieldPostings.remove(term);
+                    }
+                }
+            }
+        }
+    }
+    
+    private Map<String, Integer> termFrequencies(String text) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String token : VietnameseTextNormalizer.tokenize(text)) {
+            frequencies.merge(token, 1, Integer::sum);
+        }
+        return frequencies;
+    }
+}
@@ -0,0 +1,74 @@
+package com.sachcu.search;
+
+import com.sachcu.dto.projection.BookListing;
+import com.sachcu.event.ListingChange;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Component: CategoryCountIndex
+ * Mô tả: Số bài đăng đã duyệt theo danh mục, thay cho getBookCategories().size()
+ * (size() nạp toàn bộ collection cho từng danh mục và đếm cả bài PENDING, DECLINED, SOLD)
+ * 
+ * - Đếm một lần khi khởi động trong lượt đọc APPROVED dùng chung của ListingIndexCoordinator
+ * - Cộng/trừ theo từng thay đổi trạng thái sau khi commit
+ * - Giữ bookID → categoryID của bài đã duyệt để trừ đúng danh mục khi bài bị xóa (current = null)
+ */
+@Component
+public class CategoryCountIndex implements ListingIndex {
+    
+    private final Map<Integer, Integer> countByCategoryID = new ConcurrentHashMap<>();
+    
+    // Chỉ sửa trong các method synchronized (beginRebuild/load/apply)
+    private final Map<Integer, Integer> categoryIDByBookID = new HashMap<>();
+    
+    private volatile boolean ready = false;
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    @Override
+    public synchronized void beginRebuild() {
+        ready = false;
+        categoryIDByBookID.clear();
+        countByCategoryID.clear();
+    }
+    
+    @Override
+    public synchronized void load(BookListing listing) {
+        if (listing.getCategoryID() != null) {
+            categoryIDByBookID.put(listing.getBookID(), listing.getCategoryID());
+            countByCategoryID.merge(listing.getCategoryID(), 1, Integer::sum);
+        }
+    }
+    
+    @Override
+    public synchronized void finishRebuild() {
+        ready = true;
+    }
+    
+    @Override
+    public synchronized void apply(ListingChange change) {
+        Integer previousCategoryID = categoryIDByBookID.remove(change.getBookID());
+        if (previousCategoryID != null) {
+            countByCategoryID.computeIfPresent(previousCategoryID, (categoryID, count) -> count > 1 ? count - 1 : null);
+        }
+        
+        if (change.isApproved() && change.getCurrent().getCategoryID() != null) {
+            Integer categoryID = change.getCurrent().getCategoryID();
+            categoryIDByBookID.put(change.getBookID(), categoryID);
+            countByCategoryID.merge(categoryID, 1, Integer::sum);
+        }
+    }
+    
+    /**
+     * Số bài đăng đã duyệt thuộc danh mục (0 nếu không có)
+     */
+    public int count(Integer categoryID) {
+        return countByCategoryID.getOrDefault(categoryID, 0);
+    }
+}
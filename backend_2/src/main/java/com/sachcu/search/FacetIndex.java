@@ -0,0 +1,293 @@
+package com.sachcu.search;
+
+import com.sachcu.dto.projection.BookListing;
+import com.sachcu.event.ListingChange;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Component: FacetIndex
+ * Mô tả: Bitmap index trong bộ nhớ cho các bài đăng đã duyệt
+ * 
+ * - Mỗi bài đăng được gán một số thứ tự (ordinal) liên tục, tái sử dụng khi bài bị gỡ
+ * - Mỗi giá trị lọc (tỉnh, quận, danh mục, tình trạng, khoảng giá) có một BitSet
+ *   đánh dấu các ordinal mang giá trị đó
+ * - Lọc = AND các BitSet; đếm facet = cardinality của phép AND
+ */
+@Component
+public class FacetIndex implements ListingIndex {
+    
+    public enum Facet {
+        PROVINCE("province"),
+        DISTRICT("district"),
+        CATEGORY("categoryID"),
+        CONDITION("bookCondition"),
+        PRICE("price");
+        
+        private final String paramName;
+        
+        Facet(String paramName) {
+            this.paramName = paramName;
+        }
+        
+        public String getParamName() {
+            return paramName;
+        }
+    }
+    
+    // Cận dưới của từng khoảng giá (VNĐ)
+    private static final long[] PRICE_BUCKETS = {0, 50_000, 100_000, 200_000, 500_000};
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    private final Map<Integer, Integer> ordinalByPostID = new HashMap<>();
+    private final List<Integer> postIDByOrdinal = new ArrayList<>();
+    private final List<BigDecimal> priceByOrdinal = new ArrayList<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final BitSet all = new BitSet();
+    
+    private final Map<Facet, Map<String, BitSet>> bitmaps = new EnumMap<>(Facet.class);
+    
+    // ordinal -> giá trị facet của bài đăng (để gỡ khỏi bitmap)
+    private final Map<Integer, EnumMap<Facet, String>> valuesByOrdinal = new HashMap<>();
+    
+    private volatile boolean ready = false;
+    
+    public FacetIndex() {
+        for (Facet facet : Facet.values()) {
+            bitmaps.put(facet, new HashMap<>());
+        }
+    }
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    @Override
+    public void beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            ordinalByPostID.clear();
+            postIDByOrdinal.clear();
+            priceByOrdinal.clear();
+            freeOrdinals.clear();
+            all.clear();
+            valuesByOrdinal.clear();
+            bitmaps.values().forEach(Map::clear);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public void load(BookListing listing) {
+        lock.writeLock().lock();
+        try {
+            add(listing);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public void finishRebuild() {
+        ready = true;
+    }
+    
+    @Override
+    public void apply(ListingChange change) {
+        lock.writeLock().lock();
+        try {
+            remove(change.getPostID());
+            if (change.isApproved()) {
+                add(change.getCurrent());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Giữ lại các postID thỏa mãn tất cả bộ lọc và khoảng giá, giữ nguyên thứ tự đầu vào
+     * 
+     * @param minPrice Giá thấp nhất (null = không giới hạn)
+     * @param maxPrice Giá cao nhất (null = không giới hạn)
+     */
+    public List<Integer> filter(List<Integer> postIDs, Map<Facet, String> filters,
+                                BigDecimal minPrice, BigDecimal maxPrice) {
+        lock.readLock().lock();
+        try {
+            BitSet matching = matching(filters, null, minPrice, maxPrice);
+            List<Integer> result = new ArrayList<>();
+            for (Integer postID : postIDs) {
+                Integer ordinal = ordinalByPostID.get(postID);
+                if (ordinal != null && matching.get(ordinal)) {
+                    result.add(postID);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Đếm số kết quả cho từng giá trị của từng facet
+     * Với mỗi facet, áp dụng mọi bộ lọc TRỪ chính facet đó, để client biết
+     * đổi sang giá trị khác sẽ ra bao nhiêu kết quả (khoảng giá thuộc facet PRICE)
+     * 
+     * @param candidatePostIDs Kết quả tìm theo từ khóa (null = mọi bài đã duyệt)
+     * @param filters Bộ lọc đang chọn
+     */
+    public Map<String, Map<String, Integer>> count(Collection<Integer> candidatePostIDs, Map<Facet, String> filters,
+                                                   BigDecimal minPrice, BigDecimal maxPrice) {
+        lock.readLock().lock();
+        try {
+            BitSet candidates = toBitSet(candidatePostIDs);
+            Map<String, Map<String, Integer>> result = new LinkedHashMap<>();
+            
+            for (Facet facet : Facet.values()) {
+                BitSet base = facet == Facet.PRICE
+                        ? matching(filters, facet, null, null)
+                        : matching(filters, facet, minPrice, maxPrice);
+                base.and(candidates);
+                
+                List<Map.Entry<String, Integer>> counts = new ArrayList<>();
+                for (Map.Entry<String, BitSet> value : bitmaps.get(facet).entrySet()) {
+                    BitSet intersection = (BitSet) value.getValue().clone();
+                    intersection.and(base);
+                    int cardinality = intersection.cardinality();
+                    if (cardinality > 0) {
+                        counts.add(Map.entry(value.getKey(), cardinality));
+                    }
+                }
+                counts.sort(Map.Entry.<String, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()));
+                
+                Map<String, Integer> facetCounts = new LinkedHashMap<>();
+                counts.forEach(entry -> facetCounts.put(entry.getKey(), entry.getValue()));
+                result.put(facet.getParamName(), facetCounts);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Khoảng giá của một mức giá, VD: 75000 -> "50000-100000"
+     */
+    public static String priceBucket(BigDecimal price) {
+        long value = price == null ? 0 : price.longValue();
+        for (int i = PRICE_BUCKETS.length - 1; i > 0; i--) {
+            if (value >= PRICE_BUCKETS[i]) {
+                return i == PRICE_BUCKETS.length - 1
+                        ? PRICE_BUCKETS[i] + "+"
+                        : PRICE_BUCKETS[i] + "-" + PRICE_BUCKETS[i + 1];
+            }
+        }
+        return PRICE_BUCKETS[0] + "-" + PRICE_BUCKETS[1];
+    }
+    
+    // ========================================================================
+    // PRIVATE HELPER METHODS
+    // ========================================================================
+    
+    // Các ordinal thỏa mãn mọi bộ lọc (bỏ qua facet "except") và nằm trong khoảng giá
+    private BitSet matching(Map<Facet, String> filters, Facet except, BigDecimal minPrice, BigDecimal maxPrice) {
+        BitSet result = (BitSet) all.clone();
+        for (Map.Entry<Facet, String> filter : filters.entrySet()) {
+            if (filter.getKey() == except) {
+                continue;
+            }
+            BitSet bitmap = bitmaps.get(filter.getKey()).get(filter.getValue());
+            if (bitmap == null) {
+                return new BitSet();
+            }
+            result.and(bitmap);
+        }
+        if (minPrice != null || maxPrice != null) {
+            for (int ordinal = result.nextSetBit(0); ordinal >= 0; ordinal = result.nextSetBit(ordinal + 1)) {
+                BigDecimal price = priceByOrdinal.get(ordinal);
+                boolean inRange = price != null
+                        && (minPrice == null || price.compareTo(minPrice) >= 0)
+                        && (maxPrice == null || price.compareTo(maxPrice) <= 0);
+                if (!inRange) {
+                    result.clear(ordinal);
+                }
+            }
+        }
+        return result;
+    }
+    
+    private BitSet toBitSet(Collection<Integer> postIDs) {
+        if (postIDs == null) {
+            return (BitSet) all.clone();
+        }
+        BitSet result = new BitSet();
+        for (Integer postID : postIDs) {
+            Integer ordinal = ordinalByPostID.get(postID);
+            if (ordinal != null) {
+                result.set(ordinal);
+            }
+        }
+        return result;
+    }
+    
+    private void add(BookListing listing) {
+        int ordinal;
+        if (freeOrdinals.isEmpty()) {
+            ordinal = postIDByOrdinal.size();
+            postIDByOrdinal.add(listing.getPostID());
+            priceByOrdinal.add(listing.getPrice());
+        } else {
+            ordinal = freeOrdinals.pop();
+            postIDByOrdinal.set(ordinal, listing.getPostID());
+            priceByOrdinal.set(ordinal, listing.getPrice());
+        }
+        ordinalByPostID.put(listing.getPostID(), ordinal);
+        all.set(ordinal);
+        
+        EnumMap<Facet, String> values = new EnumMap<>(Facet.class);
+        putValue(values, Facet.PROVINCE, listing.getProvince());
+        putValue(values, Facet.DISTRICT, listing.getDistrict());
+        putValue(values, Facet.CATEGORY, listing.getCategoryID() == null ? null : listing.getCategoryID().toString());
+        putValue(values, Facet.CONDITION, listing.getBookCondition());
+        putValue(values, Facet.PRICE, priceBucket(listing.getPrice()));
+        
+        values.forEach((facet, value) ->
+                bitmaps.get(facet).computeIfAbsent(value, v -> new BitSet()).set(ordinal));
+        valuesByOrdinal.put(ordinal, values);
+    }
+    
+    private void remove(Integer postID) {
+        Integer ordinal = ordinalByPostID.remove(postID);
+        if (ordinal == null) {
+            return;
+        }
+        all.clear(ordinal);
+        postIDByOrdinal.set(ordinal, null);
+        priceByOrdinal.set(ordinal, null);
+        freeOrdinals.push(ordinal);
+        
+        EnumMap<Facet, String> values = valuesByOrdinal.remove(ordinal);
+        values.forEach((facet, value) -> {
+            Map<String, BitSet> facetBitmaps = bitmaps.get(facet);
+            BitSet bitmap = facetBitmaps.get(value);
+            bitmap.clear(ordinal);
+            if (bitmap.isEmpty()) {
+                facetBitmaps.remove(value);
+            }
+        });
+    }
+    
+    private void putValue(EnumMap<Facet, String> values, Facet facet, String value) {
+        if (value != null && !value.isBlank()) {
+            values.put(facet, value);
+        }
+    }
+}
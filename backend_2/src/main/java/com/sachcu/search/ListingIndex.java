@@ -0,0 +1,33 @@
+package com.sachcu.search;
+
+import com.sachcu.dto.projection.BookListing;
+import com.sachcu.event.ListingChange;
+
+/**
+ * Interface: ListingIndex
+ * Mô tả: Cấu trúc dữ liệu trong bộ nhớ được xây từ các bài đăng đã duyệt
+ * ListingIndexCoordinator nạp lại toàn bộ khi khởi động (beginRebuild → load từng dòng → finishRebuild)
+ * và đẩy từng thay đổi sau khi commit
+ */
+public interface ListingIndex {
+    
+    /**
+     * Bắt đầu xây lại: xóa toàn bộ dữ liệu cũ, index chưa sẵn sàng cho đến finishRebuild
+     */
+    void beginRebuild();
+    
+    /**
+     * Thêm một bài đăng APPROVED trong lúc xây lại (đọc dần từ DB, không nạp hết vào RAM)
+     */
+    void load(BookListing listing);
+    
+    /**
+     * Kết thúc xây lại (tính phần tổng hợp nếu có) và đánh dấu sẵn sàng
+     */
+    void finishRebuild();
+    
+    /**
+     * Cập nhật index theo một thay đổi (thêm, sửa hoặc gỡ bài đăng)
+     */
+    void apply(ListingChange change);
+}
@@ -0,0 +1,119 @@
+package com.sachcu.search;
+
+import com.sachcu.dto.projection.BookListing;
+import com.sachcu.entity.Post;
+import com.sachcu.event.ListingChange;
+import com.sachcu.event.ListingChangedEvent;
+import com.sachcu.repository.BookRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Component: ListingIndexCoordinator
+ * Mô tả: Nạp các ListingIndex từ DB khi khởi động (1 câu SQL dùng chung, đọc dần từng lô)
+ * và cập nhật tăng dần khi bài đăng thay đổi (chỉ sau khi transaction commit)
+ * 
+ * Thay đổi commit trong lúc đang nạp được giữ lại và áp dụng sau khi nạp xong:
+ * nếu áp dụng ngay, beginRebuild/ảnh chụp đọc trước đó có thể xóa hoặc ghi đè mất thay đổi.
+ * apply() xóa rồi thêm lại theo trạng thái mới nên áp dụng lại thay đổi đã có trong ảnh chụp vẫn đúng.
+ */
+@Slf4j
+@Component
+public class ListingIndexCoordinator {
+    
+    private final BookRepository bookRepository;
+    private final List<ListingIndex> indexes;
+    private final TransactionTemplate readOnlyTransaction;
+    
+    // Chỉ đọc/ghi khi giữ monitor của pending
+    private final List<ListingChange> pending = new ArrayList<>();
+    private boolean rebuilding = false;
+    
+    public ListingIndexCoordinator(BookRepository bookRepository,
+                                   List<ListingIndex> indexes,
+                                   PlatformTransactionManager transactionManager) {
+        this.bookRepository = bookRepository;
+        this.indexes = indexes;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildAll() {
+        long start = System.currentTimeMillis();
+        synchronized (pending) {
+            rebuilding = true;
+        }
+        
+        long loaded;
+        try {
+            indexes.forEach(ListingIndex::beginRebuild);
+            loaded = readOnlyTransaction.execute(status -> {
+                long count = 0;
+                try (Stream<BookListing> approved = bookRepository.streamListingsByStatus(Post.PostStatus.APPROVED)) {
+                    Iterator<BookListing> iterator = approved.iterator();
+                    while (iterator.hasNext()) {
+                        BookListing listing = iterator.next();
+                        for (ListingIndex index : indexes) {
+                            index.load(listing);
+                        }
+                        count++;
+                    }
+                }
+                return count;
+            });
+        } finally {
+            synchronized (pending) {
+                indexes.forEach(ListingIndex::finishRebuild);
+                int replayed = pending.size();
+                pending.forEach(this::applyToIndexes);
+                pending.clear();
+                rebuilding = false;
+                if (replayed > 0) {
+                    log.info("Áp dụng lại {} thay đổi commit trong lúc nạp index", replayed);
+                }
+            }
+        }
+        
+        log.info("Đã nạp {} bài đăng vào {} index trong {} ms",
+                loaded, indexes.size(), System.currentTimeMillis() - start);
+    }
+    
+    // Chạy trước các listener khác (version/cache) để không ai đọc được index cũ với version mới
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onListingChanged(ListingChangedEvent event) {
+        synchronized (pending) {
+            if (rebuilding) {
+                pending.addAll(event.getChanges());
+                return;
+            }
+            event.getChanges().forEach(this::applyToIndexes);
+        }
+    }
+    
+    private void applyToIndexes(ListingChange change) {
+        for (ListingIndex index : indexes) {
+            try {
+                index.apply(change);
+            } catch (Exception e) {
+                // Một index lỗi không được làm hỏng các index khác
+                log.error("Không thể cập nhật {} cho bài đăng {}: {}",
+                        index.getClass().getSimpleName(), change.getPostID(), e.getMessage());
+            }
+        }
+    }
+}
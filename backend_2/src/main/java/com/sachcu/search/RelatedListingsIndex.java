@@ -0,0 +1,190 @@
+package com.sachcu.search;
+
+import com.sachcu.dto.projection.BookListing;
+import com.sachcu.event.ListingChange;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Component: RelatedListingsIndex
+ * Mô tả: Danh sách bài đăng đã duyệt theo thứ tự mới nhất, nhóm theo tác giả, danh mục, tỉnh
+ * Dùng cho khối "sách liên quan" ở trang chi tiết sách, không cần truy vấn DB mỗi lượt xem
+ * 
+ * - Mỗi nhóm là một TreeSet sắp theo (ngày đăng, postID) giảm dần
+ * - Lấy K sách liên quan = duyệt K phần tử đầu của từng nhóm, không phụ thuộc số lượng sách
+ * - Tác giả được so khớp không dấu, không phân biệt hoa thường
+ */
+@Component
+public class RelatedListingsIndex implements ListingIndex {
+    
+    // Thứ tự ưu tiên khi một sách khớp nhiều nhóm: chỉ hiện ở nhóm đầu tiên
+    public enum Relation {
+        AUTHOR,
+        CATEGORY,
+        PROVINCE
+    }
+    
+    private record Entry(int postID, int bookID, LocalDateTime createdAt) {
+    }
+    
+    private static final Comparator<Entry> NEWEST_FIRST = Comparator
+            .comparing(Entry::createdAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Entry::postID, Comparator.reverseOrder());
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    private final Map<Relation, Map<String, NavigableSet<Entry>>> groups = new EnumMap<>(Relation.class);
+    
+    // postID -> entry và khóa nhóm của bài đăng (để gỡ khi bài đổi trạng thái)
+    private final Map<Integer, Entry> entryByPostID = new HashMap<>();
+    private final Map<Integer, EnumMap<Relation, String>> keysByPostID = new HashMap<>();
+    private final Map<Integer, Integer> postIDByBookID = new HashMap<>();
+    
+    private volatile boolean ready = false;
+    
+    public RelatedListingsIndex() {
+        for (Relation relation : Relation.values()) {
+            groups.put(relation, new HashMap<>());
+        }
+    }
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    @Override
+    public void beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            entryByPostID.clear();
+            keysByPostID.clear();
+            postIDByBookID.clear();
+            groups.values().forEach(Map::clear);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public void load(BookListing listing) {
+        lock.writeLock().lock();
+        try {
+            add(listing);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public void finishRebuild() {
+        ready = true;
+    }
+    
+    @Override
+    public void apply(ListingChange change) {
+        lock.writeLock().lock();
+        try {
+            remove(change.getPostID());
+            if (change.isApproved()) {
+                add(change.getCurrent());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Lấy bookID của các sách liên quan, mới nhất trước
+     * Không gồm chính sách đó, mỗi sách chỉ xuất hiện ở một nhóm (theo thứ tự Relation)
+     * 
+     * @param bookID Sách đang xem
+     * @param limit Số sách tối đa mỗi nhóm
+     * @return null nếu sách chưa được duyệt hoặc không tồn tại
+     */
+    public Map<Relation, List<Integer>> related(Integer bookID, int limit) {
+        lock.readLock().lock();
+        try {
+            Integer postID = postIDByBookID.get(bookID);
+            if (postID == null) {
+                return null;
+            }
+            
+            Set<Integer> seen = new HashSet<>();
+            seen.add(bookID);
+            
+            Map<Relation, List<Integer>> result = new EnumMap<>(Relation.class);
+            EnumMap<Relation, String> keys = keysByPostID.get(postID);
+            for (Relation relation : Relation.values()) {
+                List<Integer> bookIDs = new ArrayList<>(limit);
+                NavigableSet<Entry> group = keys.containsKey(relation)
+                        ? groups.get(relation).get(keys.get(relation))
+                        : null;
+                if (group != null) {
+                    for (Entry entry : group) {
+                        if (bookIDs.size() >= limit) {
+                            break;
+                        }
+                        if (seen.add(entry.bookID())) {
+                            bookIDs.add(entry.bookID());
+                        }
+                    }
+                }
+                result.put(relation, bookIDs);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    // ========================================================================
+    // PRIVATE HELPER METHODS
+    // ========================================================================
+    
+    private void add(BookListing listing) {
+        Entry entry = new Entry(listing.getPostID(), listing.getBookID(), listing.getPostCreatedAt());
+        EnumMap<Relation, String> keys = keysOf(listing);
+        
+        entryByPostID.put(entry.postID(), entry);
+        keysByPostID.put(entry.postID(), keys);
+        postIDByBookID.put(entry.bookID(), entry.postID());
+        keys.forEach((relation, key) ->
+                groups.get(relation).computeIfAbsent(key, k -> new TreeSet<>(NEWEST_FIRST)).add(entry));
+    }
+    
+    private void remove(Integer postID) {
+        Entry entry = entryByPostID.remove(postID);
+        if (entry == null) {
+            return;
+        }
+        postIDByBookID.remove(entry.bookID(), postID);
+        keysByPostID.remove(postID).forEach((relation, key) -> {
+            NavigableSet<Entry> group = groups.get(relation).get(key);
+            if (group != null) {
+                group.remove(entry);
+                if (group.isEmpty()) {
+                    groups.get(relation).remove(key);
+                }
+            }
+        });
+    }
+    
+    private EnumMap<Relation, String> keysOf(BookListing listing) {
+        EnumMap<Relation, String> keys = new EnumMap<>(Relation.class);
+        String author = VietnameseTextNormalizer.fold(listing.getAuthor()).trim();
+        if (!author.isEmpty()) {
+            keys.put(Relation.AUTHOR, author);
+        }
+        if (listing.getCategoryID() != null) {
+            keys.put(Relation.CATEGORY, listing.getCategoryID().toString());
+        }
+        if (listing.getProvince() != null && !listing.getProvince().isBlank()) {
+            keys.put(Relation.PROVINCE, listing.getProvince());
+        }
+        return keys;
+    }
+}
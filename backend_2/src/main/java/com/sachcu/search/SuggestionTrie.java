@@ -0,0 +1,369 @@
+package com.sachcu.search;
+
+import com.sachcu.dto.projection.BookListing;
+import com.sachcu.dto.response.SuggestionResponse;
+import com.sachcu.event.ListingChange;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Component: SuggestionTrie
+ * Mô tả: Prefix trie (không dấu) trên tiêu đề và tác giả của các bài đăng đã duyệt
+ * Phục vụ GET /books/suggest mà không truy vấn DB
+ * 
+ * - Mỗi gợi ý được gắn vào trie theo toàn bộ chuỗi và theo từng hậu tố bắt đầu
+ *   từ một từ ("nha gia kim", "gia kim", "kim") để gõ giữa tên vẫn ra
+ * - Mỗi node lưu sẵn top-K gợi ý của cả nhánh con, nên truy vấn chỉ là
+ *   đi theo tiền tố rồi đọc danh sách có sẵn
+ * - Trọng số = thời điểm đăng gần nhất trong các bài đăng có cùng gợi ý
+ */
+@Component
+public class SuggestionTrie implements ListingIndex {
+    
+    public static final int MAX_SUGGESTIONS = 10;
+    // Tiền tố dài hơn giới hạn được cắt bớt khi tra cứu; đủ phân biệt gợi ý khi gõ
+    private static final int MAX_KEY_LENGTH = 24;
+    
+    public enum Type {
+        TITLE, AUTHOR
+    }
+    
+    private static final Comparator<Suggestion> BY_WEIGHT = Comparator
+            .comparingLong((Suggestion suggestion) -> suggestion.weight).reversed()
+            .thenComparing(suggestion -> suggestion.display);
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Node root = new Node();
+    
+    // type + chuỗi không dấu -> gợi ý
+    private final Map<String, Suggestion> suggestions = new HashMap<>();
+    
+    // postID -> các gợi ý mà bài đăng đóng góp
+    private final Map<Integer, List<Suggestion>> suggestionsByPost = new HashMap<>();
+    
+    /**
+     * Lấy gợi ý theo tiền tố (không phân biệt dấu, hoa thường)
+     */
+    public List<SuggestionResponse> suggest(String prefix, int limit) {
+        String key = normalizeKey(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        int size = Math.min(Math.max(limit, 1), MAX_SUGGESTIONS);
+        
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.child(key.charAt(i));
+            }
+            if (node == null) {
+                return List.of();
+            }
+            
+            List<SuggestionResponse> result = new ArrayList<>(Math.min(size, node.top.size()));
+            for (Suggestion suggestion : node.top) {
+                if (result.size() == size) {
+                    break;
+                }
+                result.add(new SuggestionResponse(suggestion.display, suggestion.type.name()));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @Override
+    public void beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            root = new Node();
+            suggestions.clear();
+            suggestionsByPost.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Chỉ gắn gợi ý vào node cuối; top-K của các nhánh được tính một lần ở finishRebuild
+     */
+    @Override
+    public void load(BookListing listing) {
+        lock.writeLock().lock();
+        try {
+            for (Suggestion suggestion : attachPost(listing)) {
+                if (suggestion.posts.size() == 1) {
+                    for (String key : suggestion.keys) {
+                        List<Node> path = pathTo(key, true);
+                        path.get(path.size() - 1).addTerminal(suggestion);
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public void finishRebuild() {
+        lock.writeLock().lock();
+        try {
+            recomputeSubtree(root);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public void apply(ListingChange change) {
+        lock.writeLock().lock();
+        try {
+            detachPost(change.getPostID());
+            if (change.isApproved()) {
+                for (Suggestion suggestion : attachPost(change.getCurrent())) {
+                    refresh(suggestion);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    // ========================================================================
+    // PRIVATE HELPER METHODS
+    // ========================================================================
+    
+    // Trie có thể tới hàng triệu node nên node chỉ giữ mảng nhỏ thay cho HashMap
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final char[] NO_LABELS = new char[0];
+    
+    private static final class Node {
+        char[] labels = NO_LABELS;
+        Node[] children = NO_CHILDREN;
+        List<Suggestion> terminals = List.of();
+        List<Suggestion> top = List.of();
+        
+        Node child(char c) {
+            for (int i = 0; i < labels.length; i++) {
+                if (labels[i] == c) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+        
+        Node addChild(char c) {
+            Node child = new Node();
+            labels = Arrays.copyOf(labels, labels.length + 1);
+            children = Arrays.copyOf(children, children.length + 1);
+            labels[labels.length - 1] = c;
+            children[children.length - 1] = child;
+            return child;
+        }
+        
+        void removeChild(char c) {
+            for (int i = 0; i < labels.length; i++) {
+                if (labels[i] == c) {
+                    int last = labels.length - 1;
+                    labels[i] = labels[last];
+                    children[i] = children[last];
+                    labels = Arrays.copyOf(labels, last);
+                    children = Arrays.copyOf(children, last);
+                    return;
+                }
+            }
+        }
+        
+        void addTerminal(Suggestion suggestion) {
+            if (terminals.isEmpty()) {
+                terminals = new ArrayList<>(1);
+            }
+            if (!terminals.contains(suggestion)) {
+                terminals.add(suggestion);
+            }
+        }
+        
+        void removeTerminal(Suggestion suggestion) {
+            if (!terminals.isEmpty()) {
+                terminals.remove(suggestion);
+            }
+        }
+    }
+    
+    private static final class Suggestion {
+        final Type type;
+        final String id;
+        final List<String> keys;
+        final Map<Integer, Long> posts = new HashMap<>();
+        String display;
+        long weight;
+        
+        Suggestion(Type type, String id, List<String> keys) {
+            this.type = type;
+            this.id = id;
+            this.keys = keys;
+        }
+        
+        void recomputeWeight() {
+            weight = posts.values().stream().mapToLong(Long::longValue).max().orElse(0L);
+        }
+    }
+    
+    /**
+     * Gắn bài đăng vào gợi ý title/author tương ứng (tạo mới nếu chưa có)
+     * @return các gợi ý bị ảnh hưởng
+     */
+    private List<Suggestion> attachPost(BookListing listing) {
+        long weight = listing.getPostCreatedAt() == null
+                ? 0L : listing.getPostCreatedAt().toEpochSecond(ZoneOffset.UTC);
+        
+        List<Suggestion> touched = new ArrayList<>(2);
+        addSuggestion(touched, Type.TITLE, listing.getTitle(), listing.getPostID(), weight);
+        addSuggestion(touched, Type.AUTHOR, listing.getAuthor(), listing.getPostID(), weight);
+        
+        suggestionsByPost.put(listing.getPostID(), touched);
+        return touched;
+    }
+    
+    private void addSuggestion(List<Suggestion> touched, Type type, String text, Integer postID, long weight) {
+        List<String> tokens = VietnameseTextNormalizer.tokenize(text);
+        if (tokens.isEmpty()) {
+            return;
+        }
+        
+        String id = type + ":" + String.join(" ", tokens);
+        Suggestion suggestion = suggestions.computeIfAbsent(id, key -> new Suggestion(type, key, keysOf(tokens)));
+        suggestion.posts.put(postID, weight);
+        if (suggestion.display == null || weight >= suggestion.weight) {
+            // Hiển thị cách viết của bài đăng mới nhất
+            suggestion.display = text.trim();
+        }
+        suggestion.recomputeWeight();
+        touched.add(suggestion);
+    }
+    
+    private void detachPost(Integer postID) {
+        List<Suggestion> attached = suggestionsByPost.remove(postID);
+        if (attached == null) {
+            return;
+        }
+        for (Suggestion suggestion : attached) {
+            suggestion.posts.remove(postID);
+            suggestion.recomputeWeight();
+            if (suggestion.posts.isEmpty()) {
+                suggestions.remove(suggestion.id);
+            }
+            refresh(suggestion);
+        }
+    }
+    
+    /**
+     * Cập nhật trie sau khi gợi ý được thêm, đổi trọng số hoặc bị xóa:
+     * tính lại top-K trên các node dọc đường đi của từng key, từ dưới lên
+     */
+    private void refresh(Suggestion suggestion) {
+        boolean alive = !suggestion.posts.isEmpty();
+        
+        for (String key : suggestion.keys) {
+            List<Node> path = pathTo(key, alive);
+            if (path.size() != key.length() + 1) {
+                continue; // Key không còn trong trie
+            }
+            
+            Node leaf = path.get(path.size() - 1);
+            if (alive) {
+                leaf.addTerminal(suggestion);
+            } else {
+                leaf.removeTerminal(suggestion);
+            }
+            
+            for (int depth = key.length(); depth >= 0; depth--) {
+                Node node = path.get(depth);
+                recomputeTop(node);
+                if (depth > 0 && node.top.isEmpty() && node.children.length == 0) {
+                    path.get(depth - 1).removeChild(key.charAt(depth - 1));
+                }
+            }
+        }
+    }
+    
+    /**
+     * Danh sách node từ root theo key (create = true thì tạo node còn thiếu)
+     */
+    private List<Node> pathTo(String key, boolean create) {
+        List<Node> path = new ArrayList<>(key.length() + 1);
+        Node node = root;
+        path.add(node);
+        for (int i = 0; i < key.length(); i++) {
+            Node child = node.child(key.charAt(i));
+            if (child == null) {
+                if (!create) {
+                    break;
+                }
+                child = node.addChild(key.charAt(i));
+            }
+            node = child;
+            path.add(node);
+        }
+        return path;
+    }
+    
+    private void recomputeSubtree(Node node) {
+        for (Node child : node.children) {
+            recomputeSubtree(child);
+        }
+        recomputeTop(node);
+    }
+    
+    // top-K của node = top-K của (gợi ý kết thúc tại node ∪ top-K các node con)
+    private void recomputeTop(Node node) {
+        // Node nằm giữa chuỗi (1 nhánh con, không có gợi ý kết thúc) dùng chung top của con
+        if (node.terminals.isEmpty() && node.children.length == 1) {
+            node.top = node.children[0].top;
+            return;
+        }
+        if (node.children.length == 0 && node.terminals.size() == 1) {
+            node.top = List.copyOf(node.terminals);
+            return;
+        }
+        
+        List<Suggestion> candidates = new ArrayList<>(node.terminals);
+        for (Node child : node.children) {
+            candidates.addAll(child.top);
+        }
+        candidates.sort(BY_WEIGHT);
+        
+        // Một gợi ý có thể đến từ nhiều nhánh (nhiều hậu tố) nên phải bỏ trùng
+        List<Suggestion> top = new ArrayList<>(Math.min(candidates.size(), MAX_SUGGESTIONS));
+        for (Suggestion candidate : candidates) {
+            if (top.size() == MAX_SUGGESTIONS) {
+                break;
+            }
+            if (!top.contains(candidate)) {
+                top.add(candidate);
+            }
+        }
+        node.top = List.copyOf(top);
+    }
+    
+    private List<String> keysOf(List<String> tokens) {
+        List<String> keys = new ArrayList<>(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            String key = String.join(" ", tokens.subList(i, tokens.size()));
+            keys.add(key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key);
+        }
+        return keys;
+    }
+    
+    private String normalizeKey(String prefix) {
+        // Giữ khoảng trắng cuối để "nam " không khớp "nama"
+        String folded = VietnameseTextNormalizer.fold(prefix).replaceAll("[^a-z0-9]+", " ");
+        String key = folded.stripLeading();
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+}
@@ -0,0 +1,47 @@
+package com.sachcu.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Utility: VietnameseTextNormalizer
+ * Mô tả: Chuẩn hóa văn bản tiếng Việt để tìm kiếm không dấu
+ * VD: "Sách Cũ Đẹp" -> "sach cu dep" -> [sach, cu, dep]
+ */
+public final class VietnameseTextNormalizer {
+    
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^a-z0-9]+");
+    
+    private VietnameseTextNormalizer() {
+    }
+    
+    /**
+     * Bỏ dấu và chuyển về chữ thường (giữ nguyên khoảng trắng/ký tự khác)
+     */
+    public static String fold(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        // "đ" không tách được bằng NFD nên phải thay thủ công
+        String replaced = text.replace('đ', 'd').replace('Đ', 'D');
+        String decomposed = Normalizer.normalize(replaced, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * Bỏ dấu và tách thành các từ (âm tiết)
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_ALPHANUMERIC.split(fold(text))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
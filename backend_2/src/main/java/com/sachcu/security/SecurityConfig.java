@@ -1,5 +1,6 @@
 package com.sachcu.security;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -31,12 +32,17 @@ public class SecurityConfig {
 
             .authorizeHttpRequests(auth -> auth
 
+                // Response streaming (StreamingResponseBody) kết thúc bằng một ASYNC dispatch không mang JWT;
+                // request gốc đã được kiểm tra quyền ở lần dispatch đầu
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                 // ===================== PUBLIC APIs =====================
                 .requestMatchers(
                         "/",
                         "/auth/**",              // register, login, admin login
                         "/books/**",             // books, search, province
                         "/categories/**",        // get all categories
+                        "/locations/**",         // tỉnh/thành
                         "/posts/*",              // xem chi tiết bài đăng (public)
                         "/images/**",            // xem ảnh
                         "/swagger-ui/**",
@@ -0,0 +1,241 @@
+package com.sachcu.service;
+
+import com.sachcu.dto.request.BulkStatusRequest;
+import com.sachcu.dto.response.BulkStatusResponse;
+import com.sachcu.entity.Post;
+import com.sachcu.entity.User;
+import com.sachcu.event.ListingChange;
+import com.sachcu.event.ListingChangedEvent;
+import com.sachcu.repository.BookRepository;
+import com.sachcu.repository.PostRepository;
+import com.sachcu.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Service: AdminBulkService
+ * Mô tả: Đổi trạng thái hàng loạt bài đăng / User (VD: dọn một đợt spam)
+ * 
+ * - Chia thành lô admin.bulk.chunk-size ID, mỗi lô một transaction:
+ *   khóa các dòng (SELECT ... FOR UPDATE) để biết trạng thái cũ, rồi MỘT câu UPDATE ... WHERE id IN (...)
+ * - Bài đăng: mỗi lô phát MỘT ListingChangedEvent (index tìm kiếm, cache danh sách)
+ * - User: trạng thái User không nằm trong dữ liệu danh sách nên không phát event
+ * - Lô lỗi được rollback riêng (các ID trong lô nhận FAILED), các lô khác vẫn giữ kết quả
+ */
+@Slf4j
+@Service
+public class AdminBulkService {
+    
+    public static final String UPDATED = "UPDATED";
+    public static final String UNCHANGED = "UNCHANGED";
+    public static final String NOT_FOUND = "NOT_FOUND";
+    public static final String FAILED = "FAILED";
+    
+    private final PostRepository postRepository;
+    private final UserRepository userRepository;
+    private final BookRepository bookRepository;
+    private final PostArchiveService postArchiveService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    
+    private final int chunkSize;
+    private final int maxIds;
+    
+    public AdminBulkService(PostRepository postRepository,
+                            UserRepository userRepository,
+                            BookRepository bookRepository,
+                            PostArchiveService postArchiveService,
+                            ApplicationEventPublisher eventPublisher,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${admin.bulk.chunk-size:200}") int chunkSize,
+                            @Value("${admin.bulk.max-ids:5000}") int maxIds) {
+        this.postRepository = postRepository;
+        this.userRepository = userRepository;
+        this.bookRepository = bookRepository;
+        this.postArchiveService = postArchiveService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxIds = maxIds;
+    }
+    
+    /**
+     * Duyệt / từ chối bài đăng hàng loạt
+     * Bài đã lưu trữ không nằm trong bảng posts nên trả về NOT_FOUND
+     */
+    public BulkStatusResponse updatePostStatuses(BulkStatusRequest request) {
+        Post.PostStatus to = parseStatus(request.getStatus(), Post.PostStatus.class);
+        if (to != Post.PostStatus.APPROVED && to != Post.PostStatus.DECLINED) {
+            throw new RuntimeException("Chỉ hỗ trợ duyệt (APPROVED) hoặc từ chối (DECLINED) hàng loạt");
+        }
+        
+        BulkStatusResponse response = new BulkStatusResponse();
+        response.setStatus(to.name());
+        BulkStatusRequest.Filter filter = request.getFilter();
+        Post.PostStatus from = filter != null ? parseStatus(filter.getStatus(), Post.PostStatus.class) : null;
+        
+        process(request, response,
+                (afterID, limit) -> postRepository.findIdsByFilter(from, filter.getUserID(), filter.getCreatedAfter(),
+                        afterID, PageRequest.of(0, limit)),
+                chunk -> transactionTemplate.execute(status -> updatePostChunk(chunk, to)));
+        return response;
+    }
+    
+    /**
+     * Đổi trạng thái User hàng loạt (VD: BANNED các tài khoản spam)
+     */
+    public BulkStatusResponse updateUserStatuses(BulkStatusRequest request) {
+        User.UserStatus to = parseStatus(request.getStatus(), User.UserStatus.class);
+        if (to == null) {
+            throw new RuntimeException("Trạng thái không được để trống");
+        }
+        
+        BulkStatusResponse response = new BulkStatusResponse();
+        response.setStatus(to.name());
+        BulkStatusRequest.Filter filter = request.getFilter();
+        User.UserStatus from = filter != null ? parseStatus(filter.getStatus(), User.UserStatus.class) : null;
+        
+        process(request, response,
+                (afterID, limit) -> userRepository.findIdsByFilter(from, filter.getCreatedAfter(),
+                        afterID, PageRequest.of(0, limit)),
+                chunk -> transactionTemplate.execute(status -> updateUserChunk(chunk, to)));
+        return response;
+    }
+    
+    // ========================================================================
+    // PRIVATE HELPER METHODS
+    // ========================================================================
+    
+    /**
+     * Chạy từng lô: theo danh sách ids (bỏ trùng), hoặc theo filter (keyset theo ID)
+     * Filter khớp quá admin.bulk.max-ids thì dừng ở max-ids và đánh dấu truncated (gọi lại để xử lý tiếp)
+     */
+    private void process(BulkStatusRequest request, BulkStatusResponse response,
+                         BiFunction<Integer, Integer, List<Integer>> nextFilteredChunk,
+                         Function<List<Integer>, List<BulkStatusResponse.ItemResult>> updateChunk) {
+        if (request.getIds() != null && !request.getIds().isEmpty()) {
+            List<Integer> ids = request.getIds().stream().distinct().toList();
+            if (ids.size() > maxIds) {
+                throw new RuntimeException("Tối đa " + maxIds + " ID mỗi lần gọi");
+            }
+            response.setMatched(ids.size());
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                runChunk(ids.subList(from, Math.min(from + chunkSize, ids.size())), updateChunk, response);
+            }
+            return;
+        }
+        if (request.getFilter() == null) {
+            throw new RuntimeException("Cần danh sách ids hoặc filter");
+        }
+        
+        int afterID = 0;
+        while (true) {
+            int remaining = maxIds - response.getMatched();
+            if (remaining <= 0) {
+                response.setTruncated(!nextFilteredChunk.apply(afterID, 1).isEmpty());
+                return;
+            }
+            List<Integer> chunk = nextFilteredChunk.apply(afterID, Math.min(chunkSize, remaining));
+            if (chunk.isEmpty()) {
+                return;
+            }
+            response.setMatched(response.getMatched() + chunk.size());
+            runChunk(chunk, updateChunk, response);
+            afterID = chunk.get(chunk.size() - 1);
+        }
+    }
+    
+    private void runChunk(List<Integer> chunk,
+                          Function<List<Integer>, List<BulkStatusResponse.ItemResult>> updateChunk,
+                          BulkStatusResponse response) {
+        try {
+            List<BulkStatusResponse.ItemResult> results = updateChunk.apply(chunk);
+            response.getResults().addAll(results);
+            response.setUpdated(response.getUpdated()
+                    + (int) results.stream().filter(result -> UPDATED.equals(result.getOutcome())).count());
+        } catch (Exception e) {
+            log.error("Lỗi khi đổi trạng thái lô {} ID (từ ID {}): {}", chunk.size(), chunk.get(0), e.getMessage());
+            chunk.forEach(id -> response.getResults().add(new BulkStatusResponse.ItemResult(id, FAILED)));
+        }
+    }
+    
+    private List<BulkStatusResponse.ItemResult> updatePostChunk(List<Integer> postIDs, Post.PostStatus to) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Integer, Post.PostStatus> previous = new HashMap<>();
+        postRepository.lockAllById(postIDs).forEach(post -> previous.put(post.getPostID(), post.getStatus()));
+        
+        List<BulkStatusResponse.ItemResult> results = compare(postIDs, previous, to);
+        List<Integer> changed = updatedIds(results);
+        if (changed.isEmpty()) {
+            return results;
+        }
+        postRepository.bulkUpdateStatus(changed, to, now,
+                to == Post.PostStatus.APPROVED ? postArchiveService.expiresAt(now) : null);
+        
+        // Một event cho cả lô: index/cache xử lý tất cả thay đổi cùng lúc
+        List<ListingChange> changes = bookRepository.findListingsByPostIds(to, changed).stream()
+                .map(listing -> new ListingChange(listing.getPostID(), listing.getBookID(),
+                        previous.get(listing.getPostID()), listing))
+                .toList();
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(new ListingChangedEvent(changes));
+        }
+        return results;
+    }
+    
+    private List<BulkStatusResponse.ItemResult> updateUserChunk(List<Integer> userIDs, User.UserStatus to) {
+        Map<Integer, User.UserStatus> previous = new HashMap<>();
+        userRepository.lockAllById(userIDs).forEach(user -> previous.put(user.getUserID(), user.getStatus()));
+        
+        List<BulkStatusResponse.ItemResult> results = compare(userIDs, previous, to);
+        List<Integer> changed = updatedIds(results);
+        if (!changed.isEmpty()) {
+            userRepository.bulkUpdateStatus(changed, to);
+        }
+        return results;
+    }
+    
+    /**
+     * Kết quả từng ID so với trạng thái hiện tại (chưa tồn tại → NOT_FOUND, đã ở trạng thái đích → UNCHANGED)
+     */
+    private static <S> List<BulkStatusResponse.ItemResult> compare(List<Integer> ids, Map<Integer, S> previous, S to) {
+        List<BulkStatusResponse.ItemResult> results = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            S current = previous.get(id);
+            results.add(new BulkStatusResponse.ItemResult(id,
+                    current == null ? NOT_FOUND : current == to ? UNCHANGED : UPDATED));
+        }
+        return results;
+    }
+    
+    private static List<Integer> updatedIds(List<BulkStatusResponse.ItemResult> results) {
+        return results.stream()
+                .filter(result -> UPDATED.equals(result.getOutcome()))
+                .map(BulkStatusResponse.ItemResult::getId)
+                .toList();
+    }
+    
+    private static <E extends Enum<E>> E parseStatus(String status, Class<E> type) {
+        if (status == null || status.isBlank()) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, status.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Trạng thái không hợp lệ: " + status);
+        }
+    }
+}
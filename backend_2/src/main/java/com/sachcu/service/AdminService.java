@@ -5,16 +5,24 @@ import com.sachcu.dto.response.UserResponse;
 import com.sachcu.entity.Post;
 import com.sachcu.entity.Report;
 import com.sachcu.entity.User;
+import com.sachcu.event.ListingChange;
+import com.sachcu.event.ListingChangedEvent;
+import com.sachcu.exception.PreconditionFailedException;
 import com.sachcu.exception.ResourceNotFoundException;
+import com.sachcu.repository.PostArchiveRepository;
 import com.sachcu.repository.PostRepository;
 import com.sachcu.repository.ReportRepository;
 import com.sachcu.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service: AdminService
@@ -35,72 +43,96 @@ public class AdminService {
     private final PostRepository postRepository;
     private final UserRepository userRepository;
     private final ReportRepository reportRepository;
+    private final BookListingMapper bookListingMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JsonStreamingService jsonStreamingService;
+    private final FileDeletionOutboxService fileDeletionOutboxService;
+    private final PostArchiveRepository postArchiveRepository;
+    private final PostArchiveService postArchiveService;
     
     /**
      * Lấy tất cả bài đăng (Admin)
+     * Ghi thẳng từng dòng ra response, không dựng cả List trong bộ nhớ
+     * Bài đã lưu trữ được ghi tiếp sau bài trong bảng chính (archived = true)
      */
-    public List<PostResponse> getAllPosts() {
-        return postRepository.findAll().stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+    public StreamingResponseBody streamAllPosts(ResponseFormat format) {
+        // Stream archive chỉ được mở khi đã đọc hết bảng chính (flatMap), và được đóng cùng stream ngoài
+        return jsonStreamingService.stream(() -> Stream.concat(
+                postRepository.streamAllWithBook().map(this::convertToResponse),
+                Stream.of(postArchiveRepository).flatMap(PostArchiveRepository::streamAll).map(this::convertToResponse)),
+                response -> response, format);
     }
     
     /**
-     * Lấy bài đăng theo trạng thái (Admin)
+     * Lấy bài đăng theo trạng thái (Admin), gồm cả bài đã lưu trữ
      */
     public List<PostResponse> getPostsByStatus(Post.PostStatus status) {
-        return postRepository.findByStatus(status).stream()
-                .map(this::convertToResponse)
+        return Stream.concat(
+                postRepository.findByStatus(status).stream().map(this::convertToResponse),
+                postArchiveRepository.findListingsByStatus(status).stream().map(this::convertToResponse))
                 .collect(Collectors.toList());
     }
     
     /**
      * Duyệt hoặc từ chối bài đăng (Admin)
+     * 
+     * @param expectedVersion Phiên bản Admin đang xem (từ If-Match), null = bỏ qua kiểm tra
      */
     @Transactional
-    public PostResponse updatePostStatus(Integer postID, String status) {
-        Post post = postRepository.findById(postID)
-                .orElseThrow(() -> new ResourceNotFoundException("Bài đăng không tồn tại"));
-        
+    public PostResponse updatePostStatus(Integer postID, String status, Integer expectedVersion) {
+        Post.PostStatus newStatus;
         try {
-            Post.PostStatus newStatus = Post.PostStatus.valueOf(status.toUpperCase());
-            post.setStatus(newStatus);
-            Post updatedPost = postRepository.save(post);
-            return convertToResponse(updatedPost);
+            newStatus = Post.PostStatus.valueOf(status.toUpperCase());
         } catch (IllegalArgumentException e) {
             throw new RuntimeException("Trạng thái không hợp lệ: " + status);
         }
+        
+        Post post = postRepository.findById(postID)
+                .orElseThrow(() -> new ResourceNotFoundException("Bài đăng không tồn tại"));
+        
+        // Người bán vừa sửa bài (hoặc Admin khác vừa duyệt) → Admin phải xem lại trước khi duyệt
+        if (expectedVersion != null && !expectedVersion.equals(post.getVersion())) {
+            throw new PreconditionFailedException();
+        }
+        
+        Post.PostStatus previousStatus = post.getStatus();
+        post.setStatus(newStatus);
+        if (newStatus == Post.PostStatus.APPROVED) {
+            // Hạn hiển thị tính lại mỗi lần duyệt (kể cả duyệt lại bài đã hết hạn)
+            post.setExpiresAt(postArchiveService.expiresAt(LocalDateTime.now()));
+        }
+        Post updatedPost = postRepository.saveAndFlush(post);
+        eventPublisher.publishEvent(ListingChangedEvent.of(new ListingChange(
+                postID, post.getBook().getBookID(), previousStatus, bookListingMapper.fromPost(updatedPost))));
+        return convertToResponse(updatedPost);
     }
     
     /**
      * Lấy danh sách tất cả User (Admin)
+     * Ghi thẳng từng dòng ra response, không dựng cả List trong bộ nhớ
      */
-    public List<UserResponse> getAllUsers() {
-    List<User> users = userRepository.findAll();
-
-    return users.stream()
-            .map(user -> new UserResponse(
-                    user.getUserID(),
-                    user.getName(),
-                    user.getEmail(),
-                    user.getPhone(),
-                    user.getProvince(),
-                    user.getDistrict(),
-                    user.getWard(),
-                    user.getStatus().name(),
-                    user.getCreatedAt()
-            ))
-            .toList();
+    public StreamingResponseBody streamAllUsers(ResponseFormat format) {
+        return jsonStreamingService.stream(userRepository::streamAll, user -> new UserResponse(
+                user.getUserID(),
+                user.getName(),
+                user.getEmail(),
+                user.getPhone(),
+                user.getProvince(),
+                user.getDistrict(),
+                user.getWard(),
+                user.getStatus().name(),
+                user.getCreatedAt()
+        ), format);
     }
-
-
+    
+    
     /**
      * Lấy thông tin User theo ID (Admin)
      */
     public UserResponse getUserById(Integer id) {
     User user = userRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("User không tồn tại"));
-
+    
     return new UserResponse(
             user.getUserID(),
             user.getName(),
@@ -113,9 +145,9 @@ public class AdminService {
             user.getCreatedAt()
         );
     }
-
-
-
+    
+    
+    
     
     /**
      * Cập nhật trạng thái User (Admin)
@@ -124,11 +156,11 @@ public class AdminService {
     public UserResponse updateUserStatus(Integer userID, String status) {
         User user = userRepository.findById(userID)
                 .orElseThrow(() -> new RuntimeException("User không tồn tại"));
-
+        
         User.UserStatus newStatus = User.UserStatus.valueOf(status.toUpperCase());
         user.setStatus(newStatus);
         userRepository.save(user);
-
+        
         return new UserResponse(
                 user.getUserID(),
                 user.getName(),
@@ -141,7 +173,7 @@ public class AdminService {
                 user.getCreatedAt()
         );
     }
-
+    
     
     /**
      * Xóa User (Admin)
@@ -150,7 +182,24 @@ public class AdminService {
     public void deleteUser(Integer userID) {
         User user = userRepository.findById(userID)
                 .orElseThrow(() -> new ResourceNotFoundException("User không tồn tại"));
+        
+        // Bài đăng của User bị xóa theo (cascade) nên phải gỡ khỏi index
+        List<ListingChange> removed = user.getPosts().stream()
+                .map(post -> ListingChange.deleted(post.getPostID(), post.getBook().getBookID(), post.getStatus()))
+                .toList();
+        
+        // Bài đã lưu trữ: book_archive không có khóa ngoại tới user nên phải xóa riêng
+        List<PostArchiveRepository.ArchivedImage> archivedImages = postArchiveRepository.findImagesByUserId(userID);
+        postArchiveRepository.deleteBooks(archivedImages.stream().map(PostArchiveRepository.ArchivedImage::bookID).toList());
         userRepository.delete(user);
+        
+        // Ảnh của các bài đăng bị xóa theo
+        user.getPosts().forEach(post -> fileDeletionOutboxService.enqueue(post.getBook().getImage()));
+        archivedImages.forEach(image -> fileDeletionOutboxService.enqueue(image.image()));
+        
+        if (!removed.isEmpty()) {
+            eventPublisher.publishEvent(new ListingChangedEvent(removed));
+        }
     }
     
     /**
@@ -192,6 +241,7 @@ public class AdminService {
         response.setPostID(post.getPostID());
         response.setPostStatus(post.getStatus().name());
         response.setCreatedAt(post.getCreatedAt());
+        response.setVersion(post.getVersion());
         
         if (post.getBook() != null) {
             response.setBookID(post.getBook().getBookID());
@@ -205,4 +255,13 @@ public class AdminService {
         
         return response;
     }
+    
+    /**
+     * Convert bài đã lưu trữ sang PostResponse
+     */
+    private PostResponse convertToResponse(PostArchiveRepository.ArchivedListing archived) {
+        PostResponse response = bookListingMapper.toPostResponse(archived.listing());
+        response.setArchived(true);
+        return response;
+    }
 }
\ No newline at end of file
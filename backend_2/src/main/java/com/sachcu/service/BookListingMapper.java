@@ -0,0 +1,161 @@
+package com.sachcu.service;
+
+import com.sachcu.dto.projection.BookCard;
+import com.sachcu.dto.projection.BookListing;
+import com.sachcu.dto.response.BookCardResponse;
+import com.sachcu.dto.response.BookDetailResponse;
+import com.sachcu.dto.response.PostResponse;
+import com.sachcu.entity.Book;
+import com.sachcu.entity.BookCategory;
+import com.sachcu.entity.Post;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+
+/**
+ * Mapper: BookListingMapper
+ * Mô tả: Convert BookListing (projection) sang BookDetailResponse
+ * Áp dụng cùng quy tắc ẩn thông tin như BookService/PostService:
+ * Guest không thấy contact và người đăng
+ * 
+ * Ngoài ra tạo BookListing từ entity Post (dùng khi phát ListingChangedEvent)
+ */
+@Component
+@RequiredArgsConstructor
+public class BookListingMapper {
+    
+    public static final String HIDDEN_CONTACT = "🔒 Vui lòng đăng nhập để xem thông tin liên hệ";
+    public static final String HIDDEN_USER_NAME = "🔒 Đăng nhập để xem";
+    
+    private final LocationService locationService;
+    
+    public BookDetailResponse toDetailResponse(BookListing listing, boolean isAuthenticated) {
+        BookDetailResponse response = new BookDetailResponse();
+        
+        // Book info
+        response.setBookID(listing.getBookID());
+        response.setTitle(listing.getTitle());
+        response.setAuthor(listing.getAuthor());
+        response.setBookCondition(listing.getBookCondition());
+        response.setPrice(listing.getPrice());
+        response.setDescription(listing.getDescription());
+        response.setImage(listing.getImage());
+        response.setProvince(listing.getProvince());
+        response.setDistrict(listing.getDistrict());
+        fillLocationNames(response);
+        response.setCreatedAt(listing.getCreatedAt());
+        
+        // ẨN thông tin liên hệ nếu chưa đăng nhập
+        response.setContactInfo(isAuthenticated ? listing.getContactInfo() : HIDDEN_CONTACT);
+        
+        // Post info
+        response.setPostID(listing.getPostID());
+        response.setPostDescription(listing.getPostDescription());
+        response.setPostStatus(listing.getPostStatus().name());
+        response.setVersion(listing.getPostVersion());
+        
+        // ẨN thông tin người đăng nếu chưa đăng nhập
+        if (isAuthenticated) {
+            response.setUserID(listing.getUserID());
+            response.setUserName(listing.getUserName());
+        } else {
+            response.setUserID(null);
+            response.setUserName(HIDDEN_USER_NAME);
+        }
+        
+        // Category info
+        response.setCategoryID(listing.getCategoryID());
+        response.setCategoryName(listing.getCategoryName());
+        
+        return response;
+    }
+    
+    /**
+     * Thẻ sách (view=card): không có thông tin cần ẩn nên guest và user nhận giống nhau
+     */
+    public BookCardResponse toCardResponse(BookCard card) {
+        return new BookCardResponse(
+                card.getBookID(),
+                card.getTitle(),
+                card.getAuthor(),
+                card.getBookCondition(),
+                card.getPrice(),
+                card.getImage(),
+                card.getProvince(),
+                card.getDistrict(),
+                locationService.getProvinceName(card.getProvince()),
+                card.getCreatedAt(),
+                card.getPostID(),
+                card.getCategoryID(),
+                card.getCategoryName());
+    }
+    
+    /**
+     * Dòng bài đăng cho các API Admin (hàng đợi duyệt bài, bài đã lưu trữ)
+     */
+    public PostResponse toPostResponse(BookListing listing) {
+        PostResponse response = new PostResponse();
+        response.setPostID(listing.getPostID());
+        response.setPostStatus(listing.getPostStatus().name());
+        response.setCreatedAt(listing.getPostCreatedAt());
+        response.setVersion(listing.getPostVersion());
+        response.setBookID(listing.getBookID());
+        response.setTitle(listing.getTitle());
+        response.setAuthor(listing.getAuthor());
+        response.setPrice(listing.getPrice());
+        response.setImage(listing.getImage());
+        response.setProvince(listing.getProvince());
+        response.setDistrict(listing.getDistrict());
+        return response;
+    }
+    
+    /**
+     * Điền tên tỉnh từ mã lưu trong DB để client không phải tra cứu thêm
+     */
+    public void fillLocationNames(BookDetailResponse response) {
+        response.setProvinceName(locationService.getProvinceName(response.getProvince()));
+    }
+    
+    /**
+     * Tạo BookListing từ entity Post đang nằm trong transaction
+     * Danh mục được chọn giống LISTING_FROM: danh mục có ID nhỏ nhất
+     */
+    public BookListing fromPost(Post post) {
+        Book book = post.getBook();
+        BookListing listing = new BookListing();
+        
+        listing.setBookID(book.getBookID());
+        listing.setTitle(book.getTitle());
+        listing.setAuthor(book.getAuthor());
+        listing.setBookCondition(book.getBookCondition());
+        listing.setPrice(book.getPrice());
+        listing.setDescription(book.getDescription());
+        listing.setImage(book.getImage());
+        listing.setContactInfo(book.getContactInfo());
+        listing.setProvince(book.getProvince());
+        listing.setDistrict(book.getDistrict());
+        listing.setCreatedAt(book.getCreatedAt());
+        
+        listing.setPostID(post.getPostID());
+        listing.setPostDescription(post.getDescription());
+        listing.setPostStatus(post.getStatus());
+        listing.setPostCreatedAt(post.getCreatedAt());
+        listing.setPostVersion(post.getVersion());
+        
+        if (post.getUser() != null) {
+            listing.setUserID(post.getUser().getUserID());
+            listing.setUserName(post.getUser().getName());
+        }
+        
+        book.getBookCategories().stream()
+                .map(BookCategory::getCategory)
+                .min(Comparator.comparing(category -> category.getCategoryID()))
+                .ifPresent(category -> {
+                    listing.setCategoryID(category.getCategoryID());
+                    listing.setCategoryName(category.getCategoryName());
+                });
+        
+        return listing;
+    }
+}
@@ -1,43 +1,131 @@
 package com.sachcu.service;
 
+import com.sachcu.cache.ListingCache;
+import com.sachcu.cache.SearchCacheKey;
+import com.sachcu.cache.SearchResultCache;
+import com.sachcu.dto.projection.BookListing;
+import com.sachcu.dto.request.BookSearchRequest;
+import com.sachcu.dto.response.BookCardResponse;
 import com.sachcu.dto.response.BookDetailResponse;
+import com.sachcu.dto.response.BookPageResponse;
+import com.sachcu.dto.response.BookSearchResponse;
+import com.sachcu.dto.response.RelatedBooksResponse;
+import com.sachcu.dto.response.SuggestionResponse;
 import com.sachcu.entity.Book;
 import com.sachcu.entity.BookCategory;
 import com.sachcu.entity.Post;
 import com.sachcu.exception.ResourceNotFoundException;
 import com.sachcu.repository.BookRepository;
+import com.sachcu.search.BookSearchIndex;
+import com.sachcu.search.FacetIndex;
+import com.sachcu.search.RelatedListingsIndex;
+import com.sachcu.search.SuggestionTrie;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
  * Service: BookService
  * Mô tả: Xử lý logic liên quan đến Book
  * APIs:
- * - GET /books - Lấy danh sách tất cả sách đã duyệt
+ * - GET /books - Lấy danh sách tất cả sách đã duyệt (có phân trang theo cursor)
  * - GET /books/{bookID} - Xem chi tiết sách (ẩn contact nếu chưa login)
- * - GET /books/search - Tìm kiếm và lọc sách
+ * - GET /books/batch?ids=1,2,3 - Lấy nhiều sách theo ID trong một request
+ * - GET /books/{bookID}/related - Sách cùng tác giả, danh mục, tỉnh
+ * - GET /books/search - Tìm kiếm và lọc sách (full-text không dấu, đếm theo bộ lọc)
+ * - GET /books/suggest - Gợi ý tiêu đề/tác giả khi đang gõ
  */
 @Service
 @RequiredArgsConstructor
 public class BookService {
     
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_BATCH_SIZE = 200;
+    public static final int DEFAULT_RELATED_LIMIT = 4;
+    public static final int MAX_RELATED_LIMIT = 20;
+    private static final int IN_QUERY_CHUNK_SIZE = 500;
+    
     private final BookRepository bookRepository;
+    private final BookListingMapper bookListingMapper;
+    private final BookSearchIndex bookSearchIndex;
+    private final FacetIndex facetIndex;
+    private final SuggestionTrie suggestionTrie;
+    private final SearchResultCache searchResultCache;
+    private final JsonStreamingService jsonStreamingService;
+    private final ListingCache listingCache;
+    private final RelatedListingsIndex relatedListingsIndex;
     
     /**
-     * Lấy tất cả sách đã được duyệt
-     * Note: Ẩn thông tin người đăng và contact cho tất cả (dù đã login hay chưa)
+     * Lấy tất cả sách đã được duyệt (không phân trang - giữ cho frontend cũ)
+     * Ghi thẳng từng dòng ra response thay vì dựng cả List trong bộ nhớ
+     * 
+     * @param format JSON (mảng như cũ), NDJSON, CBOR hoặc Smile
      */
-    public List<BookDetailResponse> getAllApprovedBooks(boolean isAuthenticated) {
-        List<Book> books = bookRepository.findAll();
-        
-        return books.stream()
-                .filter(book -> book.getPost() != null && 
-                               book.getPost().getStatus() == Post.PostStatus.APPROVED)
-                .map(book -> convertToDetailResponse(book, isAuthenticated))
-                .collect(Collectors.toList());
+    public StreamingResponseBody streamApprovedBooks(boolean isAuthenticated, ResponseFormat format) {
+        return jsonStreamingService.stream(
+                () -> bookRepository.streamListingsByStatus(Post.PostStatus.APPROVED),
+                listing -> bookListingMapper.toDetailResponse(listing, isAuthenticated),
+                format);
+    }
+    
+    /**
+     * Lấy một trang sách đã duyệt, mới nhất trước (keyset pagination)
+     * Cursor mã hóa cặp (createdAt, postID) của phần tử cuối trang trước,
+     * nên DB chỉ cần đọc tiếp từ vị trí đó thay vì OFFSET qua các trang cũ.
+     * 
+     * @param cursor nextCursor của trang trước (null = trang đầu)
+     * @param limit Số phần tử mỗi trang (tối đa MAX_PAGE_SIZE)
+     * @param isAuthenticated User đã đăng nhập hay chưa
+     */
+    public BookPageResponse<BookDetailResponse> getApprovedBooksPage(String cursor, Integer limit,
+                                                                     boolean isAuthenticated) {
+        return keysetPage(cursor, limit,
+                pageRequest -> bookRepository.findListingsFirstPage(Post.PostStatus.APPROVED, pageRequest),
+                (after, pageRequest) -> bookRepository.findListingsPageAfter(
+                        Post.PostStatus.APPROVED, after.createdAt(), after.postID(), pageRequest),
+                last -> new PageCursor(last.getPostCreatedAt(), last.getPostID()),
+                listings -> toDetailResponses(listings, isAuthenticated));
+    }
+    
+    /**
+     * Như streamApprovedBooks nhưng dạng thẻ (view=card)
+     * SQL chỉ SELECT các cột thẻ sách cần, không đọc cột TEXT, không JOIN user
+     */
+    public StreamingResponseBody streamApprovedBookCards(ResponseFormat format) {
+        return jsonStreamingService.stream(
+                () -> bookRepository.streamCardsByStatus(Post.PostStatus.APPROVED),
+                bookListingMapper::toCardResponse,
+                format);
+    }
+    
+    /**
+     * Như getApprovedBooksPage nhưng dạng thẻ (view=card), cursor dùng chung được giữa hai view
+     */
+    public BookPageResponse<BookCardResponse> getApprovedBookCardsPage(String cursor, Integer limit) {
+        return keysetPage(cursor, limit,
+                pageRequest -> bookRepository.findCardsFirstPage(Post.PostStatus.APPROVED, pageRequest),
+                (after, pageRequest) -> bookRepository.findCardsPageAfter(
+                        Post.PostStatus.APPROVED, after.createdAt(), after.postID(), pageRequest),
+                last -> new PageCursor(last.getPostCreatedAt(), last.getPostID()),
+                cards -> cards.stream().map(bookListingMapper::toCardResponse).collect(Collectors.toList()));
     }
     
     /**
@@ -57,29 +145,218 @@ public class BookService {
         return convertToDetailResponse(book, isAuthenticated);
     }
     
+    /**
+     * postID của sách đã duyệt, đọc qua ListingCache (null nếu sách không tồn tại hoặc chưa duyệt)
+     */
+    public Integer findApprovedPostID(Integer bookID) {
+        BookListing listing = listingCache.getAll(List.of(bookID),
+                missing -> bookRepository.findListingsByBookIds(Post.PostStatus.APPROVED, missing)).get(bookID);
+        return listing != null ? listing.getPostID() : null;
+    }
+    
+    /**
+     * Lấy nhiều sách theo bookID, giữ nguyên thứ tự đầu vào
+     * Cùng quy tắc với getBookDetail: chỉ trả sách đã duyệt (ID khác bị bỏ qua), ẩn contact nếu chưa login
+     * Lấy từ ListingCache, các ID còn thiếu được đọc bằng MỘT câu IN
+     * 
+     * @param bookIDs Tối đa MAX_BATCH_SIZE ID (trùng lặp chỉ tính một lần)
+     */
+    public List<BookDetailResponse> getBooksByIds(List<Integer> bookIDs, boolean isAuthenticated) {
+        List<Integer> distinctIDs = bookIDs.stream().filter(Objects::nonNull).distinct().toList();
+        if (distinctIDs.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Chỉ được lấy tối đa " + MAX_BATCH_SIZE + " sách mỗi lần");
+        }
+        
+        Map<Integer, BookListing> byBookID = listingCache.getAll(distinctIDs,
+                missing -> bookRepository.findListingsByBookIds(Post.PostStatus.APPROVED, missing));
+        
+        List<BookListing> ordered = distinctIDs.stream()
+                .map(byBookID::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return toDetailResponses(ordered, isAuthenticated);
+    }
+    
+    /**
+     * Lấy sách liên quan (cùng tác giả, cùng danh mục, cùng tỉnh), mới nhất trước
+     * Danh sách ID lấy từ RelatedListingsIndex trong bộ nhớ, dữ liệu sách lấy qua ListingCache
+     * 
+     * @param limit Số sách tối đa mỗi nhóm (mặc định 4, tối đa MAX_RELATED_LIMIT)
+     */
+    public RelatedBooksResponse getRelatedBooks(Integer bookID, Integer limit, boolean isAuthenticated) {
+        if (!relatedListingsIndex.isReady()) {
+            // Index đang nạp lúc khởi động: trả rỗng thay vì truy vấn DB cho mỗi lượt xem
+            return new RelatedBooksResponse();
+        }
+        
+        int size = limit == null || limit <= 0 ? DEFAULT_RELATED_LIMIT : Math.min(limit, MAX_RELATED_LIMIT);
+        Map<RelatedListingsIndex.Relation, List<Integer>> related = relatedListingsIndex.related(bookID, size);
+        if (related == null) {
+            throw new ResourceNotFoundException("Bài đăng chưa được duyệt hoặc không tồn tại");
+        }
+        
+        List<Integer> allBookIDs = related.values().stream().flatMap(List::stream).toList();
+        Map<Integer, BookListing> byBookID = listingCache.getAll(allBookIDs,
+                missing -> bookRepository.findListingsByBookIds(Post.PostStatus.APPROVED, missing));
+        
+        return new RelatedBooksResponse(
+                hydrate(related.get(RelatedListingsIndex.Relation.AUTHOR), byBookID, isAuthenticated),
+                hydrate(related.get(RelatedListingsIndex.Relation.CATEGORY), byBookID, isAuthenticated),
+                hydrate(related.get(RelatedListingsIndex.Relation.PROVINCE), byBookID, isAuthenticated));
+    }
+    
     /**
      * Tìm kiếm sách theo nhiều tiêu chí
+     * - Có từ khóa (q/title/author): tra BookSearchIndex (không dấu, xếp hạng liên quan),
+     *   lọc bằng bitmap của FacetIndex rồi mới lấy dữ liệu từ DB theo danh sách postID
+     * - Chỉ có bộ lọc: truy vấn thẳng DB, lọc giá và sắp xếp ngay trong SQL
+     * - facets=true: đếm số kết quả theo từng giá trị lọc bằng phép AND bitmap, không GROUP BY
+     * - sort: newest | price_asc | price_desc; bỏ trống = liên quan nhất (có từ khóa) hoặc mới nhất
+     * - Kết quả được cache theo tiêu chí đã chuẩn hóa + guest/auth (SearchResultCache)
      */
-    public List<BookDetailResponse> searchBooks(String title, String author, String province, String district, boolean isAuthenticated) {
-        List<Book> books = bookRepository.searchBooks(title, author, province, district);
+    public BookSearchResponse searchBooks(BookSearchRequest request, boolean isAuthenticated) {
+        return searchResultCache.get(
+                SearchCacheKey.search(request, isAuthenticated),
+                () -> executeSearch(request, isAuthenticated),
+                result -> postIDsOf(result.getItems()));
+    }
+    
+    private BookSearchResponse executeSearch(BookSearchRequest request, boolean isAuthenticated) {
+        Map<FacetIndex.Facet, String> filters = toFacetFilters(request);
+        SearchSort sort = SearchSort.parse(request.getSort());
+        if (request.getMinPrice() != null && request.getMaxPrice() != null
+                && request.getMinPrice().compareTo(request.getMaxPrice()) > 0) {
+            throw new IllegalArgumentException("minPrice không được lớn hơn maxPrice");
+        }
+        boolean useIndex = request.hasText() && bookSearchIndex.isReady() && facetIndex.isReady();
         
-        return books.stream()
-                .filter(book -> book.getPost() != null && 
-                               book.getPost().getStatus() == Post.PostStatus.APPROVED)
-                .map(book -> convertToDetailResponse(book, isAuthenticated))
-                .collect(Collectors.toList());
+        List<BookListing> listings;
+        List<Integer> candidatePostIDs = null;
+        if (useIndex) {
+            candidatePostIDs = bookSearchIndex.search(request.getQ(), request.getTitle(), request.getAuthor());
+            listings = findApprovedListingsInOrder(facetIndex.filter(
+                    candidatePostIDs, filters, request.getMinPrice(), request.getMaxPrice()));
+            if (sort.comparator != null) {
+                listings.sort(sort.comparator);
+            }
+        } else {
+            // Không có từ khóa hoặc index chưa nạp xong: dùng LIKE trên DB
+            String titleFilter = BookSearchRequest.hasText(request.getTitle()) ? request.getTitle() : request.getQ();
+            listings = bookRepository.searchListings(
+                    Post.PostStatus.APPROVED, titleFilter, request.getAuthor(),
+                    request.getProvince(), request.getDistrict(),
+                    request.getCategoryID(), request.getBookCondition(),
+                    request.getMinPrice(), request.getMaxPrice(), sort.orderBy);
+        }
+        
+        Map<String, Map<String, Integer>> facets = null;
+        if (request.isFacets() && facetIndex.isReady() && (useIndex || !request.hasText())) {
+            facets = facetIndex.count(candidatePostIDs, filters, request.getMinPrice(), request.getMaxPrice());
+        }
+        
+        return new BookSearchResponse(toDetailResponses(listings, isAuthenticated), listings.size(), facets);
+    }
+    
+    /**
+     * Gợi ý tiêu đề/tác giả theo tiền tố (typeahead)
+     * Đọc hoàn toàn từ SuggestionTrie trong bộ nhớ, không truy vấn DB
+     */
+    public List<SuggestionResponse> suggest(String prefix, Integer limit) {
+        return suggestionTrie.suggest(prefix, limit == null ? SuggestionTrie.MAX_SUGGESTIONS : limit);
     }
     
     /**
      * Tìm sách theo tỉnh/thành phố
      */
     public List<BookDetailResponse> getBooksByProvince(String province, boolean isAuthenticated) {
-        List<Book> books = bookRepository.findByProvince(province);
+        return searchResultCache.get(
+                SearchCacheKey.province(province, isAuthenticated),
+                () -> toDetailResponses(
+                        bookRepository.findListingsByProvince(Post.PostStatus.APPROVED, province), isAuthenticated),
+                this::postIDsOf);
+    }
+    
+    /**
+     * Lấy BookListing đã duyệt theo danh sách postID, giữ nguyên thứ tự đầu vào
+     * Truy vấn IN theo từng lô để câu SQL không quá dài
+     */
+    private List<BookListing> findApprovedListingsInOrder(List<Integer> postIDs) {
+        Map<Integer, BookListing> byPostID = new HashMap<>();
+        for (int from = 0; from < postIDs.size(); from += IN_QUERY_CHUNK_SIZE) {
+            List<Integer> chunk = postIDs.subList(from, Math.min(from + IN_QUERY_CHUNK_SIZE, postIDs.size()));
+            for (BookListing listing : bookRepository.findListingsByPostIds(Post.PostStatus.APPROVED, chunk)) {
+                byPostID.put(listing.getPostID(), listing);
+            }
+        }
+        
+        List<BookListing> ordered = new ArrayList<>(byPostID.size());
+        for (Integer postID : postIDs) {
+            BookListing listing = byPostID.get(postID);
+            if (listing != null) {
+                ordered.add(listing);
+            }
+        }
+        return ordered;
+    }
+    
+    /**
+     * Keyset pagination dùng chung cho các view
+     * Lấy dư 1 phần tử để biết còn trang sau hay không
+     */
+    private <T, R> BookPageResponse<R> keysetPage(String cursor, Integer limit,
+                                                  Function<PageRequest, List<T>> firstPage,
+                                                  BiFunction<PageCursor, PageRequest, List<T>> pageAfter,
+                                                  Function<T, PageCursor> cursorOf,
+                                                  Function<List<T>, List<R>> mapper) {
+        int pageSize = normalizePageSize(limit);
+        PageRequest pageRequest = PageRequest.of(0, pageSize + 1);
+        
+        List<T> rows = (cursor == null || cursor.isBlank())
+                ? firstPage.apply(pageRequest)
+                : pageAfter.apply(PageCursor.decode(cursor), pageRequest);
         
-        return books.stream()
-                .filter(book -> book.getPost() != null && 
-                               book.getPost().getStatus() == Post.PostStatus.APPROVED)
-                .map(book -> convertToDetailResponse(book, isAuthenticated))
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+        
+        String nextCursor = hasMore ? cursorOf.apply(rows.get(rows.size() - 1)).encode() : null;
+        return new BookPageResponse<>(mapper.apply(rows), nextCursor);
+    }
+    
+    private List<BookDetailResponse> hydrate(List<Integer> bookIDs, Map<Integer, BookListing> byBookID,
+                                             boolean isAuthenticated) {
+        List<BookListing> listings = bookIDs.stream()
+                .map(byBookID::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return toDetailResponses(listings, isAuthenticated);
+    }
+    
+    private List<Integer> postIDsOf(List<BookDetailResponse> responses) {
+        return responses.stream().map(BookDetailResponse::getPostID).collect(Collectors.toList());
+    }
+    
+    private Map<FacetIndex.Facet, String> toFacetFilters(BookSearchRequest request) {
+        Map<FacetIndex.Facet, String> filters = new EnumMap<>(FacetIndex.Facet.class);
+        if (BookSearchRequest.hasText(request.getProvince())) {
+            filters.put(FacetIndex.Facet.PROVINCE, request.getProvince());
+        }
+        if (BookSearchRequest.hasText(request.getDistrict())) {
+            filters.put(FacetIndex.Facet.DISTRICT, request.getDistrict());
+        }
+        if (request.getCategoryID() != null) {
+            filters.put(FacetIndex.Facet.CATEGORY, request.getCategoryID().toString());
+        }
+        if (BookSearchRequest.hasText(request.getBookCondition())) {
+            filters.put(FacetIndex.Facet.CONDITION, request.getBookCondition());
+        }
+        return filters;
+    }
+    
+    private List<BookDetailResponse> toDetailResponses(List<BookListing> listings, boolean isAuthenticated) {
+        return listings.stream()
+                .map(listing -> bookListingMapper.toDetailResponse(listing, isAuthenticated))
                 .collect(Collectors.toList());
     }
     
@@ -100,6 +377,7 @@ public class BookService {
         response.setImage(book.getImage());
         response.setProvince(book.getProvince());
         response.setDistrict(book.getDistrict());
+        bookListingMapper.fillLocationNames(response);
         response.setCreatedAt(book.getCreatedAt());
         
         // ẨN thông tin liên hệ nếu chưa đăng nhập
@@ -114,6 +392,7 @@ public class BookService {
             response.setPostID(book.getPost().getPostID());
             response.setPostDescription(book.getPost().getDescription());
             response.setPostStatus(book.getPost().getStatus().name());
+            response.setVersion(book.getPost().getVersion());
             
             // ẨN thông tin người đăng nếu chưa đăng nhập
             if (isAuthenticated && book.getPost().getUser() != null) {
@@ -134,4 +413,78 @@ public class BookService {
         
         return response;
     }
-}
\ No newline at end of file
+    
+    private int normalizePageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+    
+    /**
+     * Thứ tự kết quả tìm kiếm
+     * orderBy: dùng cho truy vấn DB; comparator: dùng khi sắp xếp lại kết quả từ index
+     * Luôn kèm (createdAt, postID) giảm dần để thứ tự ổn định khi trùng giá
+     */
+    private enum SearchSort {
+        RELEVANCE(Sort.by(Sort.Direction.DESC, "createdAt", "postID"), null),
+        NEWEST(Sort.by(Sort.Direction.DESC, "createdAt", "postID"), newestFirst()),
+        PRICE_ASC(Sort.by(Sort.Direction.ASC, "b.price").and(Sort.by(Sort.Direction.DESC, "createdAt", "postID")),
+                Comparator.comparing(BookListing::getPrice).thenComparing(newestFirst())),
+        PRICE_DESC(Sort.by(Sort.Direction.DESC, "b.price", "createdAt", "postID"),
+                Comparator.comparing(BookListing::getPrice).reversed().thenComparing(newestFirst()));
+        
+        private final Sort orderBy;
+        private final Comparator<BookListing> comparator;
+        
+        SearchSort(Sort orderBy, Comparator<BookListing> comparator) {
+            this.orderBy = orderBy;
+            this.comparator = comparator;
+        }
+        
+        static SearchSort parse(String value) {
+            if (value == null || value.isBlank()) {
+                return RELEVANCE;
+            }
+            try {
+                SearchSort sort = valueOf(value.trim().toUpperCase());
+                if (sort != RELEVANCE) {
+                    return sort;
+                }
+            } catch (IllegalArgumentException e) {
+                // rơi xuống lỗi bên dưới
+            }
+            throw new IllegalArgumentException("Kiểu sắp xếp không hợp lệ: " + value);
+        }
+        
+        private static Comparator<BookListing> newestFirst() {
+            return Comparator.comparing(BookListing::getPostCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+                    .thenComparing(BookListing::getPostID, Comparator.reverseOrder());
+        }
+    }
+    
+    /**
+     * Cursor cho keyset pagination: vị trí (createdAt, postID) của phần tử cuối trang
+     * Mã hóa Base64 URL-safe để client chỉ cần gửi lại nguyên chuỗi
+     */
+    private record PageCursor(LocalDateTime createdAt, Integer postID) {
+        
+        String encode() {
+            String raw = createdAt + "|" + postID;
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+        
+        static PageCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf('|');
+                return new PageCursor(
+                        LocalDateTime.parse(raw.substring(0, separator)),
+                        Integer.valueOf(raw.substring(separator + 1)));
+            } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Cursor không hợp lệ: " + cursor);
+            }
+        }
+    }
+}
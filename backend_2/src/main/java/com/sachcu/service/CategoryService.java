@@ -2,13 +2,20 @@ package com.sachcu.service;
 
 import com.sachcu.dto.response.CategoryResponse;
 import com.sachcu.entity.Category;
+import com.sachcu.event.CategoryChangedEvent;
 import com.sachcu.exception.ResourceNotFoundException;
 import com.sachcu.repository.CategoryRepository;
+import com.sachcu.search.CategoryCountIndex;
+import com.sachcu.search.VietnameseTextNormalizer;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Service: CategoryService
@@ -24,21 +31,58 @@ import java.util.List;
 public class CategoryService {
     
     private final CategoryRepository categoryRepository;
+    private final CategoryCountIndex categoryCountIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    private record CategoryName(Integer categoryID, String categoryName) {
+    }
+    
+    // Danh sách (ID, tên) danh mục trong bộ nhớ, null = cần đọc lại từ DB
+    private volatile List<CategoryName> snapshot;
+    
+    // Không lưu snapshot đọc trước một thay đổi danh mục vừa commit
+    private final AtomicLong generation = new AtomicLong();
     
     /**
      * Lấy tất cả danh mục
+     * Tên danh mục lấy từ snapshot (admin sửa danh mục thì đọc lại),
+     * bookCount là số bài đã duyệt lấy từ CategoryCountIndex (không truy vấn DB)
      */
     public List<CategoryResponse> getAllCategories() {
-    return categoryRepository.findAll()
-        .stream()
-        .map(cat -> new CategoryResponse(
-                cat.getCategoryID(),
-                cat.getCategoryName(),
-                cat.getBookCategories().size()
-        ))
-        .toList();
+        return categoryNames().stream()
+                .map(cat -> new CategoryResponse(
+                        cat.categoryID(),
+                        cat.categoryName(),
+                        categoryCountIndex.count(cat.categoryID())
+                ))
+                .toList();
+    }
+    
+    /**
+     * Tìm categoryID theo ID hoặc tên danh mục (không phân biệt hoa thường, dấu), dùng snapshot
+     * VD: "3", "Giáo khoa", "giao khoa"
+     * 
+     * @return null nếu không có danh mục nào khớp
+     */
+    public Integer resolveCategoryID(String value) {
+        String trimmed = value.trim();
+        boolean numeric = trimmed.matches("\\d{1,9}");
+        String folded = VietnameseTextNormalizer.fold(trimmed).trim();
+        for (CategoryName cat : categoryNames()) {
+            if (numeric ? cat.categoryID().toString().equals(trimmed)
+                    : VietnameseTextNormalizer.fold(cat.categoryName()).trim().equals(folded)) {
+                return cat.categoryID();
+            }
+        }
+        return null;
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        generation.incrementAndGet();
+        snapshot = null;
     }
-
+    
     
     /**
      * Lấy Category theo ID
@@ -60,7 +104,9 @@ public class CategoryService {
         
         Category category = new Category();
         category.setCategoryName(categoryName);
-        return categoryRepository.save(category);
+        Category savedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(savedCategory.getCategoryID()));
+        return savedCategory;
     }
     
     /**
@@ -78,7 +124,9 @@ public class CategoryService {
         });
         
         category.setCategoryName(categoryName);
-        return categoryRepository.save(category);
+        Category savedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(categoryID));
+        return savedCategory;
     }
     
     /**
@@ -88,5 +136,26 @@ public class CategoryService {
     public void deleteCategory(Integer categoryID) {
         Category category = getCategoryById(categoryID);
         categoryRepository.delete(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(categoryID));
+    }
+    
+    // ========================================================================
+    // PRIVATE HELPER METHODS
+    // ========================================================================
+    
+    private List<CategoryName> categoryNames() {
+        List<CategoryName> current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        
+        long startGeneration = generation.get();
+        List<CategoryName> loaded = categoryRepository.findAll().stream()
+                .map(cat -> new CategoryName(cat.getCategoryID(), cat.getCategoryName()))
+                .toList();
+        if (generation.get() == startGeneration) {
+            snapshot = loaded;
+        }
+        return loaded;
     }
 }
\ No newline at end of file
@@ -0,0 +1,170 @@
+package com.sachcu.service;
+
+import com.sachcu.entity.FileDeletion;
+import com.sachcu.repository.FileDeletionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service: FileDeletionOutboxService
+ * Mô tả: Xóa ảnh khỏi ổ đĩa qua bảng outbox thay vì gọi FileStorageService trong transaction
+ * 
+ * - enqueue(): ghi một dòng vào file_deletion_outbox trong CÙNG transaction với bài đăng
+ *   → transaction rollback thì ảnh không bị xóa, không giữ connection DB trong lúc I/O ổ đĩa
+ * - drain(): worker định kỳ lấy các dòng đến hạn theo lô, xóa file NGOÀI transaction,
+ *   rồi xóa các dòng thành công / tăng số lần thử và lùi lịch (backoff lũy thừa) cho dòng lỗi
+ * - Dòng vượt quá max-attempts được giữ lại để Admin xem (metrics), không thử lại nữa
+ * - Xóa file là idempotent (file không còn = thành công) nên chạy nhiều instance cũng an toàn
+ */
+@Slf4j
+@Service
+public class FileDeletionOutboxService {
+    
+    private static final int MAX_ERROR_LENGTH = 255;
+    
+    private final FileDeletionRepository fileDeletionRepository;
+    private final FileStorageService fileStorageService;
+    private final TransactionTemplate transactionTemplate;
+    
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    
+    // Từ lúc khởi động
+    private final AtomicLong deletedCount = new AtomicLong();
+    private final AtomicLong failedAttemptCount = new AtomicLong();
+    
+    public FileDeletionOutboxService(FileDeletionRepository fileDeletionRepository,
+                                     FileStorageService fileStorageService,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${files.deletion-outbox.batch-size:100}") int batchSize,
+                                     @Value("${files.deletion-outbox.max-attempts:10}") int maxAttempts,
+                                     @Value("${files.deletion-outbox.initial-backoff:30s}") Duration initialBackoff,
+                                     @Value("${files.deletion-outbox.max-backoff:6h}") Duration maxBackoff) {
+        this.fileDeletionRepository = fileDeletionRepository;
+        this.fileStorageService = fileStorageService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+    
+    /**
+     * Đánh dấu ảnh cần xóa, chỉ có hiệu lực khi transaction hiện tại commit
+     * 
+     * @param fileName Tên file hoặc URL ảnh (null/rỗng thì bỏ qua)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String fileName) {
+        if (fileName == null || fileName.isEmpty()) {
+            return;
+        }
+        FileDeletion deletion = new FileDeletion();
+        deletion.setFileName(fileName);
+        deletion.setNextAttemptAt(LocalDateTime.now());
+        fileDeletionRepository.save(deletion);
+    }
+    
+    /**
+     * Worker: xử lý các lô đến hạn cho đến khi hết
+     */
+    @Scheduled(fixedDelayString = "${files.deletion-outbox.poll-interval-ms:5000}",
+               initialDelayString = "${files.deletion-outbox.poll-interval-ms:5000}")
+    public void drain() {
+        List<FileDeletion> batch;
+        do {
+            batch = transactionTemplate.execute(status ->
+                    fileDeletionRepository.findDue(maxAttempts, LocalDateTime.now(), PageRequest.of(0, batchSize)));
+            if (batch == null || batch.isEmpty()) {
+                return;
+            }
+            process(batch);
+        } while (batch.size() >= batchSize);
+    }
+    
+    /**
+     * Số liệu cho GET /admin/metrics
+     */
+    public Map<String, Object> stats() {
+        long total = fileDeletionRepository.count();
+        long dead = fileDeletionRepository.countByAttemptsGreaterThanEqual(maxAttempts);
+        LocalDateTime oldest = fileDeletionRepository.findOldestPendingCreatedAt(maxAttempts).orElse(null);
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("pending", total - dead);
+        result.put("exhausted", dead);
+        result.put("oldestPendingAgeSeconds",
+                oldest != null ? Duration.between(oldest, LocalDateTime.now()).toSeconds() : 0);
+        result.put("deletedCount", deletedCount.get());
+        result.put("failedAttemptCount", failedAttemptCount.get());
+        return result;
+    }
+    
+    // ========================================================================
+    // PRIVATE HELPER METHODS
+    // ========================================================================
+    
+    private void process(List<FileDeletion> batch) {
+        List<Long> doneIDs = new ArrayList<>();
+        List<FileDeletion> failed = new ArrayList<>();
+        
+        // I/O ổ đĩa không nằm trong transaction nào
+        for (FileDeletion deletion : batch) {
+            try {
+                fileStorageService.deleteFile(deletion.getFileName());
+                doneIDs.add(deletion.getOutboxID());
+            } catch (Exception e) {
+                int attempts = deletion.getAttempts() + 1;
+                deletion.setAttempts(attempts);
+                deletion.setNextAttemptAt(LocalDateTime.now().plus(backoff(attempts)));
+                deletion.setLastError(truncate(e.getMessage()));
+                failed.add(deletion);
+                
+                if (attempts >= maxAttempts) {
+                    log.error("Bỏ qua xóa ảnh {} sau {} lần thử: {}", deletion.getFileName(), attempts, e.getMessage());
+                }
+            }
+        }
+        
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!doneIDs.isEmpty()) {
+                fileDeletionRepository.deleteAllByIdInBatch(doneIDs);
+            }
+            if (!failed.isEmpty()) {
+                fileDeletionRepository.saveAll(failed);
+            }
+        });
+        deletedCount.addAndGet(doneIDs.size());
+        failedAttemptCount.addAndGet(failed.size());
+    }
+    
+    // 30s, 1m, 2m, 4m... tối đa maxBackoff
+    private Duration backoff(int attempts) {
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+    
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+}
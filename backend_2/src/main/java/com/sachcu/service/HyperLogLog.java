@@ -0,0 +1,99 @@
+package com.sachcu.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Sketch: HyperLogLog
+ * Mô tả: Ước lượng số người xem khác nhau của một bài đăng mà không lưu danh sách người xem
+ * 
+ * - 2^PRECISION thanh ghi (1024), mỗi thanh ghi giữ số bit 0 đầu tiên lớn nhất đã gặp
+ * - Sai số chuẩn ~1.04 / sqrt(1024) ≈ 3%, lưu DB chỉ 1 KB mỗi bài (toBytes)
+ * - Gộp hai sketch = lấy max từng thanh ghi → gộp nhiều lần vẫn cho cùng kết quả
+ * - add() an toàn khi nhiều thread gọi cùng lúc (CAS từng thanh ghi, không khóa)
+ */
+public class HyperLogLog {
+    
+    public static final int PRECISION = 10;
+    public static final int REGISTER_COUNT = 1 << PRECISION;
+    
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTER_COUNT);
+    
+    private final AtomicIntegerArray registers = new AtomicIntegerArray(REGISTER_COUNT);
+    
+    /**
+     * Ghi nhận một người xem (VD: "user:a@b.com", "guest:1.2.3.4|Mozilla/5.0...")
+     */
+    public void add(String value) {
+        long hash = hash(value);
+        int index = (int) (hash >>> (64 - PRECISION));
+        // Vị trí bit 1 đầu tiên trong phần còn lại của hash (tối đa 64 - PRECISION + 1)
+        int rank = Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1;
+        
+        int current;
+        while ((current = registers.get(index)) < rank) {
+            if (registers.compareAndSet(index, current, rank)) {
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Gộp sketch đã lưu (toBytes) vào sketch này
+     */
+    public void merge(byte[] stored) {
+        if (stored == null || stored.length != REGISTER_COUNT) {
+            return;
+        }
+        for (int i = 0; i < REGISTER_COUNT; i++) {
+            int rank = stored[i];
+            registers.accumulateAndGet(i, rank, Math::max);
+        }
+    }
+    
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (int i = 0; i < REGISTER_COUNT; i++) {
+            int rank = registers.get(i);
+            sum += 1.0 / (1L << rank);
+            if (rank == 0) {
+                zeros++;
+            }
+        }
+        
+        double estimate = ALPHA * REGISTER_COUNT * REGISTER_COUNT / sum;
+        // Ít người xem: đếm thanh ghi rỗng (linear counting) chính xác hơn
+        if (estimate <= 2.5 * REGISTER_COUNT && zeros > 0) {
+            estimate = REGISTER_COUNT * Math.log((double) REGISTER_COUNT / zeros);
+        }
+        return Math.round(estimate);
+    }
+    
+    public byte[] toBytes() {
+        byte[] bytes = new byte[REGISTER_COUNT];
+        for (int i = 0; i < REGISTER_COUNT; i++) {
+            bytes[i] = (byte) registers.get(i);
+        }
+        return bytes;
+    }
+    
+    // ========================================================================
+    // PRIVATE HELPER METHODS
+    // ========================================================================
+    
+    // FNV-1a 64 bit + bước trộn cuối của MurmurHash3 để các bit cao phân bố đều
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
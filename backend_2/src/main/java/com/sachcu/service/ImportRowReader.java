@@ -0,0 +1,259 @@
+package com.sachcu.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reader: ImportRowReader
+ * Mô tả: Đọc từng dòng của file nhập bài đăng hàng loạt (CSV hoặc NDJSON), không nạp cả file vào RAM
+ * 
+ * - CSV: dòng đầu là tiêu đề cột, phân cách bằng dấu phẩy hoặc chấm phẩy (Excel tiếng Việt),
+ *   giá trị có thể đặt trong "..." (chứa dấu phẩy, xuống dòng, "" là một dấu ")
+ * - NDJSON: mỗi dòng một object JSON
+ * - Tên cột không phân biệt hoa thường, bỏ qua "_" và khoảng trắng: contact_info = contactInfo
+ */
+public class ImportRowReader implements Closeable {
+    
+    public enum Format {
+        CSV,
+        NDJSON;
+        
+        /**
+         * Xác định định dạng theo đuôi file, sau đó theo Content-Type
+         */
+        public static Format from(String fileName, String contentType) {
+            String name = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+            if (name.endsWith(".csv")) {
+                return CSV;
+            }
+            if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+                return NDJSON;
+            }
+            if (contentType != null && contentType.startsWith("text/csv")) {
+                return CSV;
+            }
+            if (contentType != null && contentType.startsWith("application/x-ndjson")) {
+                return NDJSON;
+            }
+            throw new IllegalArgumentException("Chỉ hỗ trợ file .csv hoặc .ndjson");
+        }
+    }
+    
+    /**
+     * Một dòng dữ liệu
+     * 
+     * @param line Số dòng trong file (dòng bắt đầu bản ghi)
+     * @param values Tên cột (đã chuẩn hóa) → giá trị
+     * @param error Lỗi đọc dòng (null nếu đọc được)
+     */
+    public record Row(int line, Map<String, Object> values, String error) {
+    }
+    
+    private static final String[] COLUMNS = {
+            "title", "author", "bookCondition", "price", "postDescription", "image",
+            "contactInfo", "categoryID", "category", "province", "district"
+    };
+    
+    private static final Map<String, String> COLUMN_BY_KEY = new LinkedHashMap<>();
+    
+    static {
+        for (String column : COLUMNS) {
+            COLUMN_BY_KEY.put(key(column), column);
+        }
+        COLUMN_BY_KEY.put("description", "postDescription");
+        COLUMN_BY_KEY.put("condition", "bookCondition");
+    }
+    
+    private static final TypeReference<Map<String, Object>> OBJECT_TYPE = new TypeReference<>() {
+    };
+    
+    private final BufferedReader reader;
+    private final Format format;
+    private final ObjectMapper objectMapper;
+    
+    // Dòng vật lý đã đọc
+    private int line = 0;
+    
+    // CSV
+    private List<String> header;
+    private char delimiter = ',';
+    
+    public ImportRowReader(BufferedReader reader, Format format, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+    
+    /**
+     * @return Dòng tiếp theo, null nếu hết file (dòng trống bị bỏ qua)
+     */
+    public Row next() throws IOException {
+        return format == Format.CSV ? nextCsv() : nextNdjson();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+    
+    // ========================================================================
+    // PRIVATE HELPER METHODS
+    // ========================================================================
+    
+    private Row nextNdjson() throws IOException {
+        String text;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            try {
+                Map<String, Object> values = new LinkedHashMap<>();
+                objectMapper.readValue(stripBom(text), OBJECT_TYPE)
+                        .forEach((name, value) -> putColumn(values, name, value));
+                return new Row(line, values, null);
+            } catch (IOException e) {
+                return new Row(line, Map.of(), "JSON không hợp lệ");
+            }
+        }
+        return null;
+    }
+    
+    private Row nextCsv() throws IOException {
+        if (header == null) {
+            String first = peekFirstLine();
+            if (first == null) {
+                return null;
+            }
+            if (first.indexOf(',') < 0 && first.indexOf(';') >= 0) {
+                delimiter = ';';
+            }
+            List<String> names = readRecord();
+            if (names == null) {
+                return null;
+            }
+            header = new ArrayList<>(names.size());
+            for (String name : names) {
+                header.add(COLUMN_BY_KEY.get(key(stripBom(name))));
+            }
+            if (!header.contains("title")) {
+                throw new IllegalArgumentException("File CSV thiếu cột title ở dòng tiêu đề");
+            }
+        }
+        
+        while (true) {
+            int startLine = line + 1;
+            List<String> fields;
+            try {
+                fields = readRecord();
+            } catch (IllegalStateException e) {
+                return new Row(startLine, Map.of(), e.getMessage());
+            }
+            if (fields == null) {
+                return null;
+            }
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                continue;
+            }
+            if (fields.size() > header.size()) {
+                return new Row(startLine, Map.of(), "Số cột (" + fields.size()
+                        + ") nhiều hơn dòng tiêu đề (" + header.size() + ")");
+            }
+            
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (int i = 0; i < fields.size(); i++) {
+                String column = header.get(i);
+                String value = fields.get(i).trim();
+                if (column != null && !value.isEmpty()) {
+                    values.put(column, value);
+                }
+            }
+            return new Row(startLine, values, null);
+        }
+    }
+    
+    // Xem dòng đầu (để chọn dấu phân cách) mà không tiêu thụ nó
+    private String peekFirstLine() throws IOException {
+        reader.mark(8192);
+        String first = reader.readLine();
+        reader.reset();
+        return first;
+    }
+    
+    /**
+     * Đọc một bản ghi CSV (có thể gồm nhiều dòng vật lý nếu giá trị trong "..." chứa xuống dòng)
+     * @return null nếu hết file
+     */
+    private List<String> readRecord() throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        line++;
+        
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (c != -1) {
+            char ch = (char) c;
+            if (quoted) {
+                if (ch == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (next != -1) {
+                            reader.reset();
+                        }
+                    }
+                } else {
+                    if (ch == '\n') {
+                        line++;
+                    }
+                    field.append(ch);
+                }
+            } else if (ch == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (ch == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (ch == '\n') {
+                break;
+            } else if (ch != '\r') {
+                field.append(ch);
+            }
+            c = reader.read();
+        }
+        if (quoted) {
+            throw new IllegalStateException("Thiếu dấu \" đóng giá trị");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+    
+    private static void putColumn(Map<String, Object> values, String name, Object value) {
+        String column = COLUMN_BY_KEY.get(key(name));
+        if (column != null && value != null) {
+            values.put(column, value instanceof String text ? text.trim() : value);
+        }
+    }
+    
+    private static String key(String name) {
+        return name.replace("_", "").replace(" ", "").trim().toLowerCase(Locale.ROOT);
+    }
+    
+    private static String stripBom(String text) {
+        return !text.isEmpty() && text.charAt(0) == '\uFEFF' ? text.substring(1) : text;
+    }
+}
@@ -0,0 +1,112 @@
+package com.sachcu.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sachcu.repository.BookRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Service: JsonStreamingService
+ * Mô tả: Ghi danh sách lớn ra response theo kiểu streaming
+ * 
+ * - Đọc từng dòng từ Stream của repository (JDBC đọc theo lô, không nạp hết vào RAM)
+ * - Chuyển từng dòng sang DTO và ghi ngay bằng Jackson JsonGenerator
+ * - Cứ mỗi lô thì clear persistence context để entity đã ghi được thu hồi
+ * → Bộ nhớ dùng không phụ thuộc số dòng
+ * 
+ * Định dạng: mảng JSON (mặc định, giống response cũ), NDJSON (mỗi dòng một object),
+ * hoặc mảng CBOR / Smile (cùng ObjectMapper với converter nhị phân của Spring MVC)
+ */
+@Service
+public class JsonStreamingService {
+    
+    private static final int BATCH_SIZE = Integer.parseInt(BookRepository.STREAM_FETCH_SIZE);
+    
+    private final Map<ResponseFormat, ObjectMapper> mappers = new EnumMap<>(ResponseFormat.class);
+    private final TransactionTemplate readOnlyTransaction;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    public JsonStreamingService(ObjectMapper objectMapper,
+                                MappingJackson2CborHttpMessageConverter cborConverter,
+                                MappingJackson2SmileHttpMessageConverter smileConverter,
+                                PlatformTransactionManager transactionManager) {
+        this.mappers.put(ResponseFormat.JSON, objectMapper);
+        this.mappers.put(ResponseFormat.NDJSON, objectMapper);
+        this.mappers.put(ResponseFormat.CBOR, cborConverter.getObjectMapper());
+        this.mappers.put(ResponseFormat.SMILE, smileConverter.getObjectMapper());
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+    
+    /**
+     * Ghi một object (không đọc DB) theo định dạng, dùng khi API streaming trả về dữ liệu nhỏ
+     * NDJSON không áp dụng cho một object nên được ghi như JSON
+     */
+    public StreamingResponseBody write(Object value, ResponseFormat format) {
+        ObjectMapper objectMapper = mappers.get(format);
+        return outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.writeObject(value);
+            }
+        };
+    }
+    
+    /**
+     * @param rows Mở Stream dữ liệu (được gọi bên trong transaction read-only)
+     * @param mapper Chuyển một dòng sang DTO
+     * @param format NDJSON: mỗi dòng một object; định dạng khác: một mảng
+     */
+    public <T> StreamingResponseBody stream(Supplier<Stream<T>> rows, Function<T, ?> mapper, ResponseFormat format) {
+        boolean ndjson = format == ResponseFormat.NDJSON;
+        ObjectMapper objectMapper = mappers.get(format);
+        return outputStream -> readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<T> stream = rows.get();
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                if (ndjson) {
+                    generator.setRootValueSeparator(null);
+                } else {
+                    generator.writeStartArray();
+                }
+                
+                int count = 0;
+                Iterator<T> iterator = stream.iterator();
+                while (iterator.hasNext()) {
+                    generator.writeObject(mapper.apply(iterator.next()));
+                    if (ndjson) {
+                        generator.writeRaw('\n');
+                    }
+                    if (++count % BATCH_SIZE == 0) {
+                        entityManager.clear();
+                        generator.flush();
+                    }
+                }
+                
+                if (!ndjson) {
+                    generator.writeEndArray();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,105 @@
+package com.sachcu.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sachcu.dto.response.LocationResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Service: LocationService
+ * Mô tả: Danh mục tỉnh/thành Việt Nam
+ * APIs:
+ * - GET /locations/provinces - Danh sách tỉnh/thành
+ * 
+ * Dữ liệu đóng gói sẵn (classpath, cùng định dạng provinces.open-api.vn/api/?depth=1),
+ * nạp MỘT lần khi khởi động vào các mảng gọn:
+ * - Mảng code + mảng tên theo thứ tự file
+ * - byCode: chỉ số sắp theo code để tra cứu nhị phân
+ * 
+ * Quận/huyện và phường/xã chưa được đóng gói: frontend vẫn tra cứu qua provinces.open-api.vn
+ */
+@Slf4j
+@Service
+public class LocationService {
+    
+    private final int[] codes;
+    private final String[] names;
+    private final int[] byCode;
+    
+    public LocationService(ObjectMapper objectMapper,
+                           @Value("${locations.dataset:classpath:locations/vn-provinces.json}") Resource dataset) {
+        try (InputStream input = dataset.getInputStream()) {
+            JsonNode root = objectMapper.readTree(input);
+            this.codes = new int[root.size()];
+            this.names = new String[root.size()];
+            for (int i = 0; i < root.size(); i++) {
+                codes[i] = root.get(i).path("code").asInt();
+                names[i] = root.get(i).path("name").asText();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Không thể đọc dữ liệu đơn vị hành chính: " + dataset, e);
+        }
+        this.byCode = IntStream.range(0, codes.length)
+                .boxed()
+                .sorted((a, b) -> Integer.compare(codes[a], codes[b]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        
+        log.info("Đã nạp {} tỉnh/thành", codes.length);
+    }
+    
+    public List<LocationResponse> getProvinces() {
+        List<LocationResponse> result = new ArrayList<>(codes.length);
+        for (int i = 0; i < codes.length; i++) {
+            result.add(new LocationResponse(codes[i], names[i]));
+        }
+        return result;
+    }
+    
+    /**
+     * Tên tỉnh/thành theo mã lưu trong DB (VD: "79" → "Thành phố Hồ Chí Minh")
+     * @return null nếu mã không hợp lệ hoặc không có trong dữ liệu
+     */
+    public String getProvinceName(String code) {
+        if (code == null || code.isBlank()) {
+            return null;
+        }
+        try {
+            int index = indexOf(Integer.parseInt(code.trim()));
+            return index < 0 ? null : names[index];
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+    
+    // ========================================================================
+    // PRIVATE HELPER METHODS
+    // ========================================================================
+    
+    private int indexOf(int code) {
+        int low = 0;
+        int high = byCode.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midCode = codes[byCode[mid]];
+            if (midCode < code) {
+                low = mid + 1;
+            } else if (midCode > code) {
+                high = mid - 1;
+            } else {
+                return byCode[mid];
+            }
+        }
+        return -1;
+    }
+}
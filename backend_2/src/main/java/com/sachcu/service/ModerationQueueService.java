@@ -0,0 +1,172 @@
+package com.sachcu.service;
+
+import com.sachcu.dto.projection.BookListing;
+import com.sachcu.dto.response.ModerationBatchResponse;
+import com.sachcu.dto.response.PostResponse;
+import com.sachcu.entity.Post;
+import com.sachcu.exception.ModerationLeaseException;
+import com.sachcu.exception.ResourceNotFoundException;
+import com.sachcu.repository.BookRepository;
+import com.sachcu.repository.ModerationQueueRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service: ModerationQueueService
+ * Mô tả: Chia bài PENDING cho nhiều Admin duyệt cùng lúc, không ai duyệt trùng bài
+ * 
+ * - claim: nhận tối đa N bài chờ lâu nhất, giữ trong moderation.lease-minutes phút
+ * - complete: ghi kết quả (APPROVED/DECLINED) qua AdminService.updatePostStatus rồi trả lease
+ * - release: trả các bài chưa duyệt về hàng đợi
+ * - updateStatus: đổi trạng thái trực tiếp (ngoài hàng đợi), không được ghi đè bài Admin khác đang giữ
+ * - Lease hết hạn thì bài tự quay lại hàng đợi; Admin cũ vẫn ghi kết quả được nếu chưa ai nhận lại
+ */
+@Service
+public class ModerationQueueService {
+    
+    private final ModerationQueueRepository moderationQueueRepository;
+    private final BookRepository bookRepository;
+    private final BookListingMapper bookListingMapper;
+    private final AdminService adminService;
+    
+    private final int leaseMinutes;
+    private final int maxClaim;
+    
+    // Từ lúc khởi động
+    private final AtomicLong claimedPosts = new AtomicLong();
+    private final AtomicLong completedPosts = new AtomicLong();
+    private final AtomicLong lostLeases = new AtomicLong();
+    
+    public ModerationQueueService(ModerationQueueRepository moderationQueueRepository,
+                                  BookRepository bookRepository,
+                                  BookListingMapper bookListingMapper,
+                                  AdminService adminService,
+                                  @Value("${moderation.lease-minutes:15}") int leaseMinutes,
+                                  @Value("${moderation.max-claim:50}") int maxClaim) {
+        this.moderationQueueRepository = moderationQueueRepository;
+        this.bookRepository = bookRepository;
+        this.bookListingMapper = bookListingMapper;
+        this.adminService = adminService;
+        this.leaseMinutes = leaseMinutes;
+        this.maxClaim = maxClaim;
+    }
+    
+    /**
+     * Nhận lô bài chờ duyệt tiếp theo
+     * Các bài Admin này đang giữ được trả lại trước (và được gia hạn)
+     * 
+     * @param limit Số bài muốn nhận (1..moderation.max-claim)
+     */
+    @Transactional
+    public ModerationBatchResponse claim(Integer adminID, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plusMinutes(leaseMinutes);
+        
+        List<Integer> postIDs = moderationQueueRepository.lockClaimable(adminID, now,
+                Math.max(1, Math.min(limit, maxClaim)));
+        if (postIDs.isEmpty()) {
+            return new ModerationBatchResponse(List.of(), until);
+        }
+        moderationQueueRepository.lease(postIDs, adminID, until);
+        claimedPosts.addAndGet(postIDs.size());
+        
+        // Giữ thứ tự hàng đợi (findListingsByPostIds không đảm bảo thứ tự)
+        Map<Integer, Integer> order = new HashMap<>();
+        for (int i = 0; i < postIDs.size(); i++) {
+            order.put(postIDs.get(i), i);
+        }
+        List<PostResponse> posts = bookRepository.findListingsByPostIds(Post.PostStatus.PENDING, postIDs).stream()
+                .sorted(Comparator.comparing((BookListing listing) -> order.get(listing.getPostID())))
+                .map(bookListingMapper::toPostResponse)
+                .toList();
+        return new ModerationBatchResponse(posts, until);
+    }
+    
+    /**
+     * Ghi kết quả duyệt cho một bài đang giữ
+     * 
+     * @param expectedVersion Phiên bản lúc nhận bài (từ If-Match), người bán sửa bài trong lúc đó → 412
+     * @throws ModerationLeaseException Bài đã được Admin khác nhận (409)
+     */
+    @Transactional
+    public PostResponse complete(Integer adminID, Integer postID, String status, Integer expectedVersion) {
+        Post.PostStatus decision;
+        try {
+            decision = Post.PostStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Trạng thái không hợp lệ: " + status);
+        }
+        if (decision != Post.PostStatus.APPROVED && decision != Post.PostStatus.DECLINED) {
+            throw new RuntimeException("Hàng đợi duyệt bài chỉ nhận APPROVED hoặc DECLINED");
+        }
+        
+        ModerationQueueRepository.Lease lease = moderationQueueRepository.lockLease(postID)
+                .orElseThrow(() -> new ResourceNotFoundException("Bài đăng không tồn tại"));
+        // Dòng đã bị khóa: claimed_by vẫn là Admin này nghĩa là chưa ai nhận lại, kể cả khi lease đã hết hạn
+        if (!adminID.equals(lease.claimedBy())) {
+            lostLeases.incrementAndGet();
+            throw new ModerationLeaseException();
+        }
+        
+        PostResponse response = adminService.updatePostStatus(postID, decision.name(), expectedVersion);
+        moderationQueueRepository.release(List.of(postID), adminID);
+        completedPosts.incrementAndGet();
+        return response;
+    }
+    
+    /**
+     * Đổi trạng thái trực tiếp (PUT /admin/posts/{postID}/status), không cần nhận bài trước
+     * Ghi xong thì bỏ lease (nếu có) để Admin đang giữ không ghi đè kết quả này
+     * 
+     * @throws ModerationLeaseException Bài đang được Admin khác giữ, lease còn hạn (409)
+     */
+    @Transactional
+    public PostResponse updateStatus(Integer adminID, Integer postID, String status, Integer expectedVersion) {
+        ModerationQueueRepository.Lease lease = moderationQueueRepository.lockLease(postID)
+                .orElseThrow(() -> new ResourceNotFoundException("Bài đăng không tồn tại"));
+        if (lease.claimedBy() != null && !lease.claimedBy().equals(adminID)
+                && lease.expiresAt() != null && lease.expiresAt().isAfter(LocalDateTime.now())) {
+            throw new ModerationLeaseException(ModerationLeaseException.HELD_BY_OTHER_MESSAGE);
+        }
+        
+        PostResponse response = adminService.updatePostStatus(postID, status, expectedVersion);
+        if (lease.claimedBy() != null) {
+            moderationQueueRepository.release(List.of(postID), lease.claimedBy());
+        }
+        return response;
+    }
+    
+    /**
+     * Trả các bài chưa duyệt về hàng đợi
+     * 
+     * @return Số bài đã trả (bài không do Admin này giữ được bỏ qua)
+     */
+    @Transactional
+    public int release(Integer adminID, List<Integer> postIDs) {
+        return moderationQueueRepository.release(postIDs, adminID);
+    }
+    
+    /**
+     * Số liệu cho GET /admin/metrics
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> stats() {
+        ModerationQueueRepository.QueueCounts counts = moderationQueueRepository.countQueue(LocalDateTime.now());
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("pending", counts.pending());
+        result.put("leased", counts.leased());
+        result.put("claimedPosts", claimedPosts.get());
+        result.put("completedPosts", completedPosts.get());
+        result.put("lostLeases", lostLeases.get());
+        return result;
+    }
+}
@@ -0,0 +1,186 @@
+package com.sachcu.service;
+
+import com.sachcu.entity.Post;
+import com.sachcu.event.ListingChange;
+import com.sachcu.event.ListingChangedEvent;
+import com.sachcu.repository.BookRepository;
+import com.sachcu.repository.PostArchiveRepository;
+import com.sachcu.repository.PostRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service: PostArchiveService
+ * Mô tả: Giữ bảng posts/book nhỏ cho các truy vấn danh sách
+ * 
+ * - Hết hạn: bài APPROVED quá expires_at (đặt khi Admin duyệt, sau posts.expiry.days ngày)
+ *   được chuyển sang EXPIRED, người bán sửa bài để gửi duyệt lại
+ * - Lưu trữ: bài SOLD lâu hơn sold-after-days, bài DECLINED/EXPIRED lâu hơn inactive-after-days
+ *   (tính từ lần cập nhật cuối) được chuyển sang các bảng *_archive
+ * - Cả hai chạy theo lô batch-size bài, mỗi lô một transaction, trong cùng một worker định kỳ
+ * - GET /my-posts và các API Admin đọc cả bảng chính lẫn archive
+ */
+@Slf4j
+@Service
+public class PostArchiveService {
+    
+    private final PostRepository postRepository;
+    private final BookRepository bookRepository;
+    private final PostArchiveRepository postArchiveRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    
+    private final int batchSize;
+    private final int expiryDays;
+    private final int soldAfterDays;
+    private final int inactiveAfterDays;
+    
+    // Từ lúc khởi động
+    private final AtomicLong expiredCount = new AtomicLong();
+    private final AtomicLong archivedCount = new AtomicLong();
+    private volatile LocalDateTime lastRunAt;
+    
+    public PostArchiveService(PostRepository postRepository,
+                              BookRepository bookRepository,
+                              PostArchiveRepository postArchiveRepository,
+                              ApplicationEventPublisher eventPublisher,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${posts.archive.batch-size:200}") int batchSize,
+                              @Value("${posts.expiry.days:60}") int expiryDays,
+                              @Value("${posts.archive.sold-after-days:30}") int soldAfterDays,
+                              @Value("${posts.archive.inactive-after-days:90}") int inactiveAfterDays) {
+        this.postRepository = postRepository;
+        this.bookRepository = bookRepository;
+        this.postArchiveRepository = postArchiveRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.expiryDays = expiryDays;
+        this.soldAfterDays = soldAfterDays;
+        this.inactiveAfterDays = inactiveAfterDays;
+    }
+    
+    /**
+     * Hạn hiển thị cho bài vừa được duyệt
+     * 
+     * @return null nếu posts.expiry.days <= 0 (không hết hạn)
+     */
+    public LocalDateTime expiresAt(LocalDateTime approvedAt) {
+        return expiryDays > 0 ? approvedAt.plusDays(expiryDays) : null;
+    }
+    
+    /**
+     * Worker: gỡ bài quá hạn rồi chuyển bài đã kết thúc sang archive
+     * Lô lỗi (VD: xung đột khi người bán đang sửa) được bỏ qua, lần chạy sau thử lại
+     */
+    @Scheduled(fixedDelayString = "${posts.archive.interval-ms:3600000}",
+               initialDelayString = "${posts.archive.initial-delay-ms:60000}")
+    public synchronized void run() {
+        try {
+            expireListings();
+            archivePosts();
+        } catch (Exception e) {
+            log.error("Lỗi khi lưu trữ bài đăng: {}", e.getMessage());
+        }
+        lastRunAt = LocalDateTime.now();
+    }
+    
+    /**
+     * @return Số bài đã chuyển sang EXPIRED
+     */
+    public int expireListings() {
+        int total = 0;
+        int updated;
+        do {
+            Integer count = transactionTemplate.execute(status -> expireBatch(LocalDateTime.now()));
+            updated = count != null ? count : 0;
+            total += updated;
+        } while (updated >= batchSize);
+        
+        if (total > 0) {
+            expiredCount.addAndGet(total);
+            log.info("Đã gỡ {} bài đăng hết hạn", total);
+        }
+        return total;
+    }
+    
+    /**
+     * @return Số bài đã chuyển sang archive
+     */
+    public int archivePosts() {
+        int total = 0;
+        int archived;
+        do {
+            Integer count = transactionTemplate.execute(status -> archiveBatch(LocalDateTime.now()));
+            archived = count != null ? count : 0;
+            total += archived;
+        } while (archived >= batchSize);
+        
+        if (total > 0) {
+            archivedCount.addAndGet(total);
+            log.info("Đã lưu trữ {} bài đăng", total);
+        }
+        return total;
+    }
+    
+    /**
+     * Số liệu cho GET /admin/metrics
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("expiredCount", expiredCount.get());
+        result.put("archivedCount", archivedCount.get());
+        result.put("lastRunAt", lastRunAt);
+        return result;
+    }
+    
+    // ========================================================================
+    // PRIVATE HELPER METHODS
+    // ========================================================================
+    
+    private int expireBatch(LocalDateTime now) {
+        List<Integer> postIDs = postRepository.findExpiredIds(Post.PostStatus.APPROVED, now,
+                PageRequest.of(0, batchSize));
+        if (postIDs.isEmpty()) {
+            return 0;
+        }
+        postRepository.updateStatusByIds(postIDs, Post.PostStatus.APPROVED, Post.PostStatus.EXPIRED, now);
+        
+        // Bài vừa bị người bán sửa / Admin đổi trạng thái không còn APPROVED nên không có trong kết quả
+        List<ListingChange> changes = bookRepository.findListingsByPostIds(Post.PostStatus.EXPIRED, postIDs).stream()
+                .map(listing -> new ListingChange(listing.getPostID(), listing.getBookID(),
+                        Post.PostStatus.APPROVED, listing))
+                .toList();
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(new ListingChangedEvent(changes));
+        }
+        // Trả về số ID đã đọc để vòng lặp biết còn lô tiếp theo hay không
+        return postIDs.size();
+    }
+    
+    private int archiveBatch(LocalDateTime now) {
+        List<PostArchiveRepository.Candidate> candidates = postArchiveRepository.lockArchivable(
+                now.minusDays(soldAfterDays), now.minusDays(inactiveAfterDays), batchSize);
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+        postArchiveRepository.archive(candidates);
+        
+        eventPublisher.publishEvent(new ListingChangedEvent(candidates.stream()
+                .map(candidate -> ListingChange.deleted(candidate.postID(), candidate.bookID(), candidate.status()))
+                .toList()));
+        return candidates.size();
+    }
+}
@@ -0,0 +1,93 @@
+package com.sachcu.service;
+
+import com.sachcu.dto.response.ImportJobResponse;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Job: PostImportJob
+ * Mô tả: Trạng thái một lượt nhập bài đăng hàng loạt, lưu trong bộ nhớ (PostImportService)
+ * Worker ghi, request GET đọc → các method đều synchronized
+ */
+public class PostImportJob {
+    
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+    
+    private final String jobID;
+    private final Integer userID;
+    private final String fileName;
+    private final int maxErrors;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+    
+    private Status status = Status.QUEUED;
+    private int totalRows = 0;
+    private int importedRows = 0;
+    private int failedRows = 0;
+    private final List<ImportJobResponse.RowError> errors = new ArrayList<>();
+    private boolean errorsTruncated = false;
+    private String message;
+    private LocalDateTime finishedAt;
+    
+    public PostImportJob(String jobID, Integer userID, String fileName, int maxErrors) {
+        this.jobID = jobID;
+        this.userID = userID;
+        this.fileName = fileName;
+        this.maxErrors = maxErrors;
+    }
+    
+    public String getJobID() {
+        return jobID;
+    }
+    
+    public Integer getUserID() {
+        return userID;
+    }
+    
+    public synchronized boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+    
+    public synchronized void start() {
+        status = Status.RUNNING;
+    }
+    
+    public synchronized int rowRead() {
+        return ++totalRows;
+    }
+    
+    public synchronized void imported(int rows) {
+        importedRows += rows;
+    }
+    
+    public synchronized void rowFailed(int line, String error) {
+        failedRows++;
+        if (errors.size() < maxErrors) {
+            errors.add(new ImportJobResponse.RowError(line, error));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+    
+    public synchronized void complete() {
+        status = Status.COMPLETED;
+        finishedAt = LocalDateTime.now();
+    }
+    
+    public synchronized void fail(String reason) {
+        status = Status.FAILED;
+        message = reason;
+        finishedAt = LocalDateTime.now();
+    }
+    
+    public synchronized ImportJobResponse toResponse() {
+        return new ImportJobResponse(jobID, status.name(), fileName, totalRows, importedRows, failedRows,
+                new ArrayList<>(errors), errorsTruncated, message, createdAt, finishedAt);
+    }
+}
@@ -0,0 +1,298 @@
+package com.sachcu.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sachcu.dto.projection.BookListing;
+import com.sachcu.dto.request.CreatePostRequest;
+import com.sachcu.dto.response.ImportJobResponse;
+import com.sachcu.entity.Post;
+import com.sachcu.entity.User;
+import com.sachcu.event.ListingChange;
+import com.sachcu.event.ListingChangedEvent;
+import com.sachcu.exception.ResourceNotFoundException;
+import com.sachcu.repository.BookRepository;
+import com.sachcu.repository.PostBatchRepository;
+import com.sachcu.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Service: PostImportService
+ * Mô tả: Nhập nhiều bài đăng từ một file CSV/NDJSON (dành cho nhà sách, người bán nhiều sách)
+ * APIs:
+ * - POST /my-posts/import - Tải file lên, trả về jobID (User)
+ * - GET /my-posts/import/{jobID} - Xem tiến độ và lỗi từng dòng (User)
+ * 
+ * - File được lưu tạm rồi xử lý ở worker nền, đọc từng dòng (không nạp cả file)
+ * - Mỗi dòng được kiểm tra như POST /posts, danh mục tra theo tên/ID từ snapshot của CategoryService
+ * - Dòng hợp lệ được gom theo lô, mỗi lô một transaction ghi bằng JDBC batch (PostBatchRepository)
+ * - Dòng lỗi không chặn các dòng khác; lô ghi lỗi thì chỉ các dòng của lô đó bị đánh lỗi
+ */
+@Slf4j
+@Service
+public class PostImportService {
+    
+    private final PostBatchRepository postBatchRepository;
+    private final BookRepository bookRepository;
+    private final UserRepository userRepository;
+    private final CategoryService categoryService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    
+    private final int chunkSize;
+    private final int maxRows;
+    private final int maxErrors;
+    
+    // Job đã xong được giữ lại một thời gian để client kịp lấy kết quả
+    private final Cache<String, PostImportJob> jobs;
+    
+    // Một worker: các lượt nhập chạy lần lượt, không chiếm hết connection pool
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "post-import");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private record PendingRow(int line, CreatePostRequest request) {
+    }
+    
+    public PostImportService(PostBatchRepository postBatchRepository,
+                             BookRepository bookRepository,
+                             UserRepository userRepository,
+                             CategoryService categoryService,
+                             ObjectMapper objectMapper,
+                             Validator validator,
+                             ApplicationEventPublisher eventPublisher,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${books.import.chunk-size:200}") int chunkSize,
+                             @Value("${books.import.max-rows:5000}") int maxRows,
+                             @Value("${books.import.max-errors:500}") int maxErrors,
+                             @Value("${books.import.job-ttl:1h}") Duration jobTtl) {
+        this.postBatchRepository = postBatchRepository;
+        this.bookRepository = bookRepository;
+        this.userRepository = userRepository;
+        this.categoryService = categoryService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxRows = maxRows;
+        this.maxErrors = maxErrors;
+        this.jobs = Caffeine.newBuilder()
+                .expireAfterWrite(jobTtl)
+                .build();
+    }
+    
+    /**
+     * Nhận file và đưa vào hàng đợi xử lý
+     * 
+     * @param userID ID user (từ JWT token)
+     * @param file File .csv hoặc .ndjson (UTF-8)
+     * @return Job ở trạng thái QUEUED
+     */
+    public ImportJobResponse startImport(Integer userID, MultipartFile file) throws IOException {
+        User user = userRepository.findById(userID)
+                .orElseThrow(() -> new ResourceNotFoundException("User không tồn tại với ID: " + userID));
+        if (user.getStatus() != User.UserStatus.ACTIVE) {
+            throw new RuntimeException("Tài khoản của bạn đang bị tạm khóa hoặc vô hiệu hóa");
+        }
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("File nhập không được để trống");
+        }
+        ImportRowReader.Format format = ImportRowReader.Format.from(file.getOriginalFilename(), file.getContentType());
+        
+        // File multipart bị xóa khi request kết thúc nên phải chép ra file tạm riêng
+        Path tempFile = Files.createTempFile("post-import-", "." + format.name().toLowerCase());
+        file.transferTo(tempFile);
+        
+        PostImportJob job = new PostImportJob(UUID.randomUUID().toString(), userID,
+                file.getOriginalFilename(), maxErrors);
+        // Mỗi user chỉ một lượt nhập chưa xong tại một thời điểm
+        synchronized (jobs) {
+            boolean running = jobs.asMap().values().stream()
+                    .anyMatch(existing -> existing.getUserID().equals(userID) && !existing.isFinished());
+            if (running) {
+                Files.deleteIfExists(tempFile);
+                throw new RuntimeException("Bạn đang có một lượt nhập chưa hoàn tất, vui lòng đợi");
+            }
+            jobs.put(job.getJobID(), job);
+        }
+        executor.execute(() -> run(job, tempFile, format));
+        return job.toResponse();
+    }
+    
+    /**
+     * Xem tiến độ một lượt nhập (chỉ chủ job)
+     */
+    public ImportJobResponse getJob(String jobID, Integer userID) {
+        PostImportJob job = jobs.getIfPresent(jobID);
+        if (job == null || !job.getUserID().equals(userID)) {
+            throw new ResourceNotFoundException("Không tìm thấy lượt nhập với ID: " + jobID);
+        }
+        return job.toResponse();
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    // ========================================================================
+    // PRIVATE HELPER METHODS
+    // ========================================================================
+    
+    private void run(PostImportJob job, Path file, ImportRowReader.Format format) {
+        job.start();
+        long start = System.currentTimeMillis();
+        try (ImportRowReader reader = new ImportRowReader(
+                Files.newBufferedReader(file, StandardCharsets.UTF_8), format, objectMapper)) {
+            List<PendingRow> chunk = new ArrayList<>(chunkSize);
+            ImportRowReader.Row row;
+            while ((row = reader.next()) != null) {
+                if (job.rowRead() > maxRows) {
+                    job.fail("File vượt quá " + maxRows + " dòng, các dòng từ dòng " + row.line() + " không được nhập");
+                    break;
+                }
+                CreatePostRequest request = toRequest(row, job);
+                if (request == null) {
+                    continue;
+                }
+                chunk.add(new PendingRow(row.line(), request));
+                if (chunk.size() >= chunkSize) {
+                    writeChunk(job, chunk);
+                    chunk.clear();
+                }
+            }
+            writeChunk(job, chunk);
+            if (!job.isFinished()) {
+                job.complete();
+            }
+        } catch (IllegalArgumentException e) {
+            job.fail(e.getMessage());
+        } catch (Exception e) {
+            log.error("Lượt nhập {} thất bại: {}", job.getJobID(), e.getMessage());
+            job.fail("Không thể đọc file: " + e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Không thể xóa file tạm {}: {}", file, e.getMessage());
+            }
+        }
+        
+        ImportJobResponse result = job.toResponse();
+        log.info("Lượt nhập {} của user {}: {} dòng, {} bài đã tạo, {} dòng lỗi trong {} ms",
+                job.getJobID(), job.getUserID(), result.getTotalRows(), result.getImportedRows(),
+                result.getFailedRows(), System.currentTimeMillis() - start);
+    }
+    
+    /**
+     * Chuyển một dòng sang CreatePostRequest và kiểm tra hợp lệ
+     * @return null nếu dòng lỗi (lỗi đã được ghi vào job)
+     */
+    private CreatePostRequest toRequest(ImportRowReader.Row row, PostImportJob job) {
+        if (row.error() != null) {
+            job.rowFailed(row.line(), row.error());
+            return null;
+        }
+        
+        Map<String, Object> values = new HashMap<>(row.values());
+        Object category = values.remove("category");
+        Object categoryID = values.get("categoryID");
+        Object categoryValue = categoryID != null ? categoryID : category;
+        if (categoryValue != null) {
+            Integer resolved = categoryService.resolveCategoryID(categoryValue.toString());
+            if (resolved == null) {
+                job.rowFailed(row.line(), "Danh mục không tồn tại: " + categoryValue);
+                return null;
+            }
+            values.put("categoryID", resolved);
+        }
+        
+        CreatePostRequest request;
+        try {
+            request = objectMapper.convertValue(values, CreatePostRequest.class);
+        } catch (IllegalArgumentException e) {
+            job.rowFailed(row.line(), "Sai kiểu dữ liệu (VD: giá phải là số)");
+            return null;
+        }
+        
+        Set<ConstraintViolation<CreatePostRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            job.rowFailed(row.line(), violations.stream()
+                    .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                    .map(ConstraintViolation::getMessage)
+                    .collect(Collectors.joining("; ")));
+            return null;
+        }
+        return request;
+    }
+    
+    private void writeChunk(PostImportJob job, List<PendingRow> chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<CreatePostRequest> requests = chunk.stream().map(PendingRow::request).toList();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Integer> postIDs = postBatchRepository.insertPosts(job.getUserID(), requests);
+                publishCreated(postIDs);
+            });
+            job.imported(chunk.size());
+        } catch (Exception e) {
+            log.error("Lượt nhập {}: không thể ghi lô dòng {}-{}: {}", job.getJobID(),
+                    chunk.get(0).line(), chunk.get(chunk.size() - 1).line(), e.getMessage());
+            for (PendingRow row : chunk) {
+                job.rowFailed(row.line(), "Không thể lưu bài đăng (lỗi khi ghi cả lô dòng "
+                        + chunk.get(0).line() + "-" + chunk.get(chunk.size() - 1).line() + ")");
+            }
+        }
+    }
+    
+    // Một event cho cả lô, listener xử lý sau khi transaction của lô commit
+    private void publishCreated(List<Integer> postIDs) {
+        Map<Integer, BookListing> listingByPostID = new LinkedHashMap<>();
+        for (BookListing listing : bookRepository.findListingsByPostIds(Post.PostStatus.PENDING, postIDs)) {
+            listingByPostID.put(listing.getPostID(), listing);
+        }
+        List<ListingChange> changes = postIDs.stream()
+                .filter(listingByPostID::containsKey)
+                .map(postID -> {
+                    BookListing listing = listingByPostID.get(postID);
+                    return new ListingChange(postID, listing.getBookID(), null, listing);
+                })
+                .toList();
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(new ListingChangedEvent(changes));
+        }
+    }
+}
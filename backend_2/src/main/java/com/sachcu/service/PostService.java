@@ -2,16 +2,24 @@ package com.sachcu.service;
 
 import com.sachcu.dto.request.CreatePostRequest;
 import com.sachcu.dto.request.UpdatePostRequest;
+import com.sachcu.dto.projection.BookListing;
 import com.sachcu.dto.response.PostResponse;
 import com.sachcu.dto.response.BookDetailResponse;
 import com.sachcu.entity.*;
+import com.sachcu.event.ListingChange;
+import com.sachcu.event.ListingChangedEvent;
+import com.sachcu.exception.PreconditionFailedException;
 import com.sachcu.exception.ResourceNotFoundException;
 import com.sachcu.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -19,10 +27,10 @@ import java.util.stream.Collectors;
  * Mô tả: Xử lý logic liên quan đến Post (Bài đăng bán sách)
  * 
  * Cập nhật phiên bản mới:
- * - Tích hợp FileStorageService để quản lý ảnh
- * - Tự động xóa ảnh cũ khi cập nhật/xóa bài đăng
+ * - Tự động xóa ảnh cũ khi cập nhật/xóa bài đăng (qua FileDeletionOutboxService, sau khi commit)
  * - Kiểm tra quyền sở hữu chặt chẽ
  * - Ẩn thông tin liên hệ và người đăng cho Guest
+ * - Phát ListingChangedEvent để cập nhật index tìm kiếm
  * 
  * APIs:
  * - POST /posts - Đăng bài bán sách mới (User)
@@ -39,7 +47,11 @@ public class PostService {
     private final BookRepository bookRepository;
     private final UserRepository userRepository;
     private final CategoryRepository categoryRepository;
-    private final FileStorageService fileStorageService;
+    private final FileDeletionOutboxService fileDeletionOutboxService;
+    private final BookListingMapper bookListingMapper;
+    private final PostViewStatsService postViewStatsService;
+    private final PostArchiveRepository postArchiveRepository;
+    private final ApplicationEventPublisher eventPublisher;
     
     /**
      * Tạo bài đăng mới
@@ -97,6 +109,7 @@ public class PostService {
         post.setStatus(Post.PostStatus.PENDING); // Mặc định PENDING - chờ Admin duyệt
         
         Post savedPost = postRepository.save(post);
+        publishChange(savedPost, null);
         
         return convertToResponse(savedPost);
     }
@@ -122,20 +135,57 @@ public class PostService {
         return convertToDetailResponse(post, isAuthenticated);
     }
     
+    /**
+     * Bài đăng có đang hiển thị công khai không (tồn tại và đã duyệt)
+     * Dùng trước khi so ETag để bài đã gỡ không được trả 304
+     */
+    public boolean isApproved(Integer postID) {
+        return postRepository.existsByPostIDAndStatus(postID, Post.PostStatus.APPROVED);
+    }
+    
     /**
      * Lấy tất cả bài đăng của chính User
-     * Hiển thị TẤT CẢ bài đăng: PENDING, APPROVED, DECLINED, SOLD
+     * Hiển thị TẤT CẢ bài đăng: PENDING, APPROVED, DECLINED, EXPIRED, SOLD
+     * Bài đã chuyển sang archive được gộp vào (archived = true), mới nhất trước
      * 
      * @param userID ID của user
      * @return List<BookDetailResponse>
      */
     public List<BookDetailResponse> getMyPosts(Integer userID) {
-        List<Post> posts = postRepository.findByUser_UserID(userID);
+        // 1 câu SQL (projection) thay vì lazy load Book/User/Category cho từng bài
+        List<BookListing> listings = postRepository.findListingsByUserId(userID);
         
         // Hiển thị đầy đủ thông tin vì là bài của chính user
-        return posts.stream()
-                .map(post -> convertToDetailResponse(post, true))
+        List<BookDetailResponse> responses = listings.stream()
+                .map(listing -> bookListingMapper.toDetailResponse(listing, true))
                 .collect(Collectors.toList());
+        
+        // Lượt xem: 1 câu IN cho cả danh sách
+        Map<Integer, PostStatsRepository.ViewCounts> counts = postViewStatsService.getCounts(
+                responses.stream().map(BookDetailResponse::getPostID).toList());
+        for (BookDetailResponse response : responses) {
+            PostStatsRepository.ViewCounts viewCounts = counts.get(response.getPostID());
+            response.setViewCount(viewCounts != null ? viewCounts.viewCount() : 0L);
+            response.setUniqueViewers(viewCounts != null ? viewCounts.uniqueViewers() : 0L);
+        }
+        
+        // Bài đã lưu trữ: lượt xem được chép sang archive lúc lưu trữ
+        List<PostArchiveRepository.ArchivedListing> archived = postArchiveRepository.findListingsByUserId(userID);
+        if (archived.isEmpty()) {
+            return responses;
+        }
+        for (PostArchiveRepository.ArchivedListing row : archived) {
+            BookDetailResponse response = bookListingMapper.toDetailResponse(row.listing(), true);
+            response.setViewCount(row.viewCount());
+            response.setUniqueViewers(row.uniqueViewers());
+            response.setArchived(true);
+            responses.add(response);
+        }
+        // Book và Post được tạo cùng lúc nên createdAt của sách dùng được làm thứ tự bài đăng
+        responses.sort(Comparator.comparing(BookDetailResponse::getCreatedAt,
+                        Comparator.nullsLast(Comparator.reverseOrder()))
+                .thenComparing(BookDetailResponse::getPostID, Comparator.reverseOrder()));
+        return responses;
     }
     
     /**
@@ -146,10 +196,12 @@ public class PostService {
      * @param postID ID bài đăng
      * @param userID ID user (từ JWT token)
      * @param request Thông tin cập nhật
-     * @return BookDetailResponse
+     * @param expectedVersion Phiên bản client đang sửa (từ If-Match), null = bỏ qua kiểm tra
+     * @return BookDetailResponse (kèm version mới)
      */
     @Transactional
-    public BookDetailResponse updateMyPost(Integer postID, Integer userID, UpdatePostRequest request) {
+    public BookDetailResponse updateMyPost(Integer postID, Integer userID, UpdatePostRequest request,
+                                           Integer expectedVersion) {
         Post post = postRepository.findById(postID)
                 .orElseThrow(() -> new ResourceNotFoundException("Bài đăng không tồn tại với ID: " + postID));
         
@@ -158,11 +210,15 @@ public class PostService {
             throw new RuntimeException("Bạn không có quyền chỉnh sửa bài đăng này");
         }
         
+        // Bài đã bị sửa/đổi trạng thái sau khi client tải về → 412
+        checkVersion(post, expectedVersion);
+        
         // KHÔNG cho phép sửa nếu bài đã bán
         if (post.getStatus() == Post.PostStatus.SOLD) {
             throw new RuntimeException("Không thể sửa bài đăng đã bán");
         }
         
+        Post.PostStatus previousStatus = post.getStatus();
         Book book = post.getBook();
         String oldImage = book.getImage(); // Lưu ảnh cũ để xóa sau
         
@@ -193,18 +249,8 @@ public class PostService {
         if (request.getImage() != null && !request.getImage().isEmpty() 
                 && !request.getImage().equals(oldImage)) {
             
-            // Xóa ảnh cũ nếu có
-            if (oldImage != null && !oldImage.isEmpty()) {
-                try {
-                    boolean deleted = fileStorageService.deleteFile(oldImage);
-                    if (deleted) {
-                        System.out.println("✅ Đã xóa ảnh cũ: " + oldImage);
-                    }
-                } catch (Exception e) {
-                    // Log lỗi nhưng không throw exception
-                    System.err.println("⚠️ Không thể xóa ảnh cũ: " + e.getMessage());
-                }
-            }
+            // Ảnh cũ được xóa sau khi commit (outbox), rollback thì giữ nguyên
+            fileDeletionOutboxService.enqueue(oldImage);
             
             // Cập nhật ảnh mới
             book.setImage(request.getImage());
@@ -216,15 +262,18 @@ public class PostService {
             book.setDescription(request.getPostDescription());
         }
         
-        // Reset trạng thái về PENDING nếu bài bị DECLINED
+        // Reset trạng thái về PENDING nếu bài bị DECLINED hoặc đã hết hạn (EXPIRED)
         // Cho phép user sửa và gửi lại để Admin duyệt
-        if (post.getStatus() == Post.PostStatus.DECLINED) {
+        if (post.getStatus() == Post.PostStatus.DECLINED || post.getStatus() == Post.PostStatus.EXPIRED) {
             post.setStatus(Post.PostStatus.PENDING);
         }
         
-        // Lưu thay đổi
+        // Post luôn được UPDATE (kể cả khi chỉ Book đổi) để version của bài đăng tăng,
+        // flush ngay để lỗi optimistic lock nổ ra ở đây và response mang version mới
+        post.setUpdatedAt(LocalDateTime.now());
         bookRepository.save(book);
-        Post updatedPost = postRepository.save(post);
+        Post updatedPost = postRepository.saveAndFlush(post);
+        publishChange(updatedPost, previousStatus);
         
         return convertToDetailResponse(updatedPost, true);
     }
@@ -257,27 +306,13 @@ public class PostService {
             );
         }
         
-        // Lấy URL ảnh trước khi xóa bài đăng
-        String imageUrl = post.getBook().getImage();
-        
         // Xóa bài đăng (Book sẽ tự động xóa do ON DELETE CASCADE)
         postRepository.delete(post);
+        eventPublisher.publishEvent(ListingChangedEvent.of(
+                ListingChange.deleted(post.getPostID(), post.getBook().getBookID(), post.getStatus())));
         
-        // Xóa ảnh sau khi xóa bài đăng thành công
-        if (imageUrl != null && !imageUrl.isEmpty()) {
-            try {
-                boolean deleted = fileStorageService.deleteFile(imageUrl);
-                if (deleted) {
-                    System.out.println("✅ Đã xóa ảnh: " + imageUrl);
-                } else {
-                    System.out.println("⚠️ Ảnh không tồn tại hoặc đã bị xóa: " + imageUrl);
-                }
-            } catch (Exception e) {
-                // Log lỗi nhưng không throw exception
-                // Vì bài đăng đã xóa thành công
-                System.err.println("⚠️ Không thể xóa ảnh: " + e.getMessage());
-            }
-        }
+        // Ảnh được xóa sau khi xóa bài đăng thành công (outbox)
+        fileDeletionOutboxService.enqueue(post.getBook().getImage());
     }
     
     /**
@@ -304,7 +339,8 @@ public class PostService {
         
         // Cập nhật trạng thái
         post.setStatus(Post.PostStatus.SOLD);
-        postRepository.save(post);
+        postRepository.saveAndFlush(post);
+        publishChange(post, Post.PostStatus.APPROVED);
         
         // Note: KHÔNG xóa ảnh khi đánh dấu SOLD
         // Vì có thể cần giữ lại để tham khảo
@@ -314,6 +350,25 @@ public class PostService {
     // PRIVATE HELPER METHODS - Convert Entity sang DTO
     // ========================================================================
     
+    /**
+     * So khớp phiên bản client gửi lên (If-Match) với phiên bản đang có trong DB
+     * Hai request cùng qua bước này vẫn được @Version chặn khi flush
+     */
+    private void checkVersion(Post post, Integer expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(post.getVersion())) {
+            throw new PreconditionFailedException();
+        }
+    }
+    
+    /**
+     * Phát ListingChangedEvent với trạng thái hiện tại của bài đăng
+     * Listener chỉ xử lý sau khi transaction commit
+     */
+    private void publishChange(Post post, Post.PostStatus previousStatus) {
+        eventPublisher.publishEvent(ListingChangedEvent.of(new ListingChange(
+                post.getPostID(), post.getBook().getBookID(), previousStatus, bookListingMapper.fromPost(post))));
+    }
+    
     /**
      * Convert Post entity sang PostResponse
      * Dùng cho danh sách bài đăng (My Posts, Admin)
@@ -323,6 +378,7 @@ public class PostService {
         response.setPostID(post.getPostID());
         response.setPostStatus(post.getStatus().name());
         response.setCreatedAt(post.getCreatedAt());
+        response.setVersion(post.getVersion());
 
 
         if (post.getBook() != null) {
@@ -360,6 +416,7 @@ public class PostService {
         response.setImage(book.getImage());
         response.setProvince(book.getProvince());
         response.setDistrict(book.getDistrict());
+        bookListingMapper.fillLocationNames(response);
         response.setCreatedAt(book.getCreatedAt());
         
         // ========== CONTACT INFO (ẨN NẾU CHƯA LOGIN) ==========
@@ -373,6 +430,7 @@ public class PostService {
         response.setPostID(post.getPostID());
         response.setPostDescription(post.getDescription());
         response.setPostStatus(post.getStatus().name());
+        response.setVersion(post.getVersion());
         
         // ========== USER INFORMATION (ẨN NẾU CHƯA LOGIN) ==========
         if (isAuthenticated && post.getUser() != null) {
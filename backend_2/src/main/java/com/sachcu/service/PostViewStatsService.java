@@ -0,0 +1,213 @@
+package com.sachcu.service;
+
+import com.sachcu.repository.PostStatsRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Service: PostViewStatsService
+ * Mô tả: Đếm lượt xem và ước lượng số người xem khác nhau của từng bài đăng
+ * 
+ * - Mỗi lượt xem (GET /posts/{postID}, GET /books/{bookID}, kể cả 304) chỉ cập nhật bộ nhớ:
+ *   LongAdder cho số lượt xem, HyperLogLog cho người xem (user đã login theo email, guest theo IP + User-Agent)
+ * - Worker định kỳ ghi phần chênh lệch xuống post_stats theo lô (JDBC batch upsert),
+ *   không ghi một dòng DB cho mỗi lượt xem
+ * - Sketch được gộp (max từng thanh ghi) với sketch đã lưu nên nhiều instance / khởi động lại vẫn đúng
+ * - Ghi lỗi: số lượt xem được cộng trả lại để lần sau ghi tiếp
+ * - Bài không có lượt xem mới trong một chu kỳ được bỏ khỏi bộ nhớ
+ */
+@Slf4j
+@Service
+public class PostViewStatsService {
+    
+    private static final int MAX_USER_AGENT_LENGTH = 200;
+    
+    private static final class Counter {
+        final LongAdder views = new LongAdder();
+        final HyperLogLog viewers = new HyperLogLog();
+        volatile boolean touched = true;
+    }
+    
+    private record Pending(Integer postID, Counter counter, long viewDelta) {
+    }
+    
+    private final PostStatsRepository postStatsRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    
+    private final ConcurrentHashMap<Integer, Counter> counters = new ConcurrentHashMap<>();
+    
+    // Từ lúc khởi động
+    private final AtomicLong recordedViews = new AtomicLong();
+    private final AtomicLong flushedRows = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    
+    public PostViewStatsService(PostStatsRepository postStatsRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${posts.view-stats.batch-size:500}") int batchSize) {
+        this.postStatsRepository = postStatsRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+    
+    /**
+     * Ghi nhận một lượt xem bài đăng
+     * 
+     * @param viewer Định danh người xem (viewerOf), null = chỉ đếm lượt xem
+     */
+    public void recordView(Integer postID, String viewer) {
+        if (postID == null) {
+            return;
+        }
+        Counter counter = counters.computeIfAbsent(postID, id -> new Counter());
+        counter.views.increment();
+        if (viewer != null) {
+            counter.viewers.add(viewer);
+        }
+        counter.touched = true;
+        recordedViews.incrementAndGet();
+    }
+    
+    /**
+     * Định danh người xem: email nếu đã đăng nhập, ngược lại IP + User-Agent
+     */
+    public static String viewerOf(Principal principal, WebRequest request) {
+        if (principal != null) {
+            return "user:" + principal.getName();
+        }
+        String address = null;
+        if (request instanceof NativeWebRequest nativeRequest) {
+            HttpServletRequest servletRequest = nativeRequest.getNativeRequest(HttpServletRequest.class);
+            if (servletRequest != null) {
+                address = servletRequest.getRemoteAddr();
+            }
+        }
+        String userAgent = request.getHeader("User-Agent");
+        if (userAgent != null && userAgent.length() > MAX_USER_AGENT_LENGTH) {
+            userAgent = userAgent.substring(0, MAX_USER_AGENT_LENGTH);
+        }
+        return "guest:" + address + "|" + userAgent;
+    }
+    
+    /**
+     * Số liệu đã ghi DB cộng lượt xem chưa ghi (số người xem chỉ cập nhật sau mỗi lần flush)
+     * 
+     * @return postID → số liệu (bài chưa có lượt xem nào không có trong map)
+     */
+    public Map<Integer, PostStatsRepository.ViewCounts> getCounts(Collection<Integer> postIDs) {
+        Map<Integer, PostStatsRepository.ViewCounts> result = new LinkedHashMap<>(postStatsRepository.findCounts(postIDs));
+        for (Integer postID : postIDs) {
+            Counter counter = counters.get(postID);
+            long pending = counter != null ? counter.views.sum() : 0;
+            if (pending > 0) {
+                PostStatsRepository.ViewCounts stored = result.get(postID);
+                result.put(postID, stored != null
+                        ? new PostStatsRepository.ViewCounts(stored.viewCount() + pending, stored.uniqueViewers())
+                        : new PostStatsRepository.ViewCounts(pending, counter.viewers.estimate()));
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Worker: ghi phần chênh lệch của các bài có lượt xem mới theo lô
+     */
+    @Scheduled(fixedDelayString = "${posts.view-stats.flush-interval-ms:60000}",
+               initialDelayString = "${posts.view-stats.flush-interval-ms:60000}")
+    public synchronized void flush() {
+        List<Integer> batch = new ArrayList<>(batchSize);
+        for (Map.Entry<Integer, Counter> entry : counters.entrySet()) {
+            Counter counter = entry.getValue();
+            if (!counter.touched) {
+                // Cả chu kỳ không ai xem: bỏ khỏi bộ nhớ, lần xem sau tạo sketch mới rồi gộp với DB
+                // (lượt xem trùng đúng lúc bỏ có thể bị mất, chấp nhận với số liệu thống kê)
+                counters.remove(entry.getKey(), counter);
+                continue;
+            }
+            batch.add(entry.getKey());
+            if (batch.size() >= batchSize) {
+                flushBatch(batch);
+                batch.clear();
+            }
+        }
+        flushBatch(batch);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+    
+    /**
+     * Số liệu cho GET /admin/metrics
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("trackedPosts", counters.size());
+        result.put("recordedViews", recordedViews.get());
+        result.put("flushedRows", flushedRows.get());
+        result.put("failedFlushes", failedFlushes.get());
+        return result;
+    }
+    
+    // ========================================================================
+    // PRIVATE HELPER METHODS
+    // ========================================================================
+    
+    private void flushBatch(List<Integer> postIDs) {
+        if (postIDs.isEmpty()) {
+            return;
+        }
+        
+        // Lấy phần chênh lệch trước transaction; lượt xem đến sau đó thuộc lần flush tiếp theo
+        List<Pending> pending = new ArrayList<>(postIDs.size());
+        for (Integer postID : postIDs) {
+            Counter counter = counters.get(postID);
+            if (counter != null) {
+                counter.touched = false;
+                pending.add(new Pending(postID, counter, counter.views.sumThenReset()));
+            }
+        }
+        
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<Integer, byte[]> stored = postStatsRepository.lockSketches(
+                        pending.stream().map(Pending::postID).toList());
+                List<PostStatsRepository.StatsUpdate> updates = new ArrayList<>(pending.size());
+                for (Pending row : pending) {
+                    HyperLogLog viewers = row.counter().viewers;
+                    viewers.merge(stored.get(row.postID()));
+                    updates.add(new PostStatsRepository.StatsUpdate(
+                            row.postID(), row.viewDelta(), viewers.estimate(), viewers.toBytes()));
+                }
+                postStatsRepository.upsert(updates);
+            });
+            flushedRows.addAndGet(pending.size());
+        } catch (Exception e) {
+            failedFlushes.incrementAndGet();
+            log.error("Không thể ghi lượt xem của {} bài đăng: {}", pending.size(), e.getMessage());
+            for (Pending row : pending) {
+                row.counter().views.add(row.viewDelta());
+                row.counter().touched = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.sachcu.service;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.List;
+
+/**
+ * Enum: ResponseFormat
+ * Mô tả: Định dạng response chọn theo header Accept
+ * 
+ * - JSON: mặc định (trình duyệt, frontend hiện tại)
+ * - NDJSON: mỗi dòng một object JSON (chỉ dùng cho API streaming)
+ * - CBOR / SMILE: nhị phân, cùng cấu trúc với JSON nhưng gọn hơn, dùng cho app mobile
+ */
+public enum ResponseFormat {
+    
+    JSON(MediaType.APPLICATION_JSON, null),
+    NDJSON(MediaType.APPLICATION_NDJSON, "ndjson"),
+    CBOR(MediaType.parseMediaType("application/cbor"), "cbor"),
+    SMILE(MediaType.parseMediaType("application/x-jackson-smile"), "smile");
+    
+    private final MediaType mediaType;
+    private final String etagSuffix;
+    
+    ResponseFormat(MediaType mediaType, String etagSuffix) {
+        this.mediaType = mediaType;
+        this.etagSuffix = etagSuffix;
+    }
+    
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+    
+    public boolean isBinary() {
+        return this == CBOR || this == SMILE;
+    }
+    
+    /**
+     * Scope của ETag theo định dạng, VD: "books" → "books-cbor" (JSON giữ nguyên)
+     */
+    public String etagScope(String scope) {
+        return etagSuffix == null ? scope : scope + "-" + etagSuffix;
+    }
+    
+    /**
+     * Chọn định dạng theo Accept: ưu tiên q cao hơn, cùng q thì loại cụ thể hơn (như content negotiation của Spring)
+     * Bỏ qua loại có q=0 (client từ chối), mặc định JSON
+     * 
+     * @param accept Giá trị header Accept (có thể null)
+     */
+    public static ResponseFormat fromAccept(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        List<MediaType> requested;
+        try {
+            requested = MediaType.parseMediaTypes(accept);
+            MimeTypeUtils.sortBySpecificity(requested);
+        } catch (InvalidMediaTypeException | InvalidMimeTypeException e) {
+            return JSON;
+        }
+        for (MediaType mediaType : requested) {
+            if (mediaType.getQualityValue() == 0) {
+                continue;
+            }
+            for (ResponseFormat format : values()) {
+                if (mediaType.equalsTypeAndSubtype(format.mediaType)) {
+                    return format;
+                }
+            }
+        }
+        return JSON;
+    }
+}
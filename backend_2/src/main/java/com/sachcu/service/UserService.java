@@ -3,13 +3,19 @@ package com.sachcu.service;
 import com.sachcu.dto.request.UpdateUserRequest;
 import com.sachcu.dto.response.UserResponse;
 import com.sachcu.entity.User;
+import com.sachcu.event.ListingChange;
+import com.sachcu.event.ListingChangedEvent;
 import com.sachcu.exception.ResourceNotFoundException;
 import com.sachcu.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Objects;
+
 /**
  * Service: UserService
  * Mô tả: Xử lý logic liên quan đến User
@@ -24,6 +30,8 @@ public class UserService {
     
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final BookListingMapper bookListingMapper;
+    private final ApplicationEventPublisher eventPublisher;
     
     /**
      * Lấy thông tin User theo ID
@@ -43,6 +51,8 @@ public class UserService {
         User user = userRepository.findById(userID)
                 .orElseThrow(() -> new ResourceNotFoundException("User không tồn tại với ID: " + userID));
         
+        boolean nameChanged = request.getName() != null && !Objects.equals(request.getName(), user.getName());
+        
         // Cập nhật thông tin
         if (request.getName() != null) {
             user.setName(request.getName());
@@ -61,6 +71,16 @@ public class UserService {
         }
         
         User updatedUser = userRepository.save(user);
+        
+        // Tên người đăng hiển thị trong mọi bài đăng của User → báo các cache làm mới
+        if (nameChanged && !updatedUser.getPosts().isEmpty()) {
+            List<ListingChange> changes = updatedUser.getPosts().stream()
+                    .map(post -> new ListingChange(post.getPostID(), post.getBook().getBookID(),
+                            post.getStatus(), bookListingMapper.fromPost(post)))
+                    .toList();
+            eventPublisher.publishEvent(new ListingChangedEvent(changes));
+        }
+        
         return convertToResponse(updatedUser);
     }
     
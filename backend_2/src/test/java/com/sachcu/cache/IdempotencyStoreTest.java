@@ -0,0 +1,46 @@
+package com.sachcu.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test: IdempotencyStore
+ */
+class IdempotencyStoreTest {
+    
+    private final IdempotencyStore store = new IdempotencyStore(100, Duration.ofHours(1), Duration.ofMillis(200));
+    
+    @Test
+    void replaysSuccessfulResponse() {
+        AtomicInteger calls = new AtomicInteger();
+        
+        ResponseEntity<?> first = store.execute("create-post", 1, "k", "body",
+                () -> ResponseEntity.status(HttpStatus.CREATED).body(calls.incrementAndGet()));
+        ResponseEntity<?> second = store.execute("create-post", 1, "k", "body",
+                () -> ResponseEntity.status(HttpStatus.CREATED).body(calls.incrementAndGet()));
+        
+        assertThat(calls).hasValue(1);
+        assertThat(second.getBody()).isEqualTo(first.getBody());
+        assertThat(second.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER)).isEqualTo("true");
+    }
+    
+    @Test
+    void releasesKeyWhenActionThrowsError() {
+        assertThatThrownBy(() -> store.execute("create-post", 1, "k", "body", () -> {
+            throw new StackOverflowError();
+        })).isInstanceOf(StackOverflowError.class);
+        
+        ResponseEntity<?> retry = store.execute("create-post", 1, "k", "body",
+                () -> ResponseEntity.status(HttpStatus.CREATED).body("ok"));
+        
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(retry.getHeaders().containsKey(IdempotencyStore.REPLAYED_HEADER)).isFalse();
+    }
+}
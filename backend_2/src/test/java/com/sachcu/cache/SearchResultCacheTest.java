@@ -0,0 +1,123 @@
+package com.sachcu.cache;
+
+import com.sachcu.dto.projection.BookListing;
+import com.sachcu.dto.request.BookSearchRequest;
+import com.sachcu.entity.Post;
+import com.sachcu.event.ListingChange;
+import com.sachcu.event.ListingChangedEvent;
+import com.sachcu.search.FacetIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test: SearchResultCache
+ * Entry facets=true phải bị xóa khi bài nằm NGOÀI kết quả nhưng được tính trong số đếm thay đổi
+ */
+class SearchResultCacheTest {
+    
+    private final SearchResultCache cache = new SearchResultCache(100, Duration.ofMinutes(5));
+    private final FacetIndex facetIndex = new FacetIndex();
+    private final AtomicInteger loads = new AtomicInteger();
+    
+    @BeforeEach
+    void setUp() {
+        facetIndex.beginRebuild();
+        facetIndex.load(listing(1, 1, "Hà Nội"));
+        facetIndex.finishRebuild();
+    }
+    
+    @Test
+    void approvingListingInAnotherCategoryRefreshesCategoryCounts() {
+        SearchCacheKey key = SearchCacheKey.search(request(1, null, true), false);
+        assertThat(categoryCounts(key)).containsExactly(Map.entry("1", 1));
+        
+        approve(listing(2, 2, "Hà Nội"));
+        
+        assertThat(categoryCounts(key)).containsOnly(Map.entry("1", 1), Map.entry("2", 1));
+        assertThat(loads).hasValue(2);
+    }
+    
+    @Test
+    void removingCountedListingOutsideResultsRefreshesCounts() {
+        approve(listing(2, 2, "Hà Nội"));
+        SearchCacheKey key = SearchCacheKey.search(request(1, null, true), false);
+        assertThat(categoryCounts(key)).containsOnly(Map.entry("1", 1), Map.entry("2", 1));
+        
+        ListingChange removed = ListingChange.deleted(2, 2, Post.PostStatus.APPROVED);
+        facetIndex.apply(removed);
+        cache.onListingChanged(ListingChangedEvent.of(removed));
+        
+        assertThat(categoryCounts(key)).containsExactly(Map.entry("1", 1));
+    }
+    
+    @Test
+    void listingMissingTwoFiltersDoesNotEvictFacetEntry() {
+        SearchCacheKey key = SearchCacheKey.search(request(1, "Hà Nội", true), false);
+        categoryCounts(key);
+        
+        // Khác cả danh mục lẫn tỉnh: không facet nào đếm bài này
+        approve(listing(2, 2, "Đà Nẵng"));
+        categoryCounts(key);
+        
+        assertThat(loads).hasValue(1);
+    }
+    
+    @Test
+    void entryWithoutFacetsIgnoresListingOutsideFilters() {
+        SearchCacheKey key = SearchCacheKey.search(request(1, null, false), false);
+        cache.get(key, () -> { loads.incrementAndGet(); return List.of(1); }, postIDs -> postIDs);
+        
+        approve(listing(2, 2, "Hà Nội"));
+        cache.get(key, () -> { loads.incrementAndGet(); return List.of(1); }, postIDs -> postIDs);
+        
+        assertThat(loads).hasValue(1);
+    }
+    
+    private Map<String, Integer> categoryCounts(SearchCacheKey key) {
+        Map<FacetIndex.Facet, String> filters = new EnumMap<>(FacetIndex.Facet.class);
+        filters.put(FacetIndex.Facet.CATEGORY, key.categoryID().toString());
+        if (key.province() != null) {
+            filters.put(FacetIndex.Facet.PROVINCE, key.province());
+        }
+        Map<String, Map<String, Integer>> facets = cache.get(key, () -> {
+            loads.incrementAndGet();
+            return facetIndex.count(null, filters, null, null);
+        }, counts -> List.of(1));
+        return facets.get(FacetIndex.Facet.CATEGORY.getParamName());
+    }
+    
+    private void approve(BookListing listing) {
+        ListingChange change = new ListingChange(listing.getPostID(), listing.getBookID(), Post.PostStatus.PENDING, listing);
+        facetIndex.apply(change);
+        cache.onListingChanged(ListingChangedEvent.of(change));
+    }
+    
+    private static BookSearchRequest request(Integer categoryID, String province, boolean facets) {
+        BookSearchRequest request = new BookSearchRequest();
+        request.setCategoryID(categoryID);
+        request.setProvince(province);
+        request.setFacets(facets);
+        return request;
+    }
+    
+    private static BookListing listing(int id, int categoryID, String province) {
+        BookListing listing = new BookListing();
+        listing.setBookID(id);
+        listing.setPostID(id);
+        listing.setTitle("Sách " + id);
+        listing.setCategoryID(categoryID);
+        listing.setProvince(province);
+        listing.setPrice(BigDecimal.valueOf(30_000));
+        listing.setPostStatus(Post.PostStatus.APPROVED);
+        return listing;
+    }
+}
@@ -0,0 +1,36 @@
+package com.sachcu.dto.response;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test: BookDetailResponse - thống kê của GET /my-posts không làm nặng các API công khai
+ */
+class BookDetailResponseTest {
+    
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    
+    @Test
+    void omitsMyPostsStatisticsWhenNotSet() throws Exception {
+        BookDetailResponse response = new BookDetailResponse();
+        response.setBookID(1);
+        
+        String json = objectMapper.writeValueAsString(response);
+        
+        assertThat(json).doesNotContain("viewCount", "uniqueViewers", "archived");
+    }
+    
+    @Test
+    void writesMyPostsStatisticsWhenSet() throws Exception {
+        BookDetailResponse response = new BookDetailResponse();
+        response.setViewCount(0L);
+        response.setUniqueViewers(0L);
+        response.setArchived(true);
+        
+        String json = objectMapper.writeValueAsString(response);
+        
+        assertThat(json).contains("\"viewCount\":0", "\"uniqueViewers\":0", "\"archived\":true");
+    }
+}
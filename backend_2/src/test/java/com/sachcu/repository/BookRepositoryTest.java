@@ -0,0 +1,95 @@
+package com.sachcu.repository;
+
+import com.sachcu.dto.projection.BookListing;
+import com.sachcu.entity.Post;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test: BookRepository - listing projection
+ * Mỗi lần đọc danh sách chỉ chuẩn bị MỘT câu SQL, không phụ thuộc số dòng (không N+1)
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class BookRepositoryTest {
+    
+    private static final int LISTINGS = 12;
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2026, 1, 1, 0, 0);
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private Statistics statistics;
+    
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO category (categoryid, category_name) VALUES (1, 'Giáo khoa'), (2, 'Tiểu thuyết')");
+        // Mỗi người bán một bài, mỗi sách hai danh mục: lazy load sẽ tốn thêm câu SQL cho từng dòng
+        for (int i = 1; i <= LISTINGS; i++) {
+            jdbcTemplate.update("INSERT INTO `user` (userid, name, email, password, status) VALUES (?, ?, ?, 'p', 'ACTIVE')",
+                    i, "Seller " + i, "seller" + i + "@example.com");
+            jdbcTemplate.update("INSERT INTO book (bookid, title, price, version, created_at) VALUES (?, ?, 1000, 0, ?)",
+                    i, "Book " + i, BASE_TIME.plusMinutes(i));
+            jdbcTemplate.update("INSERT INTO posts (postid, userid, bookid, status, version, created_at) VALUES (?, ?, ?, 'APPROVED', 0, ?)",
+                    i, i, i, BASE_TIME.plusMinutes(i));
+            jdbcTemplate.update("INSERT INTO book_category (bookid, categoryid) VALUES (?, 2), (?, 1)", i, i);
+        }
+        
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+    
+    @Test
+    void findListingsByStatusUsesOneStatement() {
+        List<BookListing> listings = bookRepository.findListingsByStatus(Post.PostStatus.APPROVED);
+        
+        assertThat(listings).hasSize(LISTINGS);
+        assertThat(listings).allSatisfy(listing -> {
+            assertThat(listing.getUserName()).isEqualTo("Seller " + listing.getUserID());
+            assertThat(listing.getCategoryID()).isEqualTo(1);
+            assertThat(listing.getCategoryName()).isEqualTo("Giáo khoa");
+        });
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+    
+    @Test
+    void keysetPagesUseOneStatementEach() {
+        List<BookListing> first = bookRepository.findListingsFirstPage(Post.PostStatus.APPROVED, PageRequest.of(0, 5));
+        BookListing last = first.get(first.size() - 1);
+        List<BookListing> second = bookRepository.findListingsPageAfter(Post.PostStatus.APPROVED,
+                last.getPostCreatedAt(), last.getPostID(), PageRequest.of(0, 5));
+        
+        assertThat(first).extracting(BookListing::getPostID).containsExactly(12, 11, 10, 9, 8);
+        assertThat(second).extracting(BookListing::getPostID).containsExactly(7, 6, 5, 4, 3);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+    
+    @Test
+    void findListingsByPostIdsUsesOneStatement() {
+        List<BookListing> listings = bookRepository.findListingsByPostIds(Post.PostStatus.APPROVED, List.of(2, 4, 6, 8));
+        
+        assertThat(listings).extracting(BookListing::getPostID).containsExactlyInAnyOrder(2, 4, 6, 8);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
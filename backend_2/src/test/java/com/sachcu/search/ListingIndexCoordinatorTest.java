@@ -0,0 +1,71 @@
+package com.sachcu.search;
+
+import com.sachcu.dto.projection.BookListing;
+import com.sachcu.entity.Post;
+import com.sachcu.event.ListingChange;
+import com.sachcu.event.ListingChangedEvent;
+import com.sachcu.repository.BookRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test: ListingIndexCoordinator
+ * Thay đổi commit trong lúc đang nạp index không bị beginRebuild / ảnh chụp cũ làm mất
+ */
+class ListingIndexCoordinatorTest {
+    
+    private final BookRepository bookRepository = mock(BookRepository.class);
+    private final BookSearchIndex searchIndex = new BookSearchIndex();
+    private final ListingIndexCoordinator coordinator = new ListingIndexCoordinator(
+            bookRepository, List.of(searchIndex), mock(PlatformTransactionManager.class));
+    
+    @Test
+    void changesCommittedDuringRebuildAreReplayed() {
+        BookListing first = listing(1, "Toán cao cấp");
+        BookListing second = listing(2, "Toán rời rạc");
+        BookListing approvedLater = listing(3, "Toán xác suất");
+        
+        // Ảnh chụp có bài 1, 2; trong lúc đang đọc thì bài 1 bị gỡ và bài 3 được duyệt
+        when(bookRepository.streamListingsByStatus(Post.PostStatus.APPROVED)).thenReturn(
+                Stream.of(first, second).peek(listing -> {
+                    if (listing == first) {
+                        coordinator.onListingChanged(new ListingChangedEvent(List.of(
+                                ListingChange.deleted(1, 1, Post.PostStatus.APPROVED),
+                                new ListingChange(3, 3, Post.PostStatus.PENDING, approvedLater))));
+                    }
+                }));
+        
+        coordinator.rebuildAll();
+        
+        assertThat(searchIndex.isReady()).isTrue();
+        assertThat(searchIndex.search("toan", null, null)).containsExactlyInAnyOrder(2, 3);
+    }
+    
+    @Test
+    void changesAfterRebuildAreAppliedImmediately() {
+        when(bookRepository.streamListingsByStatus(Post.PostStatus.APPROVED))
+                .thenReturn(Stream.of(listing(1, "Toán cao cấp")));
+        coordinator.rebuildAll();
+        
+        coordinator.onListingChanged(new ListingChangedEvent(List.of(
+                new ListingChange(2, 2, Post.PostStatus.PENDING, listing(2, "Toán rời rạc")))));
+        
+        assertThat(searchIndex.search("toan", null, null)).containsExactlyInAnyOrder(1, 2);
+    }
+    
+    private static BookListing listing(int id, String title) {
+        BookListing listing = new BookListing();
+        listing.setBookID(id);
+        listing.setPostID(id);
+        listing.setTitle(title);
+        listing.setPostStatus(Post.PostStatus.APPROVED);
+        return listing;
+    }
+}
@@ -0,0 +1,30 @@
+package com.sachcu.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test: VietnameseTextNormalizer
+ */
+class VietnameseTextNormalizerTest {
+    
+    @Test
+    void foldsAccentsAndCase() {
+        assertThat(VietnameseTextNormalizer.tokenize("Sách Cũ Đẹp")).containsExactly("sach", "cu", "dep");
+    }
+    
+    @Test
+    void foldingDoesNotDependOnDefaultLocale() {
+        Locale defaultLocale = Locale.getDefault();
+        try {
+            // Locale tiếng Thổ Nhĩ Kỳ: "I".toLowerCase() = "ı" (không có chấm)
+            Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+            assertThat(VietnameseTextNormalizer.fold("TIN HỌC")).isEqualTo("tin hoc");
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.sachcu.service;
+
+import com.sachcu.dto.projection.BookListing;
+import com.sachcu.dto.response.ModerationBatchResponse;
+import com.sachcu.dto.response.PostResponse;
+import com.sachcu.exception.ModerationLeaseException;
+import com.sachcu.repository.BookRepository;
+import com.sachcu.repository.ModerationQueueRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test: ModerationQueueService trên DB thật (H2)
+ * Nhiều Admin nhận/duyệt cùng lúc không bao giờ nhận trùng bài; lease hết hạn thì bài quay lại hàng đợi
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ModerationQueueRepository.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ModerationQueueServiceTest {
+    
+    private static final int POSTS = 60;
+    private static final int ADMINS = 4;
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2026, 1, 1, 0, 0);
+    
+    @Autowired
+    private ModerationQueueRepository moderationQueueRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    private TransactionTemplate transactionTemplate;
+    private ModerationQueueService moderationQueueService;
+    
+    @BeforeEach
+    void setUp() {
+        // Cột lease không có trong entity (chỉ dùng qua JDBC) nên Hibernate không tạo
+        jdbcTemplate.execute("ALTER TABLE posts ADD COLUMN IF NOT EXISTS claimed_by INT");
+        jdbcTemplate.execute("ALTER TABLE posts ADD COLUMN IF NOT EXISTS claim_expires_at TIMESTAMP");
+        jdbcTemplate.update("INSERT INTO `user` (userid, name, email, password, status) VALUES (1, 'Seller', 's@example.com', 'p', 'ACTIVE')");
+        for (int i = 1; i <= POSTS; i++) {
+            jdbcTemplate.update("INSERT INTO book (bookid, title, price, version, created_at) VALUES (?, ?, 1000, 0, ?)",
+                    i, "Book " + i, BASE_TIME.plusMinutes(i));
+            jdbcTemplate.update("INSERT INTO posts (postid, userid, bookid, status, version, created_at) VALUES (?, 1, ?, 'PENDING', 0, ?)",
+                    i, i, BASE_TIME.plusMinutes(i));
+        }
+        
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        moderationQueueService = new ModerationQueueService(moderationQueueRepository, bookRepository(),
+                bookListingMapper(), adminService(), 15, 50);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM posts");
+        jdbcTemplate.update("DELETE FROM book");
+        jdbcTemplate.update("DELETE FROM `user`");
+    }
+    
+    @Test
+    void concurrentAdminsNeverClaimTheSamePost() throws Exception {
+        Set<Integer> claimed = ConcurrentHashMap.newKeySet();
+        List<Integer> duplicates = new ArrayList<>();
+        
+        ExecutorService executor = Executors.newFixedThreadPool(ADMINS);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int admin = 1; admin <= ADMINS; admin++) {
+                int adminID = admin;
+                workers.add(executor.submit(() -> {
+                    while (true) {
+                        ModerationBatchResponse batch = transactionTemplate.execute(status ->
+                                moderationQueueService.claim(adminID, 3));
+                        if (batch.getPosts().isEmpty()) {
+                            return;
+                        }
+                        for (PostResponse post : batch.getPosts()) {
+                            if (!claimed.add(post.getPostID())) {
+                                synchronized (duplicates) {
+                                    duplicates.add(post.getPostID());
+                                }
+                            }
+                            transactionTemplate.execute(status ->
+                                    moderationQueueService.complete(adminID, post.getPostID(), "APPROVED", 0));
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        assertThat(duplicates).isEmpty();
+        assertThat(claimed).hasSize(POSTS);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM posts WHERE status = 'PENDING' OR claimed_by IS NOT NULL", Integer.class)).isZero();
+    }
+    
+    @Test
+    void expiredLeaseGoesBackToTheQueue() {
+        List<Integer> first = claim(1, 2);
+        assertThat(first).containsExactly(1, 2);
+        // Lease còn hạn: Admin khác nhận bài tiếp theo
+        assertThat(claim(2, 1)).containsExactly(3);
+        
+        jdbcTemplate.update("UPDATE posts SET claim_expires_at = ? WHERE postid IN (1, 2)",
+                LocalDateTime.now().minusMinutes(1));
+        
+        assertThat(claim(3, 2)).containsExactly(1, 2);
+        assertThatThrownBy(() -> transactionTemplate.execute(status ->
+                moderationQueueService.complete(1, 1, "APPROVED", 0)))
+                .isInstanceOf(ModerationLeaseException.class);
+    }
+    
+    @Test
+    void directStatusUpdateRespectsLiveLease() {
+        assertThat(claim(1, 1)).containsExactly(1);
+        
+        assertThatThrownBy(() -> transactionTemplate.execute(status ->
+                moderationQueueService.updateStatus(2, 1, "APPROVED", 0)))
+                .isInstanceOf(ModerationLeaseException.class);
+        
+        transactionTemplate.execute(status -> moderationQueueService.updateStatus(1, 1, "APPROVED", 0));
+        assertThat(jdbcTemplate.queryForObject("SELECT claimed_by FROM posts WHERE postid = 1", Integer.class)).isNull();
+    }
+    
+    private List<Integer> claim(int adminID, int limit) {
+        return transactionTemplate.execute(status -> moderationQueueService.claim(adminID, limit))
+                .getPosts().stream().map(PostResponse::getPostID).toList();
+    }
+    
+    private static BookRepository bookRepository() {
+        BookRepository bookRepository = mock(BookRepository.class);
+        when(bookRepository.findListingsByPostIds(any(), anyList())).thenAnswer(invocation -> {
+            List<Integer> postIDs = invocation.getArgument(1);
+            return postIDs.stream().map(postID -> {
+                BookListing listing = new BookListing();
+                listing.setPostID(postID);
+                return listing;
+            }).toList();
+        });
+        return bookRepository;
+    }
+    
+    private static BookListingMapper bookListingMapper() {
+        BookListingMapper bookListingMapper = mock(BookListingMapper.class);
+        when(bookListingMapper.toPostResponse(any())).thenAnswer(invocation -> {
+            PostResponse response = new PostResponse();
+            response.setPostID(invocation.<BookListing>getArgument(0).getPostID());
+            return response;
+        });
+        return bookListingMapper;
+    }
+    
+    // Ghi trạng thái thẳng vào DB, trong transaction của lần gọi complete/updateStatus
+    private AdminService adminService() {
+        AdminService adminService = mock(AdminService.class);
+        when(adminService.updatePostStatus(anyInt(), anyString(), any())).thenAnswer(invocation -> {
+            Integer postID = invocation.getArgument(0);
+            jdbcTemplate.update("UPDATE posts SET status = ? WHERE postid = ?", invocation.getArgument(1), postID);
+            PostResponse response = new PostResponse();
+            response.setPostID(postID);
+            return response;
+        });
+        return adminService;
+    }
+}
@@ -0,0 +1,33 @@
+package com.sachcu.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test: ResponseFormat
+ */
+class ResponseFormatTest {
+    
+    @Test
+    void defaultsToJson() {
+        assertThat(ResponseFormat.fromAccept(null)).isEqualTo(ResponseFormat.JSON);
+        assertThat(ResponseFormat.fromAccept("*/*")).isEqualTo(ResponseFormat.JSON);
+        assertThat(ResponseFormat.fromAccept("not a media type")).isEqualTo(ResponseFormat.JSON);
+    }
+    
+    @Test
+    void prefersHigherQualityOverHeaderOrder() {
+        assertThat(ResponseFormat.fromAccept("application/json;q=0.5, application/cbor"))
+                .isEqualTo(ResponseFormat.CBOR);
+        assertThat(ResponseFormat.fromAccept("application/cbor;q=0.2, application/x-jackson-smile;q=0.8"))
+                .isEqualTo(ResponseFormat.SMILE);
+    }
+    
+    @Test
+    void ignoresRejectedTypes() {
+        assertThat(ResponseFormat.fromAccept("application/cbor;q=0")).isEqualTo(ResponseFormat.JSON);
+        assertThat(ResponseFormat.fromAccept("application/cbor;q=0, application/x-ndjson;q=0.1"))
+                .isEqualTo(ResponseFormat.NDJSON);
+    }
+}
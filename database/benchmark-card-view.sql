@@ -0,0 +1,89 @@
+-- ===========================================
+-- BENCHMARK: GET /books?view=card (không đọc cột TEXT)
+-- ===========================================
+-- Tạo database riêng sachcu_bench, sinh dữ liệu giả rồi so sánh số byte
+-- MySQL gửi về cho app (Bytes_sent) giữa query listing đầy đủ và query thẻ sách.
+-- Không đụng tới sachcu_db.
+--
+-- Chạy:
+--   docker exec -i mysql-sachcu mysql -uroot -p123456 < benchmark-card-view.sql | grep -E "^(detail|card)"
+--
+-- Đọc kết quả: cột bytes_sent của từng view (chênh lệch Bytes_sent trước/sau query,
+-- gồm cả vài trăm byte của chính các câu SHOW STATUS)
+-- ===========================================
+
+DROP DATABASE IF EXISTS sachcu_bench;
+CREATE DATABASE sachcu_bench CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci;
+USE sachcu_bench;
+
+CREATE TABLE user LIKE sachcu_db.user;
+CREATE TABLE category LIKE sachcu_db.category;
+CREATE TABLE book LIKE sachcu_db.book;
+CREATE TABLE posts LIKE sachcu_db.posts;
+CREATE TABLE book_category LIKE sachcu_db.book_category;
+
+-- ===========================================
+-- SINH DỮ LIỆU: 20.000 sách, mô tả sách/bài đăng ~500 ký tự
+-- ===========================================
+SET SESSION cte_max_recursion_depth = 1000000;
+
+INSERT INTO user (userID, name, email, password, status)
+VALUES (1, 'Bench', 'bench@sachcu.vn', 'x', 'ACTIVE');
+
+INSERT INTO category (categoryID, category_name) VALUES (1, 'Giáo khoa');
+
+INSERT INTO book (bookID, title, author, price, description, image, contact_info,
+                  province, district, book_condition, created_at)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 20000)
+SELECT n,
+       CONCAT('Sách ', n),
+       CONCAT('Tác giả ', n % 500),
+       5000 + (n * 7919) % 495000,
+       REPEAT('Sách còn mới, không ghi chép, giao tận nơi. ', 11),
+       CONCAT('/api/images/', n, '.jpg'),
+       '0901234567',
+       '79', '760',
+       'Cũ',
+       NOW() - INTERVAL n MINUTE
+FROM seq;
+
+INSERT INTO posts (postID, userID, bookID, description, status, created_at)
+SELECT bookID, 1, bookID, REPEAT('Bán gấp, ưu tiên sinh viên, có thể thương lượng. ', 10),
+       'APPROVED', created_at
+FROM book;
+
+INSERT INTO book_category (bookID, categoryID) SELECT bookID, 1 FROM book;
+
+ANALYZE TABLE book, posts, book_category;
+
+-- ===========================================
+-- ĐO (rút gọn từ LISTING_SELECT và CARD_SELECT của BookRepository)
+-- ===========================================
+
+-- view=detail
+SELECT VARIABLE_VALUE INTO @before FROM performance_schema.session_status WHERE VARIABLE_NAME = 'Bytes_sent';
+SELECT b.bookID, b.title, b.author, b.book_condition, b.price, b.description, b.image,
+       b.contact_info, b.province, b.district, b.created_at,
+       p.postID, p.description, p.status, p.created_at, u.userID, u.name, c.categoryID, c.category_name
+FROM posts p JOIN book b ON b.bookID = p.bookID JOIN user u ON u.userID = p.userID
+LEFT JOIN book_category bc ON bc.bookID = b.bookID
+LEFT JOIN category c ON c.categoryID = bc.categoryID
+WHERE p.status = 'APPROVED'
+ORDER BY p.created_at DESC, p.postID DESC;
+SELECT VARIABLE_VALUE INTO @after FROM performance_schema.session_status WHERE VARIABLE_NAME = 'Bytes_sent';
+SELECT 'detail' AS view_name, @after - @before AS bytes_sent;
+
+-- view=card
+SELECT VARIABLE_VALUE INTO @before FROM performance_schema.session_status WHERE VARIABLE_NAME = 'Bytes_sent';
+SELECT b.bookID, b.title, b.author, b.book_condition, b.price, b.image,
+       b.province, b.district, b.created_at,
+       p.postID, p.created_at, c.categoryID, c.category_name
+FROM posts p JOIN book b ON b.bookID = p.bookID
+LEFT JOIN book_category bc ON bc.bookID = b.bookID
+LEFT JOIN category c ON c.categoryID = bc.categoryID
+WHERE p.status = 'APPROVED'
+ORDER BY p.created_at DESC, p.postID DESC;
+SELECT VARIABLE_VALUE INTO @after FROM performance_schema.session_status WHERE VARIABLE_NAME = 'Bytes_sent';
+SELECT 'card' AS view_name, @after - @before AS bytes_sent;
+
+DROP DATABASE sachcu_bench;
@@ -0,0 +1,126 @@
+-- ===========================================
+-- BENCHMARK: /books/search (lọc giá + sắp xếp)
+-- ===========================================
+-- Tạo database riêng sachcu_bench, sinh dữ liệu giả rồi so sánh
+-- EXPLAIN ANALYZE trước và sau khi thêm index.
+-- Không đụng tới sachcu_db.
+--
+-- Chạy (MySQL 8.0.18+ để có EXPLAIN ANALYZE):
+--   docker exec -i mysql-sachcu mysql -uroot -p123456 < benchmark-search.sql
+--
+-- Đọc kết quả:
+-- - TRƯỚC: "Table scan on b" + "Sort: b.price" trên toàn bộ book
+-- - SAU: "Index range scan on b using idx_book_location_price",
+--   không còn bước Sort riêng khi lọc đủ (province, district)
+-- ===========================================
+
+DROP DATABASE IF EXISTS sachcu_bench;
+CREATE DATABASE sachcu_bench CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci;
+USE sachcu_bench;
+
+CREATE TABLE user LIKE sachcu_db.user;
+CREATE TABLE category LIKE sachcu_db.category;
+CREATE TABLE book LIKE sachcu_db.book;
+CREATE TABLE posts LIKE sachcu_db.posts;
+CREATE TABLE book_category LIKE sachcu_db.book_category;
+
+-- Bỏ các index cần đo để có số liệu "trước"
+ALTER TABLE book DROP INDEX idx_book_location_price, DROP INDEX idx_book_price;
+ALTER TABLE posts DROP INDEX idx_posts_status_created;
+
+-- ===========================================
+-- SINH DỮ LIỆU: 200.000 sách, 63 tỉnh x 10 quận, giá 5.000 - 500.000
+-- ===========================================
+SET SESSION cte_max_recursion_depth = 1000000;
+
+INSERT INTO user (userID, name, email, password, status)
+VALUES (1, 'Bench', 'bench@sachcu.vn', 'x', 'ACTIVE');
+
+INSERT INTO category (categoryID, category_name)
+SELECT n, CONCAT('Danh mục ', n)
+FROM (WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 20) SELECT n FROM seq) s;
+
+INSERT INTO book (bookID, title, author, price, description, province, district, book_condition, created_at)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 200000)
+SELECT n,
+       CONCAT('Sách ', n),
+       CONCAT('Tác giả ', n % 5000),
+       5000 + (n * 7919) % 495000,
+       'Mô tả',
+       CONCAT('Tỉnh ', n % 63),
+       CONCAT('Quận ', n % 10),
+       IF(n % 3 = 0, 'Cũ', 'Mới'),
+       NOW() - INTERVAL n MINUTE
+FROM seq;
+
+INSERT INTO posts (postID, userID, bookID, description, status, created_at)
+SELECT bookID, 1, bookID, 'Bài đăng',
+       ELT(1 + bookID % 4, 'APPROVED', 'APPROVED', 'PENDING', 'SOLD'),
+       created_at
+FROM book;
+
+INSERT INTO book_category (bookID, categoryID)
+SELECT bookID, 1 + bookID % 20 FROM book;
+
+ANALYZE TABLE book, posts, book_category;
+
+-- ===========================================
+-- CÁC TRUY VẤN ĐO (rút gọn từ BookRepository.searchListings)
+-- ===========================================
+-- Q1: khu vực + khoảng giá, sort=price_asc
+-- Q2: chỉ khoảng giá, sort=price_desc
+-- Q3: không lọc, sort=newest (trang đầu)
+
+SELECT '==== TRƯỚC KHI THÊM INDEX ====' AS phase;
+
+EXPLAIN ANALYZE
+SELECT p.postID, b.title, b.price
+FROM posts p JOIN book b ON b.bookID = p.bookID
+WHERE p.status = 'APPROVED' AND b.province = 'Tỉnh 7' AND b.district = 'Quận 7'
+  AND b.price BETWEEN 50000 AND 200000
+ORDER BY b.price ASC, p.created_at DESC, p.postID DESC;
+
+EXPLAIN ANALYZE
+SELECT p.postID, b.title, b.price
+FROM posts p JOIN book b ON b.bookID = p.bookID
+WHERE p.status = 'APPROVED' AND b.price BETWEEN 100000 AND 110000
+ORDER BY b.price DESC, p.created_at DESC, p.postID DESC;
+
+EXPLAIN ANALYZE
+SELECT p.postID, b.title, b.price
+FROM posts p JOIN book b ON b.bookID = p.bookID
+WHERE p.status = 'APPROVED'
+ORDER BY p.created_at DESC, p.postID DESC
+LIMIT 21;
+
+-- Thêm lại đúng các index trong init-db.sql
+ALTER TABLE book
+    ADD INDEX idx_book_location_price (province, district, price),
+    ADD INDEX idx_book_price (price);
+ALTER TABLE posts
+    ADD INDEX idx_posts_status_created (status, created_at, postID);
+ANALYZE TABLE book, posts;
+
+SELECT '==== SAU KHI THÊM INDEX ====' AS phase;
+
+EXPLAIN ANALYZE
+SELECT p.postID, b.title, b.price
+FROM posts p JOIN book b ON b.bookID = p.bookID
+WHERE p.status = 'APPROVED' AND b.province = 'Tỉnh 7' AND b.district = 'Quận 7'
+  AND b.price BETWEEN 50000 AND 200000
+ORDER BY b.price ASC, p.created_at DESC, p.postID DESC;
+
+EXPLAIN ANALYZE
+SELECT p.postID, b.title, b.price
+FROM posts p JOIN book b ON b.bookID = p.bookID
+WHERE p.status = 'APPROVED' AND b.price BETWEEN 100000 AND 110000
+ORDER BY b.price DESC, p.created_at DESC, p.postID DESC;
+
+EXPLAIN ANALYZE
+SELECT p.postID, b.title, b.price
+FROM posts p JOIN book b ON b.bookID = p.bookID
+WHERE p.status = 'APPROVED'
+ORDER BY p.created_at DESC, p.postID DESC
+LIMIT 21;
+
+DROP DATABASE sachcu_bench;
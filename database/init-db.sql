@@ -55,7 +55,13 @@ CREATE TABLE book (
     district VARCHAR(50),
     book_condition VARCHAR(50),
     contact_info VARCHAR(100),
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    -- Optimistic locking (@Version), tăng mỗi lần cập nhật
+    version INT NOT NULL DEFAULT 0,
+    -- /books/search lọc theo khu vực + khoảng giá, sắp xếp theo giá
+    INDEX idx_book_location_price (province, district, price),
+    -- /books/search sort=price_asc|price_desc khi không lọc khu vực
+    INDEX idx_book_price (price)
 );
 
 -- ===========================================
@@ -66,11 +72,38 @@ CREATE TABLE posts (
     userID INT NOT NULL,
     bookID INT NOT NULL UNIQUE,
     description TEXT,
-    status ENUM('APPROVED','PENDING','DECLINED','SOLD') DEFAULT 'PENDING',
+    status ENUM('APPROVED','PENDING','DECLINED','SOLD','EXPIRED') DEFAULT 'PENDING',
     FOREIGN KEY (userID) REFERENCES user(userID) ON DELETE CASCADE,
     FOREIGN KEY (bookID) REFERENCES book(bookID) ON DELETE CASCADE,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    -- Hạn hiển thị, đặt khi Admin duyệt (NULL = không hết hạn); quá hạn → EXPIRED
+    expires_at TIMESTAMP NULL,
+    -- Optimistic locking (@Version): ETag "v{version}", PUT phải gửi If-Match
+    version INT NOT NULL DEFAULT 0,
+    -- Hàng đợi duyệt bài: Admin đang giữ bài PENDING đến claim_expires_at (quá hạn → trả về hàng đợi)
+    claimed_by INT NULL,
+    claim_expires_at TIMESTAMP NULL,
+    FOREIGN KEY (claimed_by) REFERENCES admin(adminID) ON DELETE SET NULL,
+    -- Keyset pagination GET /books: WHERE status = ? ORDER BY created_at DESC, postID DESC
+    INDEX idx_posts_status_created (status, created_at, postID),
+    -- Archiver: bài APPROVED quá expires_at, bài SOLD/DECLINED/EXPIRED lâu không cập nhật
+    INDEX idx_posts_status_expires (status, expires_at),
+    INDEX idx_posts_status_updated (status, updated_at)
+);
+
+-- ===========================================
+-- BẢNG POST_STATS (lượt xem, ghi theo lô từ bộ nhớ)
+-- ===========================================
+CREATE TABLE post_stats (
+    postID INT PRIMARY KEY,
+    view_count BIGINT NOT NULL DEFAULT 0,
+    -- Số người xem khác nhau, ước lượng từ viewer_sketch
+    unique_viewers BIGINT NOT NULL DEFAULT 0,
+    -- HyperLogLog 1024 thanh ghi, gộp (max) mỗi lần ghi
+    viewer_sketch VARBINARY(1024),
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (postID) REFERENCES posts(postID) ON DELETE CASCADE
 );
 
 -- ===========================================
@@ -98,6 +131,72 @@ CREATE TABLE report (
     FOREIGN KEY (adminID) REFERENCES admin(adminID) ON DELETE SET NULL
 );
 
+-- ===========================================
+-- BẢNG LƯU TRỮ (ARCHIVE)
+-- ===========================================
+-- Bài SOLD/DECLINED/EXPIRED lâu ngày được chuyển khỏi posts/book/book_category
+-- sang các bảng dưới đây theo lô (PostArchiveService), giữ nguyên postID/bookID.
+-- Người bán và Admin vẫn xem được lịch sử; không còn nằm trong các truy vấn danh sách
+CREATE TABLE book_archive (
+    bookID INT PRIMARY KEY,
+    title VARCHAR(150) NOT NULL,
+    author VARCHAR(100),
+    price DECIMAL(10,2) NOT NULL,
+    description TEXT,
+    image VARCHAR(255),
+    province VARCHAR(50),
+    district VARCHAR(50),
+    book_condition VARCHAR(50),
+    contact_info VARCHAR(100),
+    created_at TIMESTAMP NULL,
+    version INT NOT NULL DEFAULT 0
+);
+
+CREATE TABLE book_category_archive (
+    bookID INT NOT NULL,
+    categoryID INT NOT NULL,
+    PRIMARY KEY (bookID, categoryID),
+    FOREIGN KEY (bookID) REFERENCES book_archive(bookID) ON DELETE CASCADE,
+    FOREIGN KEY (categoryID) REFERENCES category(categoryID) ON DELETE CASCADE
+);
+
+CREATE TABLE posts_archive (
+    postID INT PRIMARY KEY,
+    userID INT NOT NULL,
+    bookID INT NOT NULL UNIQUE,
+    description TEXT,
+    status ENUM('APPROVED','PENDING','DECLINED','SOLD','EXPIRED') NOT NULL,
+    created_at TIMESTAMP NULL,
+    updated_at TIMESTAMP NULL,
+    expires_at TIMESTAMP NULL,
+    version INT NOT NULL DEFAULT 0,
+    -- Lượt xem tại thời điểm lưu trữ (post_stats bị xóa theo posts)
+    view_count BIGINT NOT NULL DEFAULT 0,
+    unique_viewers BIGINT NOT NULL DEFAULT 0,
+    archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (userID) REFERENCES user(userID) ON DELETE CASCADE,
+    FOREIGN KEY (bookID) REFERENCES book_archive(bookID) ON DELETE CASCADE,
+    -- GET /my-posts: bài đã lưu trữ của một user, mới nhất trước
+    INDEX idx_posts_archive_user (userID, created_at),
+    INDEX idx_posts_archive_status (status)
+);
+
+-- ===========================================
+-- BẢNG FILE_DELETION_OUTBOX
+-- ===========================================
+-- Ảnh chờ xóa: ghi cùng transaction với thao tác sửa/xóa bài đăng,
+-- worker nền xóa file sau khi commit và thử lại với backoff nếu lỗi
+CREATE TABLE file_deletion_outbox (
+    outboxID BIGINT AUTO_INCREMENT PRIMARY KEY,
+    file_name VARCHAR(255) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error VARCHAR(255),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    -- Worker lấy các dòng đến hạn: WHERE attempts < ? AND next_attempt_at <= ? ORDER BY outboxID
+    INDEX idx_outbox_due (next_attempt_at, attempts)
+);
+
 -- ===========================================
 -- CATEGORY SAMPLE DATA
 -- ===========================================